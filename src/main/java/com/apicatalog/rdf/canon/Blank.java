@@ -1,5 +0,0 @@
-package com.apicatalog.rdf.canon;
-
-final class Blank {
-    String normalized;
-}
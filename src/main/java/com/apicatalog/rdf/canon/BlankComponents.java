@@ -0,0 +1,161 @@
+package com.apicatalog.rdf.canon;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Connected components of the blank node graph, i.e. sets of blank nodes
+ * linked, directly or transitively, by sharing a quad.
+ * <p>
+ * Blank nodes in different components cannot affect each other's hashes, as
+ * long as none of them has a canonical identifier issued, so components can
+ * be hashed independently.
+ */
+final class BlankComponents {
+
+    /** Blank node identifier to its component index. */
+    private final Map<String, Integer> index;
+
+    /** Blank node identifiers per component, in the order of discovery. */
+    private final List<List<String>> components;
+
+    private BlankComponents(Map<String, Integer> index, List<List<String>> components) {
+        this.index = index;
+        this.components = components;
+    }
+
+    /**
+     * Decomposes the blank node graph using a union-find over the quads
+     * referencing the blank nodes.
+     *
+     * @param blankIdToQuadSet blank node identifiers to the quads referencing
+     *                         them
+     * @return the connected components
+     */
+    static BlankComponents of(final Map<String, Collection<Quad>> blankIdToQuadSet) {
+
+        final Map<String, Integer> ids = new HashMap<>(blankIdToQuadSet.size() * 2);
+        final String[] names = new String[blankIdToQuadSet.size()];
+
+        for (final String id : blankIdToQuadSet.keySet()) {
+            names[ids.size()] = id;
+            ids.put(id, ids.size());
+        }
+
+        final int[] parent = new int[names.length];
+        for (int i = 0; i < parent.length; i++) {
+            parent[i] = i;
+        }
+
+        for (final var entry : blankIdToQuadSet.entrySet()) {
+            final int node = ids.get(entry.getKey());
+            for (final Quad quad : entry.getValue()) {
+                for (final Position position : Position.CAN_BE_BLANK) {
+                    if (position.isBlank(quad)) {
+                        final Integer other = ids.get(position.get(quad));
+                        if (other != null) {
+                            union(parent, node, other);
+                        }
+                    }
+                }
+            }
+        }
+
+        final Map<String, Integer> index = new HashMap<>(ids.size() * 2);
+        final List<List<String>> components = new ArrayList<>();
+        final int[] rootToComponent = new int[names.length];
+
+        for (int i = 0; i < names.length; i++) {
+            final int root = find(parent, i);
+            if (rootToComponent[root] == 0) {
+                // a new component, indices are shifted by one so zero means none
+                components.add(new ArrayList<>());
+                rootToComponent[root] = components.size();
+            }
+            final int component = rootToComponent[root] - 1;
+            components.get(component).add(names[i]);
+            index.put(names[i], component);
+        }
+
+        return new BlankComponents(index, components);
+    }
+
+    /**
+     * Get the index of the component containing the given blank node.
+     *
+     * @param id a blank node identifier
+     * @return the component index, or {@code -1} if the blank node is unknown
+     */
+    int componentOf(final String id) {
+        final Integer component = index.get(id);
+        return component != null ? component : -1;
+    }
+
+    /**
+     * Get the blank node identifiers of the given component.
+     *
+     * @param component a component index
+     * @return the blank node identifiers
+     */
+    List<String> component(final int component) {
+        return components.get(component);
+    }
+
+    /**
+     * Get all the components.
+     *
+     * @return the list of components
+     */
+    List<List<String>> components() {
+        return components;
+    }
+
+    /**
+     * Get the number of components.
+     *
+     * @return the number of components
+     */
+    int size() {
+        return components.size();
+    }
+
+    /**
+     * Groups the given blank node identifiers by their components, preserving
+     * the relative order of the identifiers.
+     *
+     * @param ids blank node identifiers
+     * @return the non-empty groups
+     */
+    List<List<String>> groupBy(final Collection<String> ids) {
+        final Map<Integer, List<String>> groups = new HashMap<>();
+        final List<List<String>> result = new ArrayList<>();
+        for (final String id : ids) {
+            groups.computeIfAbsent(componentOf(id), k -> {
+                final List<String> group = new ArrayList<>();
+                result.add(group);
+                return group;
+            }).add(id);
+        }
+        return result;
+    }
+
+    private static int find(final int[] parent, int node) {
+        while (parent[node] != node) {
+            // path halving
+            parent[node] = parent[parent[node]];
+            node = parent[node];
+        }
+        return node;
+    }
+
+    private static void union(final int[] parent, final int a, final int b) {
+        final int rootA = find(parent, a);
+        final int rootB = find(parent, b);
+        if (rootA != rootB) {
+            parent[Math.max(rootA, rootB)] = Math.min(rootA, rootB);
+        }
+    }
+}
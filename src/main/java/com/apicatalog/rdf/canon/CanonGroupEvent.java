@@ -0,0 +1,34 @@
+package com.apicatalog.rdf.canon;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * A JDK Flight Recorder event emitted for each group of blank nodes sharing a
+ * first degree hash, hashed by the Hash N-Degree Quads algorithm.
+ * <p>
+ * The event is disabled by default, enable
+ * {@code com.apicatalog.rdf.canon.HashGroup} in a recording to emit it.
+ */
+@Name("com.apicatalog.rdf.canon.HashGroup")
+@Label("RDF Canonicalization Hash Group")
+@Category({ "RDF", "Canonicalization" })
+@Description("Blank nodes sharing a first degree hash")
+@Enabled(false)
+@StackTrace(false)
+final class CanonGroupEvent extends Event {
+
+    @Label("First Degree Hash")
+    String hash;
+
+    @Label("Blank Nodes")
+    long blankNodes;
+
+    @Label("Permutations")
+    long permutations;
+}
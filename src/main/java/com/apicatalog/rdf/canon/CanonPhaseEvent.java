@@ -0,0 +1,38 @@
+package com.apicatalog.rdf.canon;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * A JDK Flight Recorder event emitted for each phase of a canonicalization
+ * run, i.e. {@code issueSimpleIds}, {@code issueNDegreeIds} and
+ * {@code canonQuads}.
+ * <p>
+ * The event is disabled by default, enable
+ * {@code com.apicatalog.rdf.canon.Phase} in a recording to emit it.
+ */
+@Name("com.apicatalog.rdf.canon.Phase")
+@Label("RDF Canonicalization Phase")
+@Category({ "RDF", "Canonicalization" })
+@Description("A phase of an RDF dataset canonicalization run")
+@Enabled(false)
+@StackTrace(false)
+final class CanonPhaseEvent extends Event {
+
+    @Label("Phase")
+    String phase;
+
+    @Label("Quads")
+    long quads;
+
+    @Label("Blank Nodes")
+    long blankNodes;
+
+    @Label("Permutations")
+    long permutations;
+}
@@ -0,0 +1,170 @@
+package com.apicatalog.rdf.canon;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Flow;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * A {@link Flow.Publisher} emitting canonical N-Quads in batches.
+ * <p>
+ * Canonicalization starts on the given executor when the subscriber requests
+ * the first batch, and batches are emitted only as demanded. The publisher
+ * accepts a single subscriber since the underlying {@link RdfCanon} instance
+ * can be canonicalized only once.
+ */
+final class CanonPublisher implements Flow.Publisher<List<String>> {
+
+	private final Supplier<Collection<Quad>> canonizer;
+	private final int batchSize;
+	private final Executor executor;
+
+	private final AtomicBoolean subscribed = new AtomicBoolean();
+
+	CanonPublisher(Supplier<Collection<Quad>> canonizer, int batchSize, Executor executor) {
+		this.canonizer = canonizer;
+		this.batchSize = batchSize;
+		this.executor = executor;
+	}
+
+	@Override
+	public void subscribe(Flow.Subscriber<? super List<String>> subscriber) {
+		Objects.requireNonNull(subscriber);
+
+		if (!subscribed.compareAndSet(false, true)) {
+			subscriber.onSubscribe(new Flow.Subscription() {
+				@Override
+				public void request(long n) {
+					// ignore
+				}
+
+				@Override
+				public void cancel() {
+					// ignore
+				}
+			});
+			subscriber.onError(new IllegalStateException("Canonical N-Quads can be published only once."));
+			return;
+		}
+
+		subscriber.onSubscribe(new CanonSubscription(subscriber));
+	}
+
+	private final class CanonSubscription implements Flow.Subscription, Runnable {
+
+		private final Flow.Subscriber<? super List<String>> subscriber;
+
+		/** Outstanding demand in batches. */
+		private final AtomicLong demand = new AtomicLong();
+
+		/** Serializes drain loops, the executor runs at most one at a time. */
+		private final AtomicInteger wip = new AtomicInteger();
+
+		private volatile boolean cancelled;
+
+		private volatile Throwable pendingError;
+
+		/** Canonical quads, accessed only from the drain loop. */
+		private Iterator<Quad> iterator;
+
+		private boolean done;
+
+		CanonSubscription(Flow.Subscriber<? super List<String>> subscriber) {
+			this.subscriber = subscriber;
+		}
+
+		@Override
+		public void request(long n) {
+			if (n <= 0) {
+				pendingError = new IllegalArgumentException("Requested demand must be positive but was " + n + ".");
+			} else {
+				demand.getAndAccumulate(n, (current, added) -> {
+					final long sum = current + added;
+					return sum < 0 ? Long.MAX_VALUE : sum;
+				});
+			}
+			schedule();
+		}
+
+		@Override
+		public void cancel() {
+			cancelled = true;
+		}
+
+		private void schedule() {
+			if (wip.getAndIncrement() == 0) {
+				try {
+					executor.execute(this);
+				} catch (RejectedExecutionException e) {
+					wip.set(0);
+					if (!done) {
+						done = true;
+						subscriber.onError(e);
+					}
+				}
+			}
+		}
+
+		@Override
+		public void run() {
+			int missed = 1;
+			do {
+				drain();
+				missed = wip.addAndGet(-missed);
+			} while (missed != 0);
+		}
+
+		private void drain() {
+			if (done || cancelled) {
+				return;
+			}
+
+			if (pendingError != null) {
+				fail(pendingError);
+				return;
+			}
+
+			if (iterator == null) {
+				try {
+					iterator = canonizer.get().iterator();
+
+				} catch (RuntimeException e) {
+					fail(e);
+					return;
+				}
+			}
+
+			while (demand.get() > 0 && iterator.hasNext()) {
+				if (cancelled) {
+					return;
+				}
+
+				final List<String> batch = new ArrayList<>(batchSize);
+				while (batch.size() < batchSize && iterator.hasNext()) {
+					batch.add(iterator.next().nquad);
+				}
+
+				demand.decrementAndGet();
+				subscriber.onNext(batch);
+			}
+
+			if (!iterator.hasNext() && !cancelled) {
+				done = true;
+				subscriber.onComplete();
+			}
+		}
+
+		private void fail(Throwable e) {
+			done = true;
+			subscriber.onError(e);
+		}
+	}
+}
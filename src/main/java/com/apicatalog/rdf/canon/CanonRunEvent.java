@@ -0,0 +1,44 @@
+package com.apicatalog.rdf.canon;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * A JDK Flight Recorder event emitted for each canonicalization run.
+ * <p>
+ * The event is disabled by default, enable
+ * {@code com.apicatalog.rdf.canon.Run} in a recording to emit it.
+ */
+@Name("com.apicatalog.rdf.canon.Run")
+@Label("RDF Canonicalization")
+@Category({ "RDF", "Canonicalization" })
+@Description("An RDF dataset canonicalization run")
+@Enabled(false)
+@StackTrace(false)
+final class CanonRunEvent extends Event {
+
+    @Label("Hash Algorithm")
+    String hashAlgorithm;
+
+    @Label("Quads")
+    long quads;
+
+    @Label("Blank Nodes")
+    long blankNodes;
+
+    @Label("Tied Blank Nodes")
+    @Description("Blank nodes sharing a first degree hash with another blank node")
+    long tiedBlankNodes;
+
+    @Label("Permutations")
+    long permutations;
+
+    @Label("Cached")
+    @Description("The result has been found in the result cache")
+    boolean cached;
+}
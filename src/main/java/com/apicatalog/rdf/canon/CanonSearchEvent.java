@@ -0,0 +1,39 @@
+package com.apicatalog.rdf.canon;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Threshold;
+
+/**
+ * A JDK Flight Recorder event emitted for a permutation search of a single
+ * blank node, the Hash N-Degree Quads algorithm, taking longer than the
+ * threshold.
+ * <p>
+ * The event is disabled by default, enable
+ * {@code com.apicatalog.rdf.canon.PermutationSearch} in a recording to emit
+ * it.
+ */
+@Name("com.apicatalog.rdf.canon.PermutationSearch")
+@Label("RDF Canonicalization Permutation Search")
+@Category({ "RDF", "Canonicalization" })
+@Description("A slow Hash N-Degree Quads computation of a blank node")
+@Enabled(false)
+@Threshold("10 ms")
+final class CanonSearchEvent extends Event {
+
+    @Label("Blank Node")
+    String blankNode;
+
+    @Label("Related Quads")
+    long quads;
+
+    @Label("Permutations")
+    long permutations;
+
+    @Label("Maximal Depth")
+    int depth;
+}
@@ -0,0 +1,114 @@
+package com.apicatalog.rdf.canon;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import com.apicatalog.rdf.nquads.NQuadsWriter;
+
+/**
+ * A structural fingerprint of a blank node component used as a
+ * {@link RdfCanonCache} key.
+ * <p>
+ * The component quads are serialized in the order of their first occurrence.
+ * Blank nodes with an issued canonical identifier keep it, the others are
+ * renamed to {@code _:l0}, {@code _:l1}, ... in the order they are met. Two
+ * components with the same fingerprint are therefore identical up to the
+ * renaming, which maps the cached relative labeling of one to the other.
+ */
+final class ComponentKey {
+
+    private static final String LOCAL_PREFIX = "_:l";
+
+    /** The digest of the serialized component. */
+    private final String base;
+
+    /** Blank node identifiers to their local indices. */
+    private final Map<String, Integer> local;
+
+    /** Local indices to the blank node identifiers. */
+    private final List<String> ids;
+
+    private ComponentKey(String base, Map<String, Integer> local, List<String> ids) {
+        this.base = base;
+        this.local = local;
+        this.ids = ids;
+    }
+
+    static ComponentKey of(final List<String> component, final Map<String, Collection<Quad>> blankIdToQuadSet,
+            final IdentifierIssuer canonIssuer, final MessageDigest digest) {
+
+        final Map<String, Integer> local = new HashMap<>();
+        final List<String> ids = new ArrayList<>();
+        final Set<Quad> visited = Collections.newSetFromMap(new IdentityHashMap<>());
+
+        digest.reset();
+        digest.update(digest.getAlgorithm().getBytes(StandardCharsets.UTF_8));
+
+        for (final String id : component) {
+            for (final Quad quad : blankIdToQuadSet.get(id)) {
+                if (!visited.add(quad)) {
+                    continue;
+                }
+                final String subject = label(quad.subject, quad.blankSubject, local, ids, canonIssuer);
+                final String object = label(quad.object, quad.blankObject, local, ids, canonIssuer);
+                final String graph = label(quad.graph, quad.blankGraph, local, ids, canonIssuer);
+
+                digest.update(NQuadsWriter
+                        .nquad(subject, quad.predicate, object, quad.datatype, quad.language, quad.direction, graph)
+                        .getBytes(StandardCharsets.UTF_8));
+            }
+        }
+
+        return new ComponentKey(RdfCanon.hex(digest.digest()), local, ids);
+    }
+
+    private static String label(final String value, final boolean blank, final Map<String, Integer> local,
+            final List<String> ids, final IdentifierIssuer canonIssuer) {
+        if (!blank) {
+            return value;
+        }
+        if (canonIssuer.hasId(value)) {
+            return canonIssuer.getId(value);
+        }
+        return LOCAL_PREFIX + local.computeIfAbsent(value, k -> {
+            ids.add(k);
+            return ids.size() - 1;
+        });
+    }
+
+    /**
+     * Get the cache key of the Hash N-Degree Quads entry point.
+     *
+     * @param id a blank node identifier in the component
+     * @return the cache key
+     */
+    String key(final String id) {
+        return base + ':' + local.get(id);
+    }
+
+    RdfCanonCache.Entry toEntry(final NDegreeResult result) {
+        final var mapping = result.getIssuer().mapping();
+        final int[] issued = new int[mapping.size()];
+        int i = 0;
+        for (final String id : mapping.keySet()) {
+            issued[i++] = local.get(id);
+        }
+        return new RdfCanonCache.Entry(result.getHash(), issued);
+    }
+
+    NDegreeResult toResult(final RdfCanonCache.Entry entry) {
+        final IdentifierIssuer issuer = new IdentifierIssuer("_:b");
+        for (final int index : entry.issued) {
+            issuer.getId(ids.get(index));
+        }
+        return new NDegreeResult(entry.hash, issuer);
+    }
+}
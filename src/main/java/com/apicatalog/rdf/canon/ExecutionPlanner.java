@@ -0,0 +1,82 @@
+package com.apicatalog.rdf.canon;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * Chooses between sequential and parallel execution of the canonicalization
+ * phases from the dataset statistics, so a single configuration gives a low
+ * latency for tiny datasets, where forking tasks costs more than hashing, and a
+ * high throughput for huge ones.
+ * <p>
+ * Parallel execution is considered only if a pool is set by
+ * {@link RdfCanon#parallel(java.util.concurrent.ForkJoinPool)}.
+ */
+final class ExecutionPlanner {
+
+    /** The minimal number of blank nodes to compute first degree hashes in parallel. */
+    static final int PARALLEL_FIRST_DEGREE_BLANK_NODES = 256;
+
+    /** The minimal estimated work of a tied group to hash it in parallel. */
+    static final long PARALLEL_GROUP_WORK = 256;
+
+    /** An execution strategy of a phase. */
+    enum Strategy {
+        /** Inline on the calling thread. */
+        SEQUENTIAL,
+        /** Split by blank node components on the pool. */
+        PARALLEL,
+    }
+
+    private ExecutionPlanner() {
+    }
+
+    /**
+     * Plans the first degree hashing.
+     *
+     * @param parallel   {@code true} if a pool is set
+     * @param blankNodes the number of blank nodes to hash
+     * @param components the blank node components, computed only if needed
+     * @return the strategy
+     */
+    static Strategy firstDegree(final boolean parallel, final int blankNodes,
+            final Supplier<BlankComponents> components) {
+
+        if (!parallel || blankNodes < PARALLEL_FIRST_DEGREE_BLANK_NODES) {
+            return Strategy.SEQUENTIAL;
+        }
+
+        // a single component would run on a single task
+        return components.get().size() > 1 ? Strategy.PARALLEL : Strategy.SEQUENTIAL;
+    }
+
+    /**
+     * Plans the Hash N-Degree Quads of a group of tied blank nodes.
+     * <p>
+     * Each search of a tied blank node may visit the quads of all the blank
+     * nodes of the group, so the work is estimated as the number of quads
+     * referencing the group times the group size.
+     *
+     * @param parallel         {@code true} if a pool is set
+     * @param pending          the tied blank nodes to hash
+     * @param groups           the tied blank nodes grouped by components
+     * @param blankIdToQuadSet the quads referencing each blank node
+     * @return the strategy
+     */
+    static Strategy group(final boolean parallel, final Collection<String> pending, final List<List<String>> groups,
+            final Map<String, Collection<Quad>> blankIdToQuadSet) {
+
+        if (!parallel || groups.size() < 2) {
+            return Strategy.SEQUENTIAL;
+        }
+
+        long quads = 0;
+        for (final String id : pending) {
+            quads += blankIdToQuadSet.get(id).size();
+        }
+
+        return quads * pending.size() >= PARALLEL_GROUP_WORK ? Strategy.PARALLEL : Strategy.SEQUENTIAL;
+    }
+}
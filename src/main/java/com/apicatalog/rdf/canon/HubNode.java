@@ -0,0 +1,119 @@
+package com.apicatalog.rdf.canon;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The relations of a hub blank node, i.e. a blank node referenced by a huge
+ * number of quads, e.g. a blank node named graph or a list head.
+ * <p>
+ * The Hash N-Degree Quads algorithm visits the related blank nodes of a blank
+ * node many times, and each visit hashes the position, the predicate and a
+ * label of each related blank node. Most quads of a hub share these, so the
+ * distinct relations are extracted once, and the related hashes, which depend
+ * only on the relation and the label, are reused by all the visits.
+ */
+final class HubNode {
+
+    /** The minimal number of quads referencing a hub blank node. */
+    static final int THRESHOLD = 10_000;
+
+    /** The related blank nodes, one per distinct relation. */
+    private final String[] related;
+
+    /** The positions of the related blank nodes. */
+    private final Position[] positions;
+
+    /** The quads relating the blank nodes, one of the quads sharing a relation. */
+    private final Quad[] quads;
+
+    /** Related hashes by a relation index and a label of the related blank node. */
+    private final Map<String, String> hashes;
+
+    private HubNode(String[] related, Position[] positions, Quad[] quads) {
+        this.related = related;
+        this.positions = positions;
+        this.quads = quads;
+        this.hashes = new ConcurrentHashMap<>();
+    }
+
+    /**
+     * Extracts the distinct relations of the given blank node.
+     *
+     * @param id    the hub blank node
+     * @param quads the quads referencing the blank node
+     * @return a new hub
+     */
+    static HubNode of(final String id, final Collection<Quad> quads) {
+
+        final var keys = new LinkedHashSet<List<Object>>();
+
+        final var related = new ArrayList<String>();
+        final var positions = new ArrayList<Position>();
+        final var relating = new ArrayList<Quad>();
+
+        for (final Quad quad : quads) {
+            for (final Position position : Position.CAN_BE_BLANK) {
+                if (position.isBlank(quad) && !id.equals(position.get(quad))) {
+                    final String relatedId = position.get(quad);
+                    // the graph position is hashed without a predicate
+                    final String predicate = position != Position.GRAPH ? quad.predicate : null;
+                    if (keys.add(List.of(relatedId, position, predicate != null ? predicate : ""))) {
+                        related.add(relatedId);
+                        positions.add(position);
+                        relating.add(quad);
+                    }
+                }
+            }
+        }
+
+        return new HubNode(
+                related.toArray(new String[0]),
+                positions.toArray(new Position[0]),
+                relating.toArray(new Quad[0]));
+    }
+
+    /**
+     * The number of distinct relations.
+     *
+     * @return the number of relations
+     */
+    int size() {
+        return related.length;
+    }
+
+    String related(final int index) {
+        return related[index];
+    }
+
+    Position position(final int index) {
+        return positions[index];
+    }
+
+    Quad quad(final int index) {
+        return quads[index];
+    }
+
+    /**
+     * Get a related hash computed by a previous visit.
+     *
+     * @param index the relation index
+     * @param label the label the related blank node has been hashed with
+     * @return the hash or {@code null}
+     */
+    String hash(final int index, final String label) {
+        return hashes.get(key(index, label));
+    }
+
+    void hash(final int index, final String label, final String hash) {
+        hashes.put(key(index, label), hash);
+    }
+
+    private static String key(final int index, final String label) {
+        return index + " " + label;
+    }
+}
@@ -97,6 +97,14 @@ public class IdentifierIssuer {
         return existing.containsKey(id);
     }
 
+    /**
+     * Forget all the issued identifiers and restart the counter.
+     */
+    void clear() {
+        existing.clear();
+        counter = 0;
+    }
+
     /**
      * Get blank nodes mapping table.
      * 
@@ -0,0 +1,73 @@
+package com.apicatalog.rdf.canon;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * An order-independent fingerprint of an input dataset.
+ * <p>
+ * Each distinct quad is hashed as it is ingested. The fingerprint is the hash
+ * of the sorted quad hashes, so it does not depend on the input order and,
+ * unlike additive multiset hashes, it is as collision resistant as the
+ * underlying hash function.
+ */
+final class InputFingerprint {
+
+    private final List<byte[]> hashes = new ArrayList<>();
+
+    /**
+     * Adds a newly ingested quad.
+     *
+     * @param quad   a distinct input quad
+     * @param digest the digest to hash the quad with
+     */
+    void add(final Quad quad, final MessageDigest digest) {
+        digest.reset();
+        hashes.add(digest.digest(quad.nquad.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    /**
+     * Hashes the quads not added during ingestion, e.g. if the fingerprint has
+     * been requested after the dataset was ingested.
+     *
+     * @param quads  all the distinct input quads
+     * @param digest the digest to hash the quads with
+     */
+    void complete(final Collection<Quad> quads, final MessageDigest digest) {
+        if (hashes.size() != quads.size()) {
+            hashes.clear();
+            for (final Quad quad : quads) {
+                add(quad, digest);
+            }
+        }
+    }
+
+    int size() {
+        return hashes.size();
+    }
+
+    void clear() {
+        hashes.clear();
+    }
+
+    /**
+     * Computes the fingerprint.
+     *
+     * @param digest the digest to hash the sorted quad hashes with
+     * @return the fingerprint in hexadecimal prefixed by the algorithm name
+     */
+    String fingerprint(final MessageDigest digest) {
+        final byte[][] sorted = hashes.toArray(new byte[hashes.size()][]);
+        Arrays.sort(sorted, Arrays::compareUnsigned);
+
+        digest.reset();
+        for (final byte[] hash : sorted) {
+            digest.update(hash);
+        }
+        return digest.getAlgorithm() + ':' + sorted.length + ':' + RdfCanon.hex(digest.digest());
+    }
+}
@@ -0,0 +1,147 @@
+package com.apicatalog.rdf.canon;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+
+/**
+ * A reusable UTF-8 output buffer for canonical N-Quads.
+ * <p>
+ * Canonical lines are encoded directly into a large {@link ByteBuffer} which
+ * is flushed to the target only when full. A direct buffer is used for
+ * channels, so the encoded bytes are handed to the operating system without an
+ * intermediate heap copy, while a heap buffer backs the {@link OutputStream}
+ * target.
+ * <p>
+ * The encoder produces the same bytes as
+ * {@code String.getBytes(StandardCharsets.UTF_8)}, i.e. an unpaired surrogate
+ * is replaced by {@code '?'}.
+ */
+final class NQuadsOutput {
+
+	/** Default buffer capacity in bytes. */
+	static final int DEFAULT_CAPACITY = 64 * 1024;
+
+	/** The longest UTF-8 sequence produced for a single code point. */
+	private static final int MAX_BYTES_PER_CHAR = 4;
+
+	private final ByteBuffer buffer;
+
+	private NQuadsOutput(ByteBuffer buffer) {
+		this.buffer = buffer;
+	}
+
+	static NQuadsOutput direct(int capacity) {
+		return new NQuadsOutput(ByteBuffer.allocateDirect(capacity));
+	}
+
+	static NQuadsOutput heap(int capacity) {
+		return new NQuadsOutput(ByteBuffer.allocate(capacity));
+	}
+
+	/**
+	 * Encodes the given N-Quad into the buffer, flushing to the channel whenever
+	 * the buffer becomes full.
+	 *
+	 * @param nquad   the N-Quad to write
+	 * @param channel the target channel
+	 * @throws IOException if the channel cannot be written
+	 */
+	void write(final String nquad, final WritableByteChannel channel) throws IOException {
+		int index = 0;
+		while (index < nquad.length()) {
+			index = encode(nquad, index);
+			if (index < nquad.length()) {
+				flush(channel);
+			}
+		}
+	}
+
+	/**
+	 * Encodes the given N-Quad into the buffer, flushing to the stream whenever
+	 * the buffer becomes full.
+	 *
+	 * @param nquad the N-Quad to write
+	 * @param os    the target stream
+	 * @throws IOException if the stream cannot be written
+	 */
+	void write(final String nquad, final OutputStream os) throws IOException {
+		int index = 0;
+		while (index < nquad.length()) {
+			index = encode(nquad, index);
+			if (index < nquad.length()) {
+				flush(os);
+			}
+		}
+	}
+
+	/**
+	 * Writes the buffer to a blocking channel. A channel accepting no bytes, e.g.
+	 * a non-blocking one, fails instead of being retried in a busy loop.
+	 *
+	 * @param channel the target channel
+	 * @throws IOException if the channel cannot be written or accepts no bytes
+	 */
+	void flush(final WritableByteChannel channel) throws IOException {
+		buffer.flip();
+		try {
+			while (buffer.hasRemaining()) {
+				if (channel.write(buffer) == 0) {
+					throw new IOException("The channel has accepted no bytes, it must be in blocking mode.");
+				}
+			}
+		} finally {
+			// the bytes of a failed write are not carried over to the next output
+			buffer.clear();
+		}
+	}
+
+	void flush(final OutputStream os) throws IOException {
+		if (buffer.position() > 0) {
+			os.write(buffer.array(), buffer.arrayOffset(), buffer.position());
+			buffer.clear();
+		}
+	}
+
+	/**
+	 * Encodes characters starting at {@code index} until the buffer cannot
+	 * safely hold another code point.
+	 *
+	 * @return the index of the first character not encoded
+	 */
+	private int encode(final String value, int index) {
+
+		final int length = value.length();
+
+		while (index < length && buffer.remaining() >= MAX_BYTES_PER_CHAR) {
+
+			final char ch = value.charAt(index++);
+
+			if (ch < 0x80) {
+				buffer.put((byte) ch);
+
+			} else if (ch < 0x800) {
+				buffer.put((byte) (0xc0 | (ch >> 6)));
+				buffer.put((byte) (0x80 | (ch & 0x3f)));
+
+			} else if (Character.isHighSurrogate(ch) && index < length
+					&& Character.isLowSurrogate(value.charAt(index))) {
+				final int cp = Character.toCodePoint(ch, value.charAt(index++));
+				buffer.put((byte) (0xf0 | (cp >> 18)));
+				buffer.put((byte) (0x80 | ((cp >> 12) & 0x3f)));
+				buffer.put((byte) (0x80 | ((cp >> 6) & 0x3f)));
+				buffer.put((byte) (0x80 | (cp & 0x3f)));
+
+			} else if (Character.isSurrogate(ch)) {
+				buffer.put((byte) '?');
+
+			} else {
+				buffer.put((byte) (0xe0 | (ch >> 12)));
+				buffer.put((byte) (0x80 | ((ch >> 6) & 0x3f)));
+				buffer.put((byte) (0x80 | (ch & 0x3f)));
+			}
+		}
+		return index;
+	}
+}
@@ -0,0 +1,68 @@
+package com.apicatalog.rdf.canon;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.Function;
+
+/**
+ * Fork-join helpers used to run independent canonicalization work units in
+ * parallel.
+ */
+final class Parallel {
+
+    private Parallel() {
+        // protected
+    }
+
+    /**
+     * Applies the given function to all the items on the given pool and returns
+     * the results in the order of the items.
+     *
+     * @param <T>      the type of items
+     * @param <R>      the type of results
+     * @param pool     the pool to run on
+     * @param items    the items to process
+     * @param function the function to apply
+     * @return the results in the order of the items
+     */
+    @SuppressWarnings("unchecked")
+    static <T, R> List<R> map(final ForkJoinPool pool, final List<T> items, final Function<? super T, ? extends R> function) {
+        final Object[] results = new Object[items.size()];
+        if (results.length > 0) {
+            pool.invoke(new MapTask<>(items, function, results, 0, results.length));
+        }
+        return (List<R>) Arrays.asList(results);
+    }
+
+    private static final class MapTask<T, R> extends RecursiveAction {
+
+        private static final long serialVersionUID = 1L;
+
+        private final transient List<T> items;
+        private final transient Function<? super T, ? extends R> function;
+        private final transient Object[] results;
+        private final int from;
+        private final int to;
+
+        MapTask(List<T> items, Function<? super T, ? extends R> function, Object[] results, int from, int to) {
+            this.items = items;
+            this.function = function;
+            this.results = results;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from == 1) {
+                results[from] = function.apply(items.get(from));
+                return;
+            }
+            final int middle = (from + to) >>> 1;
+            invokeAll(new MapTask<>(items, function, results, from, middle),
+                    new MapTask<>(items, function, results, middle, to));
+        }
+    }
+}
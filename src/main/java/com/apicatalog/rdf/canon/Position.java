@@ -17,14 +17,14 @@ enum Position {
         }
 
         @Override
-        void set(Quad quad, String value, Blank blank) {
+        void set(Quad quad, String value, boolean blank) {
             quad.subject = value;
             quad.blankSubject = blank;
         }
 
         @Override
         public boolean isBlank(Quad quad) {
-            return quad.blankSubject != null;
+            return quad.blankSubject;
         }
     },
 
@@ -37,11 +37,11 @@ enum Position {
 
         @Override
         public boolean isBlank(Quad quad) {
-            return quad.blankObject != null;
+            return quad.blankObject;
         }
 
         @Override
-        void set(Quad quad, String value, Blank blank) {
+        void set(Quad quad, String value, boolean blank) {
             quad.object = value;
             quad.blankObject = blank;
         }
@@ -56,10 +56,10 @@ enum Position {
 
         @Override
         public boolean isBlank(Quad quad) {
-            return quad.blankGraph != null;
+            return quad.blankGraph;
         }
 
-        void set(Quad quad, String value, Blank blank) {
+        void set(Quad quad, String value, boolean blank) {
             quad.graph = value;
             quad.blankGraph = blank;
         }
@@ -81,8 +81,8 @@ enum Position {
             return false;
         }
 
-        void set(Quad quad, String value, Blank blank) {
-            assert (blank == null);
+        void set(Quad quad, String value, boolean blank) {
+            assert !blank;
             quad.predicate = value;
         }
     };
@@ -119,7 +119,7 @@ enum Position {
      */
     abstract boolean isBlank(Quad quad);
 
-    abstract void set(Quad quad, String value, Blank blank);
+    abstract void set(Quad quad, String value, boolean blank);
 
     /**
      * Get the tag to include in hashes to represent this position.
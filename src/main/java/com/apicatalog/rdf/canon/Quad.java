@@ -1,14 +1,15 @@
 package com.apicatalog.rdf.canon;
 
 import java.util.Objects;
+import java.util.function.UnaryOperator;
 
 import com.apicatalog.rdf.nquads.NQuadsWriter;
 
 final class Quad {
 
-    Blank blankSubject;
-    Blank blankObject;
-    Blank blankGraph;
+    boolean blankSubject;
+    boolean blankObject;
+    boolean blankGraph;
 
     String subject;
     String predicate;
@@ -20,36 +21,88 @@ final class Quad {
 
     String nquad;
 
+    /**
+     * The input quad this canonical quad has been relabeled from, or
+     * {@code null} if this is an input quad.
+     */
+    Quad origin;
+
     void init() {
         this.nquad = NQuadsWriter.nquad(subject, predicate, object, datatype, language, direction, graph);
     }
 
-    void updateIfBlanks() {
-        if ((blankSubject != null && blankSubject.normalized != null)
-                || (blankObject != null && blankObject.normalized != null)
-                || (blankGraph != null && blankGraph.normalized != null)) {
-            this.nquad = NQuadsWriter.nquad(subject(), predicate, object(), datatype, language, direction, graph());
+    /**
+     * Creates a canonical copy of this quad with blank nodes relabeled by the
+     * given issuer. Input quads are never modified, so the ingested dataset can
+     * be canonicalized again.
+     *
+     * @param issuer the canonical identifier issuer
+     * @return a new relabeled quad
+     */
+    Quad relabel(final IdentifierIssuer issuer) {
+        return relabel(issuer::getIfExists);
+    }
+
+    /**
+     * Relabels the blank nodes of this quad in place, e.g. by the last run of a
+     * pooled instance, which is reset right after, so the run does not
+     * allocate a copy per quad. The quad must not be looked up by a hash set
+     * afterwards.
+     *
+     * @param issuer the canonical identifier issuer
+     * @return this quad
+     */
+    Quad relabelInPlace(final IdentifierIssuer issuer) {
+        if (blankSubject) {
+            subject = issuer.getIfExists(subject);
         }
+        if (blankObject) {
+            object = issuer.getIfExists(object);
+        }
+        if (blankGraph) {
+            graph = issuer.getIfExists(graph);
+        }
+        init();
+        return this;
+    }
+
+    /**
+     * Creates a copy of this quad with blank nodes relabeled by the given
+     * function.
+     *
+     * @param labels maps a blank node identifier to a new one
+     * @return a new relabeled quad
+     */
+    Quad relabel(final UnaryOperator<String> labels) {
+        final Quad quad = new Quad();
+        quad.blankSubject = blankSubject;
+        quad.blankObject = blankObject;
+        quad.blankGraph = blankGraph;
+        quad.subject = blankSubject ? labels.apply(subject) : subject;
+        quad.predicate = predicate;
+        quad.object = blankObject ? labels.apply(object) : object;
+        quad.datatype = datatype;
+        quad.language = language;
+        quad.direction = direction;
+        quad.graph = blankGraph ? labels.apply(graph) : graph;
+        quad.origin = this;
+        quad.init();
+        return quad;
+    }
+
+    boolean isGround() {
+        return !blankSubject && !blankObject && !blankGraph;
     }
 
     final String subject() {
-        if (blankSubject != null && blankSubject.normalized != null) {
-            return blankSubject.normalized;
-        }
         return subject;
     }
 
     final String object() {
-        if (blankObject != null && blankObject.normalized != null) {
-            return blankObject.normalized;
-        }
         return object;
     }
 
     final String graph() {
-        if (blankGraph != null && blankGraph.normalized != null) {
-            return blankGraph.normalized;
-        }
         return graph;
     }
 
@@ -1,5 +1,14 @@
 package com.apicatalog.rdf.canon;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.Reader;
+import java.io.StringWriter;
+import java.io.UncheckedIOException;
+import java.nio.channels.SelectableChannel;
+import java.nio.channels.WritableByteChannel;
 import java.nio.charset.StandardCharsets;
 import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
@@ -9,19 +18,33 @@ import java.util.Collection;
 import java.util.Comparator;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.IdentityHashMap;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.LinkedHashSet;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.Objects;
 import java.util.Set;
 import java.util.SortedMap;
 import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Flow;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.function.Consumer;
+import java.util.function.Predicate;
+import java.util.function.UnaryOperator;
 
 import com.apicatalog.rdf.api.RdfConsumerException;
 import com.apicatalog.rdf.api.RdfQuadConsumer;
+import com.apicatalog.rdf.canon.RdfCanonTicker.Work;
 import com.apicatalog.rdf.nquads.NQuadsWriter;
 
 /**
@@ -44,21 +67,33 @@ public final class RdfCanon implements RdfQuadConsumer {
 	private static final char[] HEX = { '0', '1', '2', '3', '4', '5', '6', '7', '8', '9', 'a', 'b', 'c', 'd', 'e',
 			'f' };
 
+	/**
+	 * The default executor used by the asynchronous variants, starting a new
+	 * virtual thread for each task.
+	 */
+	static final Executor VIRTUAL_THREADS = Thread::startVirtualThread;
+
+	/** The number of work units sent to each worker per phase or hash group. */
+	private static final int UNITS_PER_WORKER = 4;
+
+	/** The default number of canonical N-Quads in a published batch. */
+	static final int DEFAULT_BATCH_SIZE = 256;
+
 	private static final String BLANK_A = "_:a";
 
+	/** Blank node positions in the order they are registered. */
+	private static final Position[] BLANK_POSITIONS = { Position.SUBJECT, Position.OBJECT, Position.GRAPH };
+
+	/** Code point order of N-Quads. */
+	private static final Comparator<Quad> NQUAD_ORDER = (a, b) -> a.nquad.compareTo(b.nquad);
+
 	private static final String BLANK_Z = "_:z";
 
 	/** Map of blank IDs to all the quads that reference that specific blank ID. */
 	private final Map<String, Collection<Quad>> blankIdToQuadSet;
 
-	/**
-	 * A map of blank node identifiers to their corresponding {@link Blank} nodes,
-	 * used during RDF canonicalization for efficient relabeling of blank nodes.
-	 */
-	private final Map<String, Blank> blankNodes;
-
 	/** Issuer of canonical IDs to blank nodes. */
-	private final IdentifierIssuer canonIssuer = new IdentifierIssuer("_:c14n");
+	private final IdentifierIssuer canonIssuer = new IdentifierIssuer(RdfCanonLabels.PREFIX);
 
 	/**
 	 * Allows premature termination of the canonicalization process based on
@@ -67,7 +102,34 @@ public final class RdfCanon implements RdfQuadConsumer {
 	 * The {@code ticker} can be used to monitor progress or enforce timeouts,
 	 * limits, or custom stopping conditions during RDF dataset canonicalization.
 	 */
-	private final RdfCanonTicker ticker;
+	private RdfCanonTicker ticker;
+
+	/** An optional metrics recorder, {@code null} if disabled. */
+	private RdfCanonMetrics metrics;
+
+	/** The number of quads ingested since the last run, if metrics are enabled. */
+	private long ingestedQuads;
+
+	/** The time the first of these quads has been ingested at. */
+	private long ingestStart;
+
+	/** An optional profile of the N-degree phase, {@code null} if disabled. */
+	private RdfCanonProfile profile;
+
+	/** Set by {@link #lastResult()}, the input quads are relabeled in place. */
+	private boolean lastRun;
+
+	/** The minimal number of quads referencing a hub blank node. */
+	int hubThreshold = HubNode.THRESHOLD;
+
+	/** The distinct relations of hub blank nodes by blank node identifier. */
+	private final Map<String, HubNode> hubs = new ConcurrentHashMap<>();
+
+	/** The Hash N-Degree Quads engine used by sequential runs. */
+	private HashNDegreeQuads engine;
+
+	/** The number of permutations generated by the current run. */
+	private final AtomicLong permutations = new AtomicLong();
 
 	/**
 	 * Hash to associated IRIs.
@@ -83,10 +145,82 @@ public final class RdfCanon implements RdfQuadConsumer {
 	/** A set of non-normalized values. */
 	private Set<String> nonNormalized;
 
-	RdfCanon(Map<String, Collection<Quad>> blankIdToQuadSet, Map<String, Blank> resources, MessageDigest digest,
-			Set<Quad> nquads, RdfCanonTicker ticker) {
+	/**
+	 * First degree hashes of all the blank nodes. The hashes do not depend on
+	 * issued identifiers so they are computed once and reused by the N-degree
+	 * phase.
+	 */
+	private final Map<String, String> firstDegreeHashes = new HashMap<>();
+
+	/**
+	 * A pool to run independent hashing work units on, or {@code null} to run
+	 * all the phases sequentially on the caller's thread.
+	 */
+	private ForkJoinPool pool;
+
+	/** Workers to distribute hashing work units to, or {@code null}. */
+	private RdfCanonWorkers workers;
+
+	/** Connected components of the blank node graph, computed on demand. */
+	private BlankComponents components;
+
+	/** A shared cache of N-degree results, or {@code null} if disabled. */
+	private RdfCanonCache cache;
+
+	/** A shared cache of whole results, or {@code null} if disabled. */
+	private RdfCanonResultCache resultCache;
+
+	/** Hashes of the ingested quads, maintained if the result cache is enabled. */
+	private final InputFingerprint fingerprint = new InputFingerprint();
+
+	/**
+	 * Keeps the state of a finished canonicalization to re-canonicalize the
+	 * dataset incrementally after quads have been added or removed.
+	 */
+	private boolean incremental;
+
+	/** The sorted canonical output of the previous incremental run. */
+	private List<Quad> output;
+
+	/** The canonical labels used by the previous incremental run output. */
+	private Map<String, String> outputLabels;
+
+	/** N-degree results of the previous incremental run by component key. */
+	private Map<String, RdfCanonCache.Entry> previousResults = new ConcurrentHashMap<>();
+
+	/** N-degree results of the current incremental run by component key. */
+	private Map<String, RdfCanonCache.Entry> currentResults = new ConcurrentHashMap<>();
+
+	/**
+	 * The number of canonical identifiers issued before the hash group in
+	 * progress, i.e. the identifiers kept by a checkpoint.
+	 */
+	private int checkpointIssued;
+
+	/** Hash N-Degree Quads results computed for the hash group in progress. */
+	private final Map<String, NDegreeResult> groupResults = new ConcurrentHashMap<>();
+
+	/** A checkpoint to resume from by the next run, or {@code null}. */
+	private RdfCanonCheckpoint resumed;
+
+	/**
+	 * The ground quads in canonical order shared by all the hash algorithms, or
+	 * {@code null} to sort them with the relabeled quads.
+	 */
+	private List<Quad> ground;
+
+	/** The result found in or stored to the result cache, or {@code null}. */
+	private RdfCanonResult cached;
+
+	/** A reusable direct buffer used to write canonical N-Quads to channels. */
+	private NQuadsOutput channelOutput;
+
+	/** A reusable heap buffer used to write canonical N-Quads to streams. */
+	private NQuadsOutput streamOutput;
+
+	RdfCanon(Map<String, Collection<Quad>> blankIdToQuadSet, MessageDigest digest, Set<Quad> nquads,
+			RdfCanonTicker ticker) {
 		this.blankIdToQuadSet = blankIdToQuadSet;
-		this.blankNodes = resources;
 		this.digest = digest;
 		this.quads = nquads;
 		this.ticker = ticker;
@@ -152,6 +286,26 @@ public final class RdfCanon implements RdfQuadConsumer {
 		}
 	}
 
+	/**
+	 * Creates a new instance of {@link RdfCanon} using the specified hash
+	 * algorithm, {@link RdfCanonTicker} and {@link RdfCanonMetrics} recorder.
+	 *
+	 * @param hashAlgorithm the name of the hash algorithm to use
+	 * @param ticker        a non-null {@link RdfCanonTicker} used to monitor or
+	 *                      control the canonicalization process.
+	 * @param metrics       a non-null recorder of the canonicalization metrics
+	 * @return a new {@link RdfCanon} instance
+	 * @throws IllegalStateException if {@code hashAlgorithm} is not available
+	 * @throws NullPointerException  if {@code ticker} or {@code metrics} is
+	 *                               {@code null}.
+	 * @see #create(String, RdfCanonTicker)
+	 */
+	public static RdfCanon create(String hashAlgorithm, RdfCanonTicker ticker, RdfCanonMetrics metrics) {
+		final RdfCanon canon = create(hashAlgorithm, ticker);
+		canon.metrics(Objects.requireNonNull(metrics));
+		return canon;
+	}
+
 	/**
 	 * Creates a new instance of {@link RdfCanon} using the specified
 	 * {@link MessageDigest}.
@@ -205,6 +359,109 @@ public final class RdfCanon implements RdfQuadConsumer {
 		return newInstance(new LinkedHashSet<>(), digest, ticker);
 	}
 
+	/**
+	 * Creates a new {@link RdfCanon} instance configured with the provided
+	 * {@link MessageDigest}, {@link RdfCanonTicker} and {@link RdfCanonMetrics}
+	 * recorder.
+	 *
+	 * @param digest  a pre-configured, non-null {@link MessageDigest} instance
+	 *                used for computing hashes.
+	 * @param ticker  a non-null {@link RdfCanonTicker} that controls or monitors
+	 *                the canonicalization process.
+	 * @param metrics a non-null recorder of the canonicalization metrics
+	 * @return a new {@link RdfCanon} instance
+	 * @throws NullPointerException if any of the arguments is {@code null}.
+	 * @see #create(MessageDigest, RdfCanonTicker)
+	 */
+	public static RdfCanon create(MessageDigest digest, RdfCanonTicker ticker, RdfCanonMetrics metrics) {
+		final RdfCanon canon = create(digest, ticker);
+		canon.metrics(Objects.requireNonNull(metrics));
+		return canon;
+	}
+
+	/**
+	 * Checks whether two datasets are equal up to blank node renaming.
+	 * <p>
+	 * Cheap invariants are compared first, in the order of their cost: the
+	 * numbers of quads and blank nodes, the sets of ground quads and the
+	 * multisets of first degree hashes. The N-degree phase and a full comparison
+	 * of the canonical forms run only if all of them match, and the comparison
+	 * stops at the first difference.
+	 * <p>
+	 * Both instances must be fed with the datasets and use the same hash
+	 * algorithm. The instances are consumed by the check.
+	 *
+	 * @param a the first dataset
+	 * @param b the second dataset
+	 * @return {@code true} if the datasets are isomorphic
+	 * @throws IllegalArgumentException if the instances use different hash
+	 *                                  algorithms
+	 * @throws IllegalStateException    if the computation is terminated
+	 *                                  prematurely
+	 */
+	public static boolean isIsomorphic(final RdfCanon a, final RdfCanon b) {
+
+		if (!a.digest.getAlgorithm().equals(b.digest.getAlgorithm())) {
+			throw new IllegalArgumentException("Datasets must be hashed with the same algorithm but were "
+					+ a.digest.getAlgorithm() + " and " + b.digest.getAlgorithm() + ".");
+		}
+
+		// quads and blank nodes counts
+		if (a.quads.size() != b.quads.size() || a.blankIdToQuadSet.size() != b.blankIdToQuadSet.size()) {
+			return false;
+		}
+
+		// ground quads
+		final Set<String> ground = new HashSet<>();
+		for (final Quad quad : a.quads) {
+			if (quad.isGround()) {
+				ground.add(quad.nquad);
+			}
+		}
+
+		int count = 0;
+		for (final Quad quad : b.quads) {
+			if (quad.isGround()) {
+				if (!ground.contains(quad.nquad)) {
+					return false;
+				}
+				count++;
+			}
+		}
+		if (count != ground.size()) {
+			return false;
+		}
+
+		// first degree hashes multisets
+		a.ticker.tick();
+		a.setNonNormalized();
+		a.computeFirstDegreeHashes();
+
+		b.ticker.tick();
+		b.setNonNormalized();
+		b.computeFirstDegreeHashes();
+
+		final String[] hashesA = a.firstDegreeHashes.values().toArray(String[]::new);
+		final String[] hashesB = b.firstDegreeHashes.values().toArray(String[]::new);
+		Arrays.sort(hashesA);
+		Arrays.sort(hashesB);
+
+		if (!Arrays.equals(hashesA, hashesB)) {
+			return false;
+		}
+
+		// full canonical forms
+		final Iterator<Quad> canonA = a.canonize().iterator();
+		final Iterator<Quad> canonB = b.canonize().iterator();
+
+		while (canonA.hasNext() && canonB.hasNext()) {
+			if (!canonA.next().nquad.equals(canonB.next().nquad)) {
+				return false;
+			}
+		}
+		return !canonA.hasNext() && !canonB.hasNext();
+	}
+
 	/**
 	 * Emits canonical RDF quads to the given consumer. This method generates RDF
 	 * quads in a canonical form and supplies them to the provided
@@ -235,377 +492,1886 @@ public final class RdfCanon implements RdfQuadConsumer {
 	}
 
 	/**
-	 * Canonicalizes RDF N-Quads into a canonical form and returns them.
+	 * Writes canonical RDF N-Quads, encoded in UTF-8, to the given output stream.
+	 * <p>
+	 * The lines are encoded into a large reusable buffer which is written to the
+	 * stream only when full, so the stream does not need to be buffered. The
+	 * stream is flushed but not closed.
 	 *
-	 * @return a collection of canonical RDF N-Quads
+	 * @param os the output stream that will receive the canonical RDF N-Quads
+	 * @throws IOException           if the stream cannot be written
 	 * @throws IllegalStateException if the computation is terminated prematurely
 	 */
-	Collection<Quad> canonize() {
-
-		ticker.tick();
-
-		// Step 3:
-		setNonNormalized();
-
-		// Steps 4 and 5:
-		issueSimpleIds();
-
-		// Step 6:
-		issueNDegreeIds();
-
-		// Step 7:
-		return canonQuads();
+	public void provide(final OutputStream os) throws IOException {
+		if (streamOutput == null) {
+			streamOutput = NQuadsOutput.heap(NQuadsOutput.DEFAULT_CAPACITY);
+		}
+		for (final var quad : canonize()) {
+			streamOutput.write(quad.nquad, os);
+		}
+		streamOutput.flush(os);
+		os.flush();
 	}
 
-	public Map<String, String> mapping() {
-		return canonIssuer.mapping();
+	/**
+	 * Writes canonical RDF N-Quads, encoded in UTF-8, to the given channel.
+	 * <p>
+	 * The lines are encoded into a large reusable direct buffer which is written
+	 * to the channel only when full, avoiding an intermediate heap copy of the
+	 * output. The channel is not closed.
+	 * <p>
+	 * The channel must be in blocking mode, a non-blocking channel would need a
+	 * selector to wait until it can accept more bytes.
+	 *
+	 * @param channel the channel that will receive the canonical RDF N-Quads
+	 * @throws IOException              if the channel cannot be written, e.g. it
+	 *                                  accepts no bytes
+	 * @throws IllegalArgumentException if the channel is a
+	 *                                  {@link SelectableChannel} in non-blocking
+	 *                                  mode
+	 * @throws IllegalStateException    if the computation is terminated
+	 *                                  prematurely
+	 */
+	public void provide(final WritableByteChannel channel) throws IOException {
+		if (channel instanceof SelectableChannel && !((SelectableChannel) channel).isBlocking()) {
+			throw new IllegalArgumentException("The channel must be in blocking mode.");
+		}
+		if (channelOutput == null) {
+			channelOutput = NQuadsOutput.direct(NQuadsOutput.DEFAULT_CAPACITY);
+		}
+		for (final var quad : canonize()) {
+			channelOutput.write(quad.nquad, channel);
+		}
+		channelOutput.flush(channel);
 	}
 
-	@Override
-	public RdfQuadConsumer quad(String subject, String predicate, String object, String datatype, String language,
-			String direction, String graph) {
-
-		Quad quad = new Quad();
-		setResource(Position.SUBJECT, quad, subject);
-		quad.predicate = predicate;
-
-		if (RdfQuadConsumer.isLiteral(datatype, language, direction)) {
-			quad.object = object;
-			quad.datatype = datatype;
-			quad.language = language;
-			quad.direction = direction;
+	/**
+	 * Asynchronously emits canonical RDF quads to the given consumer. The
+	 * canonicalization runs on a new virtual thread, the caller's thread is never
+	 * blocked.
+	 *
+	 * @param consumer the {@link RdfQuadConsumer} that will receive the canonical
+	 *                 RDF quads
+	 * @return a future completed when all the canonical quads have been consumed,
+	 *         or completed exceptionally with {@link RdfConsumerException} or
+	 *         {@link IllegalStateException}
+	 */
+	public CompletableFuture<Void> provideAsync(final RdfQuadConsumer consumer) {
+		return provideAsync(consumer, VIRTUAL_THREADS);
+	}
 
-		} else {
-			setResource(Position.OBJECT, quad, object);
+	/**
+	 * Asynchronously emits canonical RDF quads to the given consumer. The
+	 * canonicalization and the consumer calls run on the given executor.
+	 *
+	 * @param consumer the {@link RdfQuadConsumer} that will receive the canonical
+	 *                 RDF quads
+	 * @param executor the executor to run the canonicalization on
+	 * @return a future completed when all the canonical quads have been consumed,
+	 *         or completed exceptionally with {@link RdfConsumerException},
+	 *         {@link IllegalStateException}, any other error of the consumer, or
+	 *         {@link RejectedExecutionException} if the executor rejects the task
+	 */
+	public CompletableFuture<Void> provideAsync(final RdfQuadConsumer consumer, final Executor executor) {
+		final var future = new CompletableFuture<Void>();
+		try {
+			executor.execute(() -> {
+				try {
+					provide(consumer);
+					future.complete(null);
+
+				} catch (Throwable e) {
+					// an error must not leave the future pending
+					future.completeExceptionally(e);
+				}
+			});
+		} catch (RejectedExecutionException e) {
+			future.completeExceptionally(e);
 		}
-
-		setResource(Position.GRAPH, quad, graph);
-		quad.init();
-
-		quads.add(quad);
-		return this;
+		return future;
 	}
 
-	static RdfCanon newInstance(final Set<Quad> nquads, final MessageDigest digest, final RdfCanonTicker ticker) {
-		return new RdfCanon(new HashMap<>(), new HashMap<>(), digest, nquads, ticker);
+	/**
+	 * Asynchronously emits canonical RDF N-Quads to the given consumer. The
+	 * canonicalization runs on a new virtual thread, the caller's thread is never
+	 * blocked.
+	 *
+	 * @param consumer the consumer that will receive the canonical RDF N-Quads
+	 * @return a future completed when all the canonical N-Quads have been
+	 *         consumed, or completed exceptionally with
+	 *         {@link IllegalStateException} if the computation is terminated
+	 *         prematurely
+	 */
+	public CompletableFuture<Void> provideAsync(final Consumer<String> consumer) {
+		return provideAsync(consumer, VIRTUAL_THREADS);
 	}
 
-	String forBlank(Quad q0, String blankNodeId) {
-
-		String subject = q0.subject;
-		if (q0.blankSubject != null) {
-			// A blank node is always a resource
-			subject = subject.equals(blankNodeId) ? BLANK_A : BLANK_Z;
-		}
-
-		String object = q0.object;
-		if (q0.blankObject != null) {
-			object = object.equals(blankNodeId) ? BLANK_A : BLANK_Z;
-		}
+	/**
+	 * Asynchronously emits canonical RDF N-Quads to the given consumer. The
+	 * canonicalization and the consumer calls run on the given executor.
+	 *
+	 * @param consumer the consumer that will receive the canonical RDF N-Quads
+	 * @param executor the executor to run the canonicalization on
+	 * @return a future completed when all the canonical N-Quads have been
+	 *         consumed, or completed exceptionally with
+	 *         {@link IllegalStateException} if the computation is terminated
+	 *         prematurely, or {@link RejectedExecutionException} if the
+	 *         executor rejects the task
+	 */
+	public CompletableFuture<Void> provideAsync(final Consumer<String> consumer, final Executor executor) {
+		try {
+			return CompletableFuture.runAsync(() -> provide(consumer), executor);
 
-		String graph = q0.graph;
-		if (q0.blankGraph != null) {
-			graph = graph.equals(blankNodeId) ? BLANK_A : BLANK_Z;
+		} catch (RejectedExecutionException e) {
+			return CompletableFuture.failedFuture(e);
 		}
+	}
 
-		return NQuadsWriter.nquad(subject, q0.predicate, object, q0.datatype, q0.language, q0.direction, graph);
+	/**
+	 * Returns a publisher emitting canonical RDF N-Quads in batches. The
+	 * canonicalization starts on a new virtual thread once the subscriber
+	 * requests the first batch.
+	 *
+	 * @return a publisher of canonical N-Quads batches accepting a single
+	 *         subscriber
+	 */
+	public Flow.Publisher<List<String>> publisher() {
+		return publisher(DEFAULT_BATCH_SIZE, VIRTUAL_THREADS);
 	}
 
-	void setNonNormalized() {
-		nonNormalized = new HashSet<>(blankIdToQuadSet.keySet());
+	/**
+	 * Returns a publisher emitting canonical RDF N-Quads in batches of at most
+	 * {@code batchSize} lines, one batch per requested item. The canonicalization
+	 * and the delivery of batches run on the given executor, starting when the
+	 * subscriber requests the first batch.
+	 * <p>
+	 * An {@link IllegalStateException} raised by the {@link RdfCanonTicker} is
+	 * signalled by {@link Flow.Subscriber#onError(Throwable)}.
+	 *
+	 * @param batchSize the maximal number of N-Quads in a batch, must be positive
+	 * @param executor  the executor to run the canonicalization on
+	 * @return a publisher of canonical N-Quads batches accepting a single
+	 *         subscriber
+	 * @throws IllegalArgumentException if {@code batchSize} is not positive
+	 */
+	public Flow.Publisher<List<String>> publisher(final int batchSize, final Executor executor) {
+		if (batchSize <= 0) {
+			throw new IllegalArgumentException("Batch size must be positive but was " + batchSize + ".");
+		}
+		return new CanonPublisher(this::canonize, batchSize, executor);
 	}
 
-	String hashFirstDegree(final String blankNodeId) {
+	/**
+	 * Canonicalizes RDF N-Quads into a canonical form and returns them.
+	 *
+	 * @return a collection of canonical RDF N-Quads
+	 * @throws IllegalStateException if the computation is terminated prematurely
+	 */
+	Collection<Quad> canonize() {
 
-		Collection<Quad> related = blankIdToQuadSet.get(blankNodeId);
-		String[] nQuads = new String[related.size()];
-		int i = 0;
+		ticker.tick();
 
-		// Convert the NQuads to a consistent set by replacing the reference with _:a
-		// and all others with _:z, and then sorting
-		for (Quad q0 : related) {
-			ticker.tick();
-			nQuads[i] = forBlank(q0, blankNodeId);
-			i++;
+		if (metrics != null) {
+			recordRun();
 		}
 
-		// Sort the nQuads
-		Arrays.sort(nQuads);
-
-		// Create the hash
-		digest.reset();
-		for (String s : nQuads) {
-			digest.update(s.getBytes(StandardCharsets.UTF_8));
-		}
-		return hex(digest.digest());
-	}
+		final var event = new CanonRunEvent();
+		event.begin();
 
-	void issueSimpleIds() {
-		boolean simple = true;
-		while (simple) {
-			ticker.tick();
-			simple = false;
-			hashToBlankId.clear();
-			for (String value : nonNormalized) {
-				String hash = hashFirstDegree(value);
-				hashToBlankId.computeIfAbsent(hash, k -> new HashSet<>()).add(value);
-			}
+		permutations.set(0);
 
-			Iterator<Entry<String, Set<String>>> iterator = hashToBlankId.entrySet().iterator();
-			while (iterator.hasNext()) {
-				ticker.tick();
-				Entry<String, Set<String>> entry = iterator.next();
-				Set<String> values = entry.getValue();
-				if (values.size() == 1) {
-					String id = values.iterator().next();
-					// allocate a new id
-					canonIssuer.getId(id);
-					nonNormalized.remove(id);
-					iterator.remove();
-					simple = true;
-				}
-			}
-		}
-	}
+		// a result of a previous run, possibly of another dataset
+		cached = null;
 
-	void issueNDegreeIds() {
+		final Collection<Quad> canonical;
+		boolean hit = false;
 
-		for (final var entry : hashToBlankId.entrySet()) {
-			final var hashPathList = new ArrayList<NDegreeResult>();
-			for (var id : entry.getValue()) {
-				ticker.tick();
-				// if we've already assigned a canonical ID for this node, skip it
-				if (canonIssuer.hasId(id)) {
-					continue;
-				}
+		if (resultCache != null) {
+			final String key = fingerprint();
 
-				// Create a new blank ID issuer and assign it's first ID to the reference id
-				IdentifierIssuer blankIssuer = new IdentifierIssuer("_:b");
-				blankIssuer.getId(id);
+			cached = resultCache.get(key);
+			hit = cached != null;
 
-				NDegreeResult path = hashNDegreeQuads(id, blankIssuer);
-				hashPathList.add(path);
+			if (cached == null) {
+				cached = new RdfCanonResult(compute(), canonIssuer.mapping());
+				resultCache.put(key, cached);
 			}
+			canonical = cached.quads();
 
-			hashPathList.sort(Comparator.naturalOrder());
-			for (final var result : hashPathList) {
-				ticker.tick();
-				result.getIssuer().assign(canonIssuer);
-			}
+		} else {
+			canonical = compute();
 		}
-	}
 
-	Collection<Quad> canonQuads() {
-
-		Set<Quad> blankQuads = null;
-
-		// relabel blank nodes
-		for (var entry : blankNodes.entrySet()) {
-			final var normalized = canonIssuer.getIfExists(entry.getKey());
-
-			entry.getValue().normalized = normalized;
-
-			if (normalized != null) {
-				final var relatedQuads = blankIdToQuadSet.get(entry.getKey());
-				if (relatedQuads != null && !relatedQuads.isEmpty()) {
-					if (blankQuads == null) {
-						blankQuads = new HashSet<>(relatedQuads);
-					} else {
-						blankQuads.addAll(relatedQuads);
-					}
-				}
-			}
-		}
+		event.end();
 
-		if (blankQuads != null) {
-			blankQuads.forEach(Quad::updateIfBlanks);
+		if (event.shouldCommit()) {
+			event.hashAlgorithm = digest.getAlgorithm();
+			event.quads = quads.size();
+			event.blankNodes = blankIdToQuadSet.size();
+			event.tiedBlankNodes = !hit && nonNormalized != null ? nonNormalized.size() : 0;
+			event.permutations = permutations.get();
+			event.cached = hit;
+			event.commit();
 		}
-
-		final var sorted = new ArrayList<Quad>(quads);
-		sorted.sort((a, b) -> a.nquad.compareTo(b.nquad));
-		return sorted;
+		return canonical;
 	}
 
 	/**
-	 * Convert bytes to hexadecimal.
-	 *
-	 * @param data the bytes
+	 * Runs the canonicalization algorithm steps.
 	 *
-	 * @return the data represented in hexadecimal.
+	 * @return a collection of canonical RDF N-Quads
 	 */
-	static String hex(byte[] data) {
-		StringBuilder builder = new StringBuilder(data.length * 2);
-		for (byte b : data) {
-			builder.append(HEX[(b & 0xf0) >> 4]).append(HEX[b & 0xf]);
-		}
-		return builder.toString();
-	}
+	private Collection<Quad> compute() {
 
-	NDegreeResult hashNDegreeQuads(String id, IdentifierIssuer issuer) {
-		return new HashNDegreeQuads().hash(id, issuer);
-	}
+		final long time = issueIds();
 
-	void setResource(final Position position, final Quad quad, final String name) {
+		final var event = new CanonPhaseEvent();
+		event.begin();
 
-		Blank blank = null;
+		// Step 7:
+		final Collection<Quad> canonical = canonQuads();
 
-		if (RdfQuadConsumer.isBlank(name)) {
-			blank = blankNodes.computeIfAbsent(name, arg0 -> new Blank());
-			blankIdToQuadSet.computeIfAbsent(name, k -> new LinkedList<>()).add(quad);
-		}
+		commit(event, "canonQuads");
 
-		position.set(quad, name, blank);
+		if (metrics != null) {
+			metrics.canonQuads(time);
+		}
+		return canonical;
 	}
 
 	/**
-	 * The state information for the hash n-degree quads algorithm.
+	 * Runs the canonicalization algorithm steps issuing canonical identifiers.
+	 *
+	 * @return the time of the last recorded metric
 	 */
-	private class HashNDegreeQuads {
+	private long issueIds() {
 
-		/** The data which will go into the hash. */
-		final StringBuilder dataToHash = new StringBuilder();
+		// canonical identifiers are issued again on each run
+		canonIssuer.clear();
+		checkpointIssued = 0;
+		groupResults.clear();
 
-		/** The currently chosen identifier issuer. */
-		IdentifierIssuer chosenIssuer = null;
+		long time = metrics != null ? System.nanoTime() : 0;
 
-		/** The currently chosen path. */
-		StringBuilder chosenPath = null;
+		var event = new CanonPhaseEvent();
+		event.begin();
+
+		// Step 3:
+		setNonNormalized();
+
+		// Steps 4 and 5:
+		issueSimpleIds();
+
+		if (resumed != null) {
+			resumeIssued();
+		}
+
+		commit(event, "issueSimpleIds");
+
+		if (metrics != null) {
+			time = metrics.simpleIds(time);
+		}
+
+		event = new CanonPhaseEvent();
+		event.begin();
+
+		// Step 6:
+		issueNDegreeIds();
+
+		resumed = null;
+
+		commit(event, "issueNDegreeIds");
+
+		if (metrics != null) {
+			time = metrics.nDegreeIds(time);
+		}
+
+		if (incremental) {
+			// keep only the results valid for the current dataset
+			final var results = previousResults;
+			previousResults = currentResults;
+			currentResults = results;
+			currentResults.clear();
+		}
+		return time;
+	}
+
+	private void commit(final CanonPhaseEvent event, final String phase) {
+		event.end();
+		if (event.shouldCommit()) {
+			event.phase = phase;
+			event.quads = quads.size();
+			event.blankNodes = blankIdToQuadSet.size();
+			event.permutations = permutations.get();
+			event.commit();
+		}
+	}
+
+	public Map<String, String> mapping() {
+		return cached != null ? cached.mapping() : canonIssuer.mapping();
+	}
+
+	/**
+	 * Issues canonical identifiers to the blank nodes without computing the
+	 * canonical N-Quads, e.g. to assign identifiers or to derive a key per blank
+	 * node.
+	 * <p>
+	 * The run stops after the N-degree phase, the quads are neither relabeled,
+	 * serialized nor sorted, and the ground quads are not visited at all. A
+	 * result of the same dataset found in {@link RdfCanonResultCache} is reused,
+	 * but a labeling is never put in it. {@link #mapping()} returns the same
+	 * mapping afterwards.
+	 *
+	 * @return the canonical labeling
+	 * @throws IllegalStateException if the computation is terminated prematurely
+	 */
+	public RdfCanonLabels label() {
+
+		ticker.tick();
+
+		if (metrics != null) {
+			recordRun();
+		}
+
+		cached = resultCache != null ? resultCache.get(fingerprint()) : null;
+
+		if (cached != null) {
+			return new RdfCanonLabels(cached.mapping());
+		}
+
+		permutations.set(0);
+		issueIds();
+
+		return new RdfCanonLabels(canonIssuer.mapping());
+	}
+
+	/**
+	 * Enables parallel hashing on the given pool.
+	 * <p>
+	 * The blank node graph is decomposed into connected components. First degree
+	 * hashes of the components, and the Hash N-Degree Quads of tied blank nodes
+	 * in each hash group, are then computed independently on the pool. Canonical
+	 * identifiers are issued afterwards in the order required by the
+	 * specification, so the result is the same as a sequential run.
+	 * <p>
+	 * Each phase is parallelized only if the dataset is large enough to pay off
+	 * the forking, i.e. if there are enough blank nodes and components for the
+	 * first degree hashing, and if a hash group is large enough and spans more
+	 * than one component for the N-degree hashing. Tiny datasets are processed
+	 * inline on the calling thread. The decisions are recorded by
+	 * {@link RdfCanonMetrics}.
+	 * <p>
+	 * The {@link RdfCanonTicker} is called from the pool threads and must be
+	 * thread-safe.
+	 *
+	 * @param pool the pool to run the hashing on, or {@code null} to run
+	 *             sequentially
+	 * @return this instance
+	 */
+	public RdfCanon parallel(final ForkJoinPool pool) {
+		this.pool = pool;
+		return this;
+	}
+
+	/**
+	 * Distributes the hashing to the given workers, e.g. to local processes
+	 * standing in for remote nodes, if a single JVM is not enough.
+	 * <p>
+	 * This instance acts as a coordinator. It ingests the dataset, decomposes the
+	 * blank node graph into connected components, and sends batches of
+	 * components to the workers as serialized work units, first to compute the
+	 * first degree hashes, then to compute the Hash N-Degree Quads of the tied
+	 * blank nodes of each hash group. The returned hashes and relative labelings
+	 * are merged into the canonical identifiers in the order required by the
+	 * specification, so the result is the same as a sequential run.
+	 * <p>
+	 * The {@link RdfCanonTicker} is called by the coordinator between the units
+	 * only. The N-degree cache and the incremental mode are not used by the
+	 * distributed hashing.
+	 *
+	 * @param workers the workers to distribute the hashing to, or {@code null}
+	 *                to hash locally
+	 * @return this instance
+	 */
+	public RdfCanon workers(final RdfCanonWorkers workers) {
+		this.workers = workers;
+		return this;
+	}
+
+	/**
+	 * Enables a cache of Hash N-Degree Quads results shared across runs.
+	 * <p>
+	 * Blank nodes tied after the first degree hashing are looked up by the
+	 * structural fingerprint of their component, a hit skips the N-degree
+	 * permutation search. The result is always the same as without the cache.
+	 *
+	 * @param cache the cache to use, or {@code null} to disable caching
+	 * @return this instance
+	 */
+	public RdfCanon cache(final RdfCanonCache cache) {
+		this.cache = cache;
+		return this;
+	}
+
+	/**
+	 * Enables the profile mode recording the permutations explored, the recursion
+	 * fan-out and the time spent by each group of tied blank nodes and each Hash
+	 * N-Degree Quads search, so the blank nodes causing a slow canonicalization
+	 * can be named by {@link RdfCanonProfile#report(int)}.
+	 *
+	 * @param profile the profile to record to, or {@code null} to disable
+	 * @return this instance
+	 */
+	public RdfCanon profile(final RdfCanonProfile profile) {
+		this.profile = profile;
+		return this;
+	}
+
+	/**
+	 * Enables the incremental mode.
+	 * <p>
+	 * The instance keeps the state of a finished canonicalization: the first
+	 * degree hashes, the N-degree results per blank node component and the
+	 * sorted output. After quads are added by {@link #quad(String, String,
+	 * String, String, String, String, String)} or removed by
+	 * {@link #remove(String, String, String, String, String, String, String)},
+	 * the next request for the output recomputes only the hashes of the affected
+	 * blank nodes and components, reusing an N-degree result whenever the
+	 * component and its canonical labels are unchanged, and merges the changed
+	 * quads into the previous sorted output. The result is always equal to a
+	 * run from scratch.
+	 *
+	 * @param enabled {@code true} to keep the state between runs
+	 * @return this instance
+	 */
+	public RdfCanon incremental(final boolean enabled) {
+		this.incremental = enabled;
+		if (!enabled) {
+			output = null;
+			outputLabels = null;
+			previousResults.clear();
+			currentResults.clear();
+		}
+		return this;
+	}
+
+	/**
+	 * Enables a cache of whole canonicalization results shared across runs.
+	 * <p>
+	 * An order-independent fingerprint of the input quads is computed while they
+	 * are ingested. If a result for the fingerprint is cached, the stored
+	 * canonical output and {@link #mapping()} are provided without running the
+	 * canonicalization. The cache should be enabled before the quads are
+	 * ingested, otherwise they are hashed when the output is requested.
+	 *
+	 * @param cache the cache to use, or {@code null} to disable caching
+	 * @return this instance
+	 */
+	public RdfCanon resultCache(final RdfCanonResultCache cache) {
+		this.resultCache = cache;
+		return this;
+	}
+
+	/**
+	 * Canonicalizes RDF N-Quads and returns an immutable result detached from
+	 * this instance, e.g. to derive relabeled subsets by
+	 * {@link RdfCanonResult#relabel(UnaryOperator)}.
+	 *
+	 * @return the canonicalization result
+	 * @throws IllegalStateException if the computation is terminated prematurely
+	 */
+	public RdfCanonResult result() {
+		final var quads = canonize();
+		return cached != null ? cached : new RdfCanonResult(quads, canonIssuer.mapping());
+	}
+
+	/**
+	 * Canonicalizes RDF N-Quads for the last time before the instance is reset,
+	 * e.g. by {@link RdfCanonicalizer}, relabeling the input quads in place
+	 * instead of copying them. The ingested dataset is consumed by the result.
+	 *
+	 * @return the canonicalization result
+	 * @throws IllegalStateException if the computation is terminated prematurely
+	 */
+	RdfCanonResult lastResult() {
+		lastRun = true;
+		try {
+			return result();
+
+		} finally {
+			lastRun = false;
+		}
+	}
+
+	/**
+	 * Verifies that the given UTF-8 encoded N-Quads document is the canonical
+	 * form of the ingested dataset, e.g. a claimed canonical document of a
+	 * signed dataset.
+	 *
+	 * @param expected the claimed canonical N-Quads document
+	 * @return {@code true} if the document is the canonical form
+	 * @throws IOException           if the document cannot be read
+	 * @throws IllegalStateException if the computation is terminated prematurely
+	 * @see #verify(Reader)
+	 */
+	public boolean verify(final InputStream expected) throws IOException {
+		return verify(new InputStreamReader(expected, StandardCharsets.UTF_8));
+	}
+
+	/**
+	 * Verifies that the given N-Quads document is the canonical form of the
+	 * ingested dataset, returning at the first mismatch.
+	 * <p>
+	 * The document is checked first, it must have a line per ingested quad in
+	 * canonical order. The ground quads, which do not depend on any hash, are
+	 * checked next. The quads whose blank nodes are labeled by the first degree
+	 * hashes are relabeled and checked before the N-degree phase, and the rest
+	 * after it. The canonical quads are looked up in the claimed document, which
+	 * is already sorted, so the final sort is skipped. A forged document is
+	 * usually rejected at a fraction of the cost of a canonicalization.
+	 *
+	 * @param expected the claimed canonical N-Quads document
+	 * @return {@code true} if the document is the canonical form
+	 * @throws IOException           if the document cannot be read
+	 * @throws IllegalStateException if the computation is terminated prematurely
+	 */
+	public boolean verify(final Reader expected) throws IOException {
+
+		final var document = new StringWriter();
+		expected.transferTo(document);
+
+		final String text = document.toString();
+
+		final var lines = new HashSet<String>(quads.size() * 2);
+		String previous = null;
+
+		int start = 0;
+		while (start < text.length()) {
+			final int end = text.indexOf('\n', start);
+			if (end == -1 || lines.size() == quads.size()) {
+				// a missing line terminator or too many lines
+				return false;
+			}
+			final String line = text.substring(start, end + 1);
+			if (previous != null && previous.compareTo(line) >= 0) {
+				// not in canonical order or a duplicate
+				return false;
+			}
+			lines.add(line);
+			previous = line;
+			start = end + 1;
+		}
+
+		return lines.size() == quads.size() && verify(quad -> lines.contains(quad.nquad));
+	}
+
+	/**
+	 * Verifies the ingested dataset against the hashes of its canonical
+	 * N-Quads, returning at the first mismatch. Each hash is computed by the
+	 * hash algorithm of this instance from a single UTF-8 encoded canonical
+	 * N-Quad including its line terminator.
+	 * <p>
+	 * The canonical quads are checked in the same order as by
+	 * {@link #verify(Reader)}, only the order of the hashes requires the
+	 * canonical quads to be sorted once all of them are found.
+	 *
+	 * @param expected the hexadecimal hashes of the canonical N-Quads in
+	 *                 canonical order
+	 * @return {@code true} if the hashes match the canonical form
+	 * @throws IllegalStateException if the computation is terminated prematurely
+	 */
+	public boolean verifyHashes(final List<String> expected) {
+
+		final var hashes = new HashSet<String>(expected);
+
+		if (expected.size() != quads.size() || hashes.size() != quads.size()) {
+			return false;
+		}
+
+		final var canonical = new ArrayList<Quad>(quads.size());
+		final var canonicalHashes = new IdentityHashMap<Quad, String>(quads.size() * 2);
+
+		final boolean found = verify(quad -> {
+			digest.reset();
+			final String hash = hex(digest.digest(quad.nquad.getBytes(StandardCharsets.UTF_8)));
+			canonical.add(quad);
+			canonicalHashes.put(quad, hash);
+			return hashes.contains(hash);
+		});
+
+		if (!found) {
+			return false;
+		}
+
+		canonical.sort(NQUAD_ORDER);
+
+		for (int i = 0; i < canonical.size(); i++) {
+			if (!expected.get(i).equals(canonicalHashes.get(canonical.get(i)))) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Issues the canonical identifiers and tests each canonical quad as soon as
+	 * its blank nodes are labeled.
+	 *
+	 * @param expected tests a canonical quad
+	 * @return {@code true} if all the canonical quads pass the test
+	 */
+	private boolean verify(final Predicate<Quad> expected) {
+
+		ticker.tick();
+
+		// ground quads do not depend on any hash
+		final var pending = new ArrayList<Quad>(quads.size());
+		for (final Quad quad : quads) {
+			if (!quad.isGround()) {
+				pending.add(quad);
+
+			} else if (!expected.test(quad)) {
+				return false;
+			}
+		}
+
+		cached = null;
+		canonIssuer.clear();
+		checkpointIssued = 0;
+		groupResults.clear();
+
+		setNonNormalized();
+		issueSimpleIds();
+
+		// quads labeled by the first degree hashes only
+		final var remaining = new ArrayList<Quad>(pending.size());
+		for (final Quad quad : pending) {
+			if (!isLabeled(quad)) {
+				remaining.add(quad);
+
+			} else if (!verify(quad, expected)) {
+				return false;
+			}
+		}
+
+		issueNDegreeIds();
+
+		for (final Quad quad : remaining) {
+			if (!verify(quad, expected)) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private boolean verify(final Quad quad, final Predicate<Quad> expected) {
+		ticker.tick();
+		return expected.test(quad.relabel(canonIssuer));
+	}
+
+	private boolean isLabeled(final Quad quad) {
+		return (!quad.blankSubject || canonIssuer.hasId(quad.subject))
+				&& (!quad.blankObject || canonIssuer.hasId(quad.object))
+				&& (!quad.blankGraph || canonIssuer.hasId(quad.graph));
+	}
+
+	/**
+	 * Canonicalizes the ingested dataset by several hash algorithms, e.g. one per
+	 * cryptosuite, sharing all the hash-independent work.
+	 * <p>
+	 * The dataset is ingested once, and the blank node index, the blank node
+	 * components and the ground quads in canonical order are built once. Only
+	 * the hash-dependent phases run for each algorithm, concurrently, on the
+	 * pool set by {@link #parallel(ForkJoinPool)} or the common pool. The
+	 * {@link RdfCanonTicker} is called from the pool threads and must be
+	 * thread-safe.
+	 *
+	 * @param hashAlgorithms the hash algorithms, e.g. {@code SHA-256} and
+	 *                       {@code SHA-384}
+	 * @return the results by hash algorithm, in the given order
+	 * @throws IllegalStateException if an algorithm is not available or the
+	 *                               computation is terminated prematurely
+	 */
+	public Map<String, RdfCanonResult> results(final String... hashAlgorithms) {
+
+		ticker.tick();
+
+		final var sortedGround = new ArrayList<Quad>();
+		for (final Quad quad : quads) {
+			if (quad.isGround()) {
+				sortedGround.add(quad);
+			}
+		}
+		sortedGround.sort(NQUAD_ORDER);
+
+		final var instances = new ArrayList<RdfCanon>(hashAlgorithms.length);
+		for (final String hashAlgorithm : hashAlgorithms) {
+			final RdfCanon instance;
+			try {
+				instance = new RdfCanon(blankIdToQuadSet, MessageDigest.getInstance(hashAlgorithm), quads, ticker);
+
+			} catch (NoSuchAlgorithmException e) {
+				throw new IllegalStateException(hashAlgorithm + " is not available", e);
+			}
+			// the ingested dataset is shared, it is not modified by the runs
+			instance.components = components();
+			instance.ground = sortedGround;
+			instance.pool = pool;
+			instance.metrics = metrics;
+			instance.profile = profile;
+			instance.cache = cache;
+			instance.hubThreshold = hubThreshold;
+			instances.add(instance);
+		}
+
+		final var results = Parallel.map(pool != null ? pool : ForkJoinPool.commonPool(), instances,
+				RdfCanon::result);
+
+		final var map = new LinkedHashMap<String, RdfCanonResult>(hashAlgorithms.length * 2);
+		for (int i = 0; i < hashAlgorithms.length; i++) {
+			map.put(hashAlgorithms[i], results.get(i));
+		}
+		return map;
+	}
+
+	/**
+	 * Estimates the Hash N-Degree Quads work before committing to the
+	 * canonicalization, e.g. to route, throttle or refuse a poison dataset right
+	 * after ingestion.
+	 * <p>
+	 * Only the first degree hashes are computed. The groups of blank nodes
+	 * sharing a first degree hash are inspected, and the related blank nodes of
+	 * each tied blank node are grouped the way the N-degree phase groups them.
+	 * The first degree hashes are kept, so a following canonicalization does not
+	 * compute them again.
+	 *
+	 * @return the estimate
+	 * @throws IllegalStateException if the computation is terminated prematurely
+	 */
+	public RdfCanonEstimate estimate() {
+
+		ticker.tick();
+
+		canonIssuer.clear();
+		setNonNormalized();
+		issueSimpleIds();
+
+		int tiedBlankNodes = 0;
+		int largestTiedGroup = 0;
+		int maxFanOut = 0;
+		int maxRelatedGroup = 0;
+		long permutations = 0;
+
+		for (final var group : hashToBlankId.values()) {
+
+			tiedBlankNodes += group.size();
+			largestTiedGroup = Math.max(largestTiedGroup, group.size());
+
+			for (final String id : group) {
+				ticker.tick();
+
+				final var related = new HashMap<String, Set<String>>();
+				final var fanOut = new HashSet<String>();
+
+				for (final Quad quad : blankIdToQuadSet.get(id)) {
+					for (final Position position : BLANK_POSITIONS) {
+						final String relatedId = position.get(quad);
+						if (position.isBlank(quad) && !id.equals(relatedId)) {
+							// the key the related hash is computed from, an issued
+							// identifier or a first degree hash, the predicate is
+							// left out for the graph position
+							final String key = position.tag()
+									+ (position != Position.GRAPH ? quad.predicate : "") + ' '
+									+ (canonIssuer.hasId(relatedId)
+											? canonIssuer.getId(relatedId)
+											: firstDegreeHashes.get(relatedId));
+							related.computeIfAbsent(key, k -> new HashSet<>()).add(relatedId);
+							fanOut.add(relatedId);
+						}
+					}
+				}
+
+				maxFanOut = Math.max(maxFanOut, fanOut.size());
+
+				for (final var relatedGroup : related.values()) {
+					maxRelatedGroup = Math.max(maxRelatedGroup, relatedGroup.size());
+					permutations = saturatedAdd(permutations, factorial(relatedGroup.size()));
+				}
+			}
+		}
+
+		return new RdfCanonEstimate(blankIdToQuadSet.size(), tiedBlankNodes, hashToBlankId.size(), largestTiedGroup,
+				maxFanOut, maxRelatedGroup, permutations);
+	}
+
+	/**
+	 * Captures the intermediate state of the last run, typically terminated
+	 * prematurely by the {@link RdfCanonTicker}, so the canonicalization of the
+	 * same dataset can be resumed later, e.g. by another process.
+	 * <p>
+	 * The first degree hashes computed so far, the canonical identifiers issued
+	 * before the hash group in progress, and the Hash N-Degree Quads results
+	 * computed for the group in progress are captured. The results of a parallel
+	 * run are captured once each component has been hashed.
+	 *
+	 * @return a new checkpoint
+	 */
+	public RdfCanonCheckpoint checkpoint() {
+
+		final var issued = new ArrayList<String>(checkpointIssued);
+		for (final String id : canonIssuer.mapping().keySet()) {
+			if (issued.size() == checkpointIssued) {
+				break;
+			}
+			issued.add(id);
+		}
+
+		return new RdfCanonCheckpoint(
+				fingerprint(),
+				new LinkedHashMap<>(firstDegreeHashes),
+				issued,
+				new LinkedHashMap<>(groupResults));
+	}
+
+	/**
+	 * Resumes the canonicalization from the given checkpoint. The next run
+	 * reuses the captured work and computes only the rest.
+	 * <p>
+	 * Must be called after the dataset has been ingested again, in any order,
+	 * since the checkpoint is verified against the fingerprint of the ingested
+	 * quads.
+	 *
+	 * @param checkpoint the checkpoint captured by {@link #checkpoint()}
+	 * @return this instance
+	 * @throws IllegalArgumentException if the checkpoint has been captured from
+	 *                                  another dataset or by another hash
+	 *                                  algorithm
+	 */
+	public RdfCanon resume(final RdfCanonCheckpoint checkpoint) {
+
+		final String expected = fingerprint();
+
+		if (!expected.equals(checkpoint.fingerprint())) {
+			throw new IllegalArgumentException("The checkpoint does not match the dataset, expected fingerprint "
+					+ expected + " but was " + checkpoint.fingerprint() + ".");
+		}
+
+		firstDegreeHashes.putAll(checkpoint.firstDegreeHashMap());
+		cached = null;
+		resumed = checkpoint;
+		return this;
+	}
+
+	/**
+	 * Issues the canonical identifiers captured by the resumed checkpoint. The
+	 * simple identifiers, already issued again, must be their prefix.
+	 */
+	private void resumeIssued() {
+
+		final var issued = resumed.issued();
+		final var iterator = canonIssuer.mapping().keySet().iterator();
+
+		for (int i = 0; i < issued.size(); i++) {
+			if (iterator.hasNext()) {
+				if (!issued.get(i).equals(iterator.next())) {
+					throw new IllegalStateException("The checkpoint is inconsistent with the dataset, blank node "
+							+ issued.get(i) + " has been issued in another order.");
+				}
+			} else {
+				ticker.tick();
+				canonIssuer.getId(issued.get(i));
+				nonNormalized.remove(issued.get(i));
+			}
+		}
+	}
+
+	private static long factorial(final int n) {
+		long factorial = 1;
+		for (int i = 2; i <= n; i++) {
+			if (factorial > Long.MAX_VALUE / i) {
+				return Long.MAX_VALUE;
+			}
+			factorial *= i;
+		}
+		return factorial;
+	}
+
+	private static long saturatedAdd(final long a, final long b) {
+		final long sum = a + b;
+		return sum < 0 ? Long.MAX_VALUE : sum;
+	}
+
+	/**
+	 * Computes the order-independent fingerprint of the ingested dataset, e.g.
+	 * to recognize the same dataset regardless of the quad order and to coalesce
+	 * its canonicalizations.
+	 *
+	 * @return the fingerprint prefixed by the hash algorithm name
+	 */
+	public String fingerprint() {
+		fingerprint.complete(quads, digest);
+		return fingerprint.fingerprint(digest);
+	}
+
+	/**
+	 * Get the number of distinct quads ingested so far.
+	 *
+	 * @return the number of quads
+	 */
+	int size() {
+		return quads.size();
+	}
+
+	void ticker(RdfCanonTicker ticker) {
+		this.ticker = ticker;
+	}
+
+	void metrics(RdfCanonMetrics metrics) {
+		this.metrics = metrics;
+	}
+
+	/**
+	 * Records a run and the quads ingested before it, the ingestion is timed
+	 * once per run rather than per quad.
+	 */
+	private void recordRun() {
+		metrics.run();
+		if (ingestedQuads > 0) {
+			metrics.ingested(ingestedQuads, ingestStart);
+			ingestedQuads = 0;
+		}
+	}
+
+	/**
+	 * Clears all the per-run state so the instance, its collections, message
+	 * digest and output buffers, can be reused to canonicalize another dataset.
+	 */
+	void reset() {
+		blankIdToQuadSet.clear();
+		canonIssuer.clear();
+		hashToBlankId.clear();
+		quads.clear();
+		nonNormalized = null;
+		firstDegreeHashes.clear();
+		checkpointIssued = 0;
+		groupResults.clear();
+		resumed = null;
+		hubs.clear();
+		components = null;
+		fingerprint.clear();
+		cached = null;
+		output = null;
+		outputLabels = null;
+		previousResults.clear();
+		currentResults.clear();
+		digest.reset();
+		ingestedQuads = 0;
+		ticker = RdfCanonTicker.EMPTY;
+	}
+
+	@Override
+	public RdfQuadConsumer quad(String subject, String predicate, String object, String datatype, String language,
+			String direction, String graph) {
+
+		ticker.tick(Work.QUAD, 1);
+
+		if (metrics != null && ingestedQuads++ == 0) {
+			ingestStart = System.nanoTime();
+		}
+
+		Quad quad = new Quad();
+		setResource(Position.SUBJECT, quad, subject);
+		quad.predicate = predicate;
+
+		if (RdfQuadConsumer.isLiteral(datatype, language, direction)) {
+			quad.object = object;
+			quad.datatype = datatype;
+			quad.language = language;
+			quad.direction = direction;
+
+		} else {
+			setResource(Position.OBJECT, quad, object);
+		}
+
+		setResource(Position.GRAPH, quad, graph);
+		quad.init();
+
+		// a dataset is a set, a duplicate quad is neither registered nor hashed again
+		if (quads.add(quad)) {
+			register(quad);
+			cached = null;
+			if (resultCache != null) {
+				fingerprint.add(quad, digest);
+			}
+		}
+
+		return this;
+	}
+
+	/**
+	 * Removes a quad from the dataset, e.g. to re-canonicalize an edited dataset
+	 * incrementally. Removing a quad which is not present has no effect.
+	 *
+	 * @param subject   the subject
+	 * @param predicate the predicate
+	 * @param object    the object
+	 * @param datatype  the datatype of a literal object or {@code null}
+	 * @param language  the language of a literal object or {@code null}
+	 * @param direction the direction of a literal object or {@code null}
+	 * @param graph     the graph name or {@code null}
+	 * @return this instance
+	 * @see #incremental(boolean)
+	 */
+	public RdfCanon remove(String subject, String predicate, String object, String datatype, String language,
+			String direction, String graph) {
+
+		final Quad probe = new Quad();
+		probe.subject = subject;
+		probe.predicate = predicate;
+		probe.object = object;
+		probe.datatype = datatype;
+		probe.language = language;
+		probe.direction = direction;
+		probe.graph = graph;
+		probe.init();
+
+		final Quad quad = find(probe);
+
+		if (quad != null) {
+			quads.remove(quad);
+			unregister(quad);
+			cached = null;
+			// the fingerprint is recomputed when needed
+			fingerprint.clear();
+		}
+		return this;
+	}
+
+	private Quad find(final Quad probe) {
+		if (!quads.contains(probe)) {
+			return null;
+		}
+		for (final Position position : BLANK_POSITIONS) {
+			final String id = position.get(probe);
+			if (id != null && blankIdToQuadSet.containsKey(id)) {
+				for (final Quad quad : blankIdToQuadSet.get(id)) {
+					if (quad.equals(probe)) {
+						return quad;
+					}
+				}
+			}
+		}
+		// a ground quad, equal to the stored instance
+		return probe;
+	}
+
+	static RdfCanon newInstance(final Set<Quad> nquads, final MessageDigest digest, final RdfCanonTicker ticker) {
+		return new RdfCanon(new LinkedHashMap<>(), digest, nquads, ticker);
+	}
+
+	String forBlank(Quad q0, String blankNodeId) {
+
+		String subject = q0.subject;
+		if (q0.blankSubject) {
+			// A blank node is always a resource
+			subject = subject.equals(blankNodeId) ? BLANK_A : BLANK_Z;
+		}
+
+		String object = q0.object;
+		if (q0.blankObject) {
+			object = object.equals(blankNodeId) ? BLANK_A : BLANK_Z;
+		}
+
+		String graph = q0.graph;
+		if (q0.blankGraph) {
+			graph = graph.equals(blankNodeId) ? BLANK_A : BLANK_Z;
+		}
+
+		return NQuadsWriter.nquad(subject, q0.predicate, object, q0.datatype, q0.language, q0.direction, graph);
+	}
+
+	/**
+	 * Serializes and sorts the N-Quads of a hub blank node in parallel, on the
+	 * pool set by {@link #parallel(ForkJoinPool)} or the common pool.
+	 */
+	private String[] forHub(final String blankNodeId, final Collection<Quad> related) {
+
+		ticker.tick();
+
+		final Quad[] quads = related.toArray(new Quad[0]);
+		final String[] nQuads = new String[quads.length];
+
+		final Runnable task = () -> {
+			Arrays.parallelSetAll(nQuads, index -> forBlank(quads[index], blankNodeId));
+			Arrays.parallelSort(nQuads);
+		};
+
+		if (pool != null) {
+			pool.invoke(ForkJoinTask.adapt(task));
+		} else {
+			task.run();
+		}
+
+		ticker.tick();
+		return nQuads;
+	}
+
+	void setNonNormalized() {
+		nonNormalized = new HashSet<>(blankIdToQuadSet.keySet());
+	}
+
+	String hashFirstDegree(final String blankNodeId, final MessageDigest digest) {
+
+		Collection<Quad> related = blankIdToQuadSet.get(blankNodeId);
+		String[] nQuads;
+
+		if (related.size() >= hubThreshold) {
+			nQuads = forHub(blankNodeId, related);
+
+		} else {
+			nQuads = new String[related.size()];
+			int i = 0;
+
+			// Convert the NQuads to a consistent set by replacing the reference with _:a
+			// and all others with _:z, and then sorting
+			for (Quad q0 : related) {
+				ticker.tick();
+				nQuads[i] = forBlank(q0, blankNodeId);
+				i++;
+			}
+
+			// Sort the nQuads
+			Arrays.sort(nQuads);
+		}
+
+		// Create the hash
+		digest.reset();
+		long bytes = 0;
+		for (String s : nQuads) {
+			final byte[] data = s.getBytes(StandardCharsets.UTF_8);
+			digest.update(data);
+			bytes += data.length;
+		}
+
+		ticker.tick(Work.HASH, bytes);
+
+		if (metrics != null) {
+			metrics.firstDegreeHash(bytes);
+		}
+		return hex(digest.digest());
+	}
+
+	void issueSimpleIds() {
+
+		ticker.tick();
+
+		// First degree hashes do not depend on issued identifiers, a single pass
+		// issues identifiers to all the blank nodes with a unique hash
+		computeFirstDegreeHashes();
+
+		hashToBlankId.clear();
+		for (final String id : nonNormalized) {
+			hashToBlankId.computeIfAbsent(firstDegreeHashes.get(id), k -> new HashSet<>()).add(id);
+		}
+
+		final Iterator<Entry<String, Set<String>>> iterator = hashToBlankId.entrySet().iterator();
+		while (iterator.hasNext()) {
+			ticker.tick();
+			final Entry<String, Set<String>> entry = iterator.next();
+			final Set<String> values = entry.getValue();
+			if (values.size() == 1) {
+				final String id = values.iterator().next();
+				// allocate a new id
+				canonIssuer.getId(id);
+				nonNormalized.remove(id);
+				iterator.remove();
+			}
+		}
+	}
+
+	void computeFirstDegreeHashes() {
+
+		if (firstDegreeHashes.size() == blankIdToQuadSet.size()) {
+			// already computed
+			return;
+		}
+
+		if (workers != null) {
+			distributeFirstDegree();
+			return;
+		}
+
+		final var strategy = ExecutionPlanner.firstDegree(pool != null,
+				blankIdToQuadSet.size() - firstDegreeHashes.size(),
+				this::components);
+
+		if (metrics != null) {
+			metrics.firstDegree(strategy);
+		}
+
+		if (strategy == ExecutionPlanner.Strategy.SEQUENTIAL) {
+			for (final String id : nonNormalized) {
+				if (!firstDegreeHashes.containsKey(id)) {
+					firstDegreeHashes.put(id, hashFirstDegree(id, digest));
+				}
+			}
+			return;
+		}
+
+		final var results = Parallel.map(pool, components().components(), component -> {
+			final MessageDigest componentDigest = newDigest();
+			final String[] hashes = new String[component.size()];
+			for (int i = 0; i < hashes.length; i++) {
+				if (!firstDegreeHashes.containsKey(component.get(i))) {
+					hashes[i] = hashFirstDegree(component.get(i), componentDigest);
+				}
+			}
+			return hashes;
+		});
+
+		for (int i = 0; i < results.size(); i++) {
+			final var component = components.component(i);
+			final var hashes = results.get(i);
+			for (int j = 0; j < hashes.length; j++) {
+				if (hashes[j] != null) {
+					firstDegreeHashes.put(component.get(j), hashes[j]);
+				}
+			}
+		}
+	}
+
+	void issueNDegreeIds() {
+
+		for (final var entry : hashToBlankId.entrySet()) {
+
+			ticker.tick();
+
+			if (metrics != null) {
+				metrics.tiedGroup(entry.getValue().size());
+			}
+
+			final var event = new CanonGroupEvent();
+			event.begin();
+
+			final long permutationsBefore = permutations.get();
+			final long start = profile != null ? System.nanoTime() : 0;
+
+			checkpointIssued = canonIssuer.mapping().size();
+			groupResults.clear();
+
+			final List<NDegreeResult> hashPathList = new ArrayList<>(entry.getValue().size());
+
+			// skip identifiers which have already been assigned a canonical ID
+			final var pending = new ArrayList<String>(entry.getValue().size());
+			for (final var id : entry.getValue()) {
+				if (canonIssuer.hasId(id)) {
+					continue;
+				}
+				final var result = resumed != null ? resumed.results().get(id) : null;
+				if (result != null) {
+					// computed before the checkpoint has been captured
+					groupResults.put(id, result);
+					hashPathList.add(result);
+				} else {
+					pending.add(id);
+				}
+			}
+
+			final var groups = workers != null || pool != null && pending.size() > 1 || cache != null || incremental
+					? components().groupBy(pending)
+					: null;
+
+			final var strategy = ExecutionPlanner.group(pool != null && groups != null, pending, groups,
+					blankIdToQuadSet);
+
+			if (metrics != null && workers == null) {
+				metrics.group(strategy);
+			}
+
+			if (workers != null) {
+				// the tied blank nodes are hashed independently, as by the
+				// parallel strategy
+				hashPathList.addAll(distributeNDegree(groups));
+
+			} else if (strategy == ExecutionPlanner.Strategy.PARALLEL) {
+				// no canonical ID is issued until the whole group is hashed, so the
+				// tied blank nodes can be hashed independently
+				Parallel.map(pool, groups, ids -> hashNDegreeQuads(ids, newDigest()))
+						.forEach(hashPathList::addAll);
+
+			} else if (groups != null) {
+				for (final var ids : groups) {
+					hashPathList.addAll(hashNDegreeQuads(ids, digest));
+				}
+
+			} else {
+				for (final var id : pending) {
+					hashPathList.add(hashNDegreeQuads(id, digest));
+				}
+			}
+
+			hashPathList.sort(Comparator.naturalOrder());
+			for (final var result : hashPathList) {
+				ticker.tick();
+				result.getIssuer().assign(canonIssuer);
+			}
+
+			checkpointIssued = canonIssuer.mapping().size();
+			groupResults.clear();
+
+			if (profile != null) {
+				profile.group(entry.getKey(), pending, permutations.get() - permutationsBefore,
+						System.nanoTime() - start);
+			}
+
+			event.end();
+
+			if (event.shouldCommit()) {
+				event.hash = entry.getKey();
+				event.blankNodes = entry.getValue().size();
+				event.permutations = permutations.get() - permutationsBefore;
+				event.commit();
+			}
+		}
+	}
+
+	/**
+	 * Computes the first degree hashes of the missing blank nodes on the workers.
+	 */
+	private void distributeFirstDegree() {
+
+		final var batches = batches(components().components());
+
+		final var units = new ArrayList<byte[]>(batches.size());
+		for (final var batch : batches) {
+			ticker.tick();
+			final var ids = new ArrayList<String>();
+			for (final var component : batch) {
+				for (final String id : component) {
+					if (!firstDegreeHashes.containsKey(id)) {
+						ids.add(id);
+					}
+				}
+			}
+			units.add(WorkUnit.firstDegree(digest.getAlgorithm(), ticker, quads(batch), ids));
+		}
+
+		for (final byte[] result : workers.execute(units)) {
+			ticker.tick();
+			try {
+				firstDegreeHashes.putAll(WorkUnit.firstDegreeResult(result, ticker));
+			} catch (IOException e) {
+				throw new UncheckedIOException(e);
+			}
+		}
+	}
+
+	/**
+	 * Computes the Hash N-Degree Quads of the given tied blank nodes, grouped by
+	 * components, on the workers.
+	 */
+	private List<NDegreeResult> distributeNDegree(final List<List<String>> groups) {
+
+		final var batches = batches(groups);
+
+		final var units = new ArrayList<byte[]>(batches.size());
+		for (final var batch : batches) {
+			ticker.tick();
+
+			final var components = new ArrayList<List<String>>(batch.size());
+			final var hashes = new HashMap<String, String>();
+			final var issued = new HashMap<String, String>();
+			final var ids = new ArrayList<String>();
+
+			for (final var group : batch) {
+				final var component = this.components.component(this.components.componentOf(group.get(0)));
+				components.add(component);
+				for (final String id : component) {
+					hashes.put(id, firstDegreeHashes.get(id));
+					if (canonIssuer.hasId(id)) {
+						issued.put(id, canonIssuer.getId(id));
+					}
+				}
+				ids.addAll(group);
+			}
+			units.add(WorkUnit.nDegree(digest.getAlgorithm(), ticker, quads(components), hashes, issued, ids));
+		}
+
+		final var results = new ArrayList<NDegreeResult>();
+		for (final byte[] result : workers.execute(units)) {
+			ticker.tick();
+			try {
+				final var decoded = WorkUnit.nDegreeResult(result, ticker);
+				groupResults.putAll(decoded);
+				results.addAll(decoded.values());
+			} catch (IOException e) {
+				throw new UncheckedIOException(e);
+			}
+		}
+		return results;
+	}
+
+	/**
+	 * Splits the given lists of blank nodes, one list per component, into
+	 * batches referenced by roughly the same number of quads, a few batches per
+	 * worker, so small components do not pay a round trip each.
+	 */
+	private List<List<List<String>>> batches(final List<List<String>> groups) {
+
+		final int[] sizes = new int[groups.size()];
+		long total = 0;
+		for (int i = 0; i < sizes.length; i++) {
+			for (final String id : components.component(components.componentOf(groups.get(i).get(0)))) {
+				sizes[i] += blankIdToQuadSet.get(id).size();
+			}
+			total += sizes[i];
+		}
+
+		final long target = Math.max(1, total / ((long) workers.size() * UNITS_PER_WORKER));
+
+		final var batches = new ArrayList<List<List<String>>>();
+		var batch = new ArrayList<List<String>>();
+		long size = 0;
+
+		for (int i = 0; i < sizes.length; i++) {
+			batch.add(groups.get(i));
+			size += sizes[i];
+			if (size >= target) {
+				batches.add(batch);
+				batch = new ArrayList<>();
+				size = 0;
+			}
+		}
+		if (!batch.isEmpty()) {
+			batches.add(batch);
+		}
+		return batches;
+	}
+
+	/** Collects the distinct quads referencing the given blank nodes. */
+	private Collection<Quad> quads(final List<List<String>> components) {
+		final var quads = new LinkedHashSet<Quad>();
+		for (final var component : components) {
+			for (final String id : component) {
+				quads.addAll(blankIdToQuadSet.get(id));
+			}
+		}
+		return quads;
+	}
+
+	/**
+	 * Computes the first degree hashes of the given blank nodes, executed by a
+	 * worker for the components sent by a coordinator.
+	 */
+	Map<String, String> firstDegreeHashes(final Collection<String> ids) {
+		final var hashes = new LinkedHashMap<String, String>(ids.size() * 2);
+		for (final String id : ids) {
+			ticker.tick();
+			hashes.put(id, hashFirstDegree(id, digest));
+		}
+		return hashes;
+	}
+
+	/**
+	 * Computes the Hash N-Degree Quads of the given tied blank nodes, executed by
+	 * a worker for the components sent by a coordinator.
+	 *
+	 * @param hashes the first degree hashes of all the blank nodes
+	 * @param issued the canonical identifiers issued by the coordinator
+	 * @param ids    the tied blank nodes to hash
+	 */
+	Map<String, NDegreeResult> nDegreeResults(final Map<String, String> hashes, final Map<String, String> issued,
+			final Collection<String> ids) {
+
+		firstDegreeHashes.putAll(hashes);
+
+		// issued in the coordinator order, the labels are copied as they are
+		canonIssuer.clear();
+		canonIssuer.mapping().putAll(issued);
+
+		final var results = new LinkedHashMap<String, NDegreeResult>(ids.size() * 2);
+		for (final String id : ids) {
+			results.put(id, hashNDegreeQuads(id, digest));
+		}
+		return results;
+	}
+
+	/**
+	 * Computes the Hash N-Degree Quads of the given blank nodes belonging to the
+	 * same component, consulting the cache if enabled.
+	 */
+	List<NDegreeResult> hashNDegreeQuads(final List<String> ids, final MessageDigest digest) {
+
+		final var results = new ArrayList<NDegreeResult>(ids.size());
+
+		if (cache == null && !incremental) {
+			for (final var id : ids) {
+				results.add(hashNDegreeQuads(id, digest));
+			}
+			return results;
+		}
+
+		final var key = ComponentKey.of(components.component(components.componentOf(ids.get(0))), blankIdToQuadSet,
+				canonIssuer, digest);
+
+		for (final var id : ids) {
+			final var entryKey = key.key(id);
+
+			RdfCanonCache.Entry entry = incremental ? previousResults.get(entryKey) : null;
+
+			if (entry == null && cache != null) {
+				entry = cache.get(entryKey);
+			}
+
+			if (entry != null) {
+				results.add(key.toResult(entry));
 
-		/**
-		 * Append an ID to the hash path.
-		 *
-		 * @param related       the ID to append
-		 * @param pathBuilder   the path to append to
-		 * @param issuerCopy    the identifier issuer
-		 * @param recursionList the node recursion list
-		 */
-		private void appendToPath(String related, StringBuilder pathBuilder, IdentifierIssuer issuerCopy,
-				List<String> recursionList) {
-			if (canonIssuer.hasId(related)) {
-				// 5.4.4.1: Already has a canonical ID so we just use it.
-				pathBuilder.append(canonIssuer.getId(related));
 			} else {
-				// 5.4.4.2: Need to try an ID, and possibly recurse
-				if (!issuerCopy.hasId(related)) {
-					recursionList.add(related);
+				final var result = hashNDegreeQuads(id, digest);
+				entry = key.toEntry(result);
+				if (cache != null) {
+					cache.put(entryKey, entry);
 				}
-				pathBuilder.append(issuerCopy.getId(related));
+				results.add(result);
+			}
+
+			if (incremental) {
+				currentResults.put(entryKey, entry);
 			}
 		}
+		return results;
+	}
 
-		/**
-		 * Implementation of steps 1 to 3 of the Hash N-Degree Quads algorithm.
-		 *
-		 * @param id     the ID of the blank node to process related nodes for
-		 * @param issuer the ID issuer currently being used.
-		 *
-		 * @return the required mapping
-		 */
-		private SortedMap<String, Set<String>> createHashToRelated(String id, IdentifierIssuer issuer) {
-			SortedMap<String, Set<String>> hashToRelated = new TreeMap<>();
-			// quads that refer to the blank node.
-			Collection<Quad> refer = blankIdToQuadSet.get(id);
-			for (Quad quad : refer) {
-				ticker.tick();
-				// find all the blank nodes that refer to this node by a quad
-				for (Position position : Position.CAN_BE_BLANK) {
-					if (position.isBlank(quad) && !id.equals(position.get(quad))) {
-						String related = position.get(quad);
-						String hash = hashRelatedBlankNode(related, quad, issuer, position);
-						hashToRelated.computeIfAbsent(hash, h -> new HashSet<>()).add(related);
-					}
+	/**
+	 * Computes the Hash N-Degree Quads of the given blank node using a new blank
+	 * ID issuer having its first ID assigned to the blank node.
+	 */
+	NDegreeResult hashNDegreeQuads(final String id, final MessageDigest digest) {
+		ticker.tick();
+
+		final var event = new CanonSearchEvent();
+		event.begin();
+
+		final long start = profile != null ? System.nanoTime() : 0;
+
+		final IdentifierIssuer blankIssuer = new IdentifierIssuer("_:b");
+		blankIssuer.getId(id);
+
+		final var search = digest == this.digest ? engine() : new HashNDegreeQuads(digest);
+		final var result = search.hash(id, blankIssuer);
+
+		permutations.addAndGet(search.permutations);
+
+		groupResults.put(id, result);
+
+		if (profile != null) {
+			profile.search(id, firstDegreeHashes.get(id), blankIdToQuadSet.get(id), search.permutations,
+					search.recursions, search.maxDepth, search.maxRelated, System.nanoTime() - start);
+		}
+
+		event.end();
+
+		if (event.shouldCommit()) {
+			event.blankNode = id;
+			event.quads = blankIdToQuadSet.get(id).size();
+			event.permutations = search.permutations;
+			event.depth = search.maxDepth;
+			event.commit();
+		}
+		return result;
+	}
+
+	/**
+	 * The engine reused by sequential searches, keeping its frames and their
+	 * buffers across the searches.
+	 */
+	private HashNDegreeQuads engine() {
+		if (engine == null) {
+			engine = new HashNDegreeQuads(digest);
+		}
+		return engine;
+	}
+
+	BlankComponents components() {
+		if (components == null) {
+			components = BlankComponents.of(blankIdToQuadSet);
+		}
+		return components;
+	}
+
+	/**
+	 * Creates a new message digest of the same algorithm for an independent work
+	 * unit.
+	 */
+	MessageDigest newDigest() {
+		try {
+			return (MessageDigest) digest.clone();
+
+		} catch (CloneNotSupportedException e) {
+			try {
+				return MessageDigest.getInstance(digest.getAlgorithm());
+
+			} catch (NoSuchAlgorithmException ex) {
+				throw new IllegalStateException(digest.getAlgorithm() + " is not available", ex);
+			}
+		}
+	}
+
+	Collection<Quad> canonQuads() {
+
+		if (incremental && output != null) {
+			return mergeQuads();
+		}
+
+		if (ground != null) {
+			// only the relabeled quads are sorted, the ground quads are in order
+			final var relabeled = new ArrayList<Quad>(quads.size() - ground.size());
+			for (final Quad quad : quads) {
+				if (!quad.isGround()) {
+					relabeled.add(quad.relabel(canonIssuer));
 				}
 			}
-			return hashToRelated;
+			relabeled.sort(NQUAD_ORDER);
+			return merge(ground, relabeled);
 		}
 
-		/**
-		 * Process one possible permutation of the blank nodes.
-		 *
-		 * @param permutation the permutation
-		 * @param issuer      the identifier issuer
-		 */
-		private void doPermutation(String[] permutation, IdentifierIssuer issuer) {
+		final var sorted = new ArrayList<Quad>(quads.size());
 
-			ticker.tick();
+		// relabel blank nodes
+		for (final Quad quad : quads) {
+			if (quad.isGround()) {
+				sorted.add(quad);
 
-			// 5.4.1 to 5.4.3 : initialize variables
-			IdentifierIssuer issuerCopy = issuer.copy();
-			StringBuilder pathBuilder = new StringBuilder();
-			List<String> recursionList = new ArrayList<>();
+			} else if (lastRun) {
+				// the input quads are not needed anymore
+				sorted.add(quad.relabelInPlace(canonIssuer));
 
-			// 5.4.4: for every resource in the this permutation of the resources
-			for (final String relatedId : permutation) {
-				ticker.tick();
-				appendToPath(relatedId, pathBuilder, issuerCopy, recursionList);
+			} else {
+				sorted.add(quad.relabel(canonIssuer));
+			}
+		}
 
-				// 5.4.4.3: Is this path better than our chosen path?
-				if (chosenPath.length() > 0 && pathBuilder.toString().compareTo(chosenPath.toString()) > 0) {
-					// This is permutation is not going to make the best path, so skip the rest of
-					// it
-					return;
-				}
+		sorted.sort(NQUAD_ORDER);
+
+		if (incremental) {
+			output = sorted;
+			outputLabels = new HashMap<>(canonIssuer.mapping());
+		}
+		return sorted;
+	}
+
+	/**
+	 * Merges the changes since the previous run into the previous sorted output.
+	 * Canonical quads whose origin is still present and whose blank nodes kept
+	 * their canonical labels are reused, only the other quads are relabeled and
+	 * sorted, and the two sorted lists are merged.
+	 */
+	Collection<Quad> mergeQuads() {
+
+		final var labels = canonIssuer.mapping();
+
+		final var kept = new ArrayList<Quad>(output.size());
+		final var keptOrigins = new HashSet<Quad>(output.size() * 2);
+
+		for (final Quad canonical : output) {
+			ticker.tick();
+			final Quad origin = canonical.origin != null ? canonical.origin : canonical;
+			if (quads.contains(origin) && (canonical.origin == null || sameLabels(origin, labels))) {
+				kept.add(canonical);
+				keptOrigins.add(origin);
 			}
+		}
 
-			// 5.4.5: Process the recursion list
-			for (String related : recursionList) {
-				ticker.tick();
-				NDegreeResult result = hashNDegreeQuads(related, issuerCopy);
+		final var changed = new ArrayList<Quad>();
+		for (final Quad quad : quads) {
+			if (!keptOrigins.contains(quad)) {
+				changed.add(quad.isGround() ? quad : quad.relabel(canonIssuer));
+			}
+		}
+		changed.sort(NQUAD_ORDER);
 
-				pathBuilder.append(issuerCopy.getId(related)).append('<').append(result.getHash()).append('>');
-				issuerCopy = result.getIssuer();
+		final var merged = merge(kept, changed);
 
-				if (chosenPath.length() > 0 && pathBuilder.toString().compareTo(chosenPath.toString()) > 0) {
-					// This is permutation is not going to make the best path, so skip the rest of
-					// it
-					return;
-				}
+		output = merged;
+		outputLabels = new HashMap<>(labels);
+		return merged;
+	}
+
+	/** Merges two lists of quads sorted in the code point order. */
+	private static List<Quad> merge(final List<Quad> a, final List<Quad> b) {
+		final var merged = new ArrayList<Quad>(a.size() + b.size());
+		int i = 0;
+		int j = 0;
+		while (i < a.size() && j < b.size()) {
+			merged.add(NQUAD_ORDER.compare(a.get(i), b.get(j)) <= 0 ? a.get(i++) : b.get(j++));
+		}
+		merged.addAll(a.subList(i, a.size()));
+		merged.addAll(b.subList(j, b.size()));
+		return merged;
+	}
+
+	private boolean sameLabels(final Quad quad, final Map<String, String> labels) {
+		return (!quad.blankSubject || Objects.equals(labels.get(quad.subject), outputLabels.get(quad.subject)))
+				&& (!quad.blankObject || Objects.equals(labels.get(quad.object), outputLabels.get(quad.object)))
+				&& (!quad.blankGraph || Objects.equals(labels.get(quad.graph), outputLabels.get(quad.graph)));
+	}
+
+	/**
+	 * Convert bytes to hexadecimal.
+	 *
+	 * @param data the bytes
+	 *
+	 * @return the data represented in hexadecimal.
+	 */
+	static String hex(byte[] data) {
+		StringBuilder builder = new StringBuilder(data.length * 2);
+		for (byte b : data) {
+			builder.append(HEX[(b & 0xf0) >> 4]).append(HEX[b & 0xf]);
+		}
+		return builder.toString();
+	}
+
+	void setResource(final Position position, final Quad quad, final String name) {
+		position.set(quad, name, RdfQuadConsumer.isBlank(name));
+	}
+
+	/**
+	 * Registers a newly added quad with the blank nodes it references and
+	 * invalidates their first degree hashes.
+	 */
+	private void register(final Quad quad) {
+		for (final Position position : BLANK_POSITIONS) {
+			if (position.isBlank(quad)) {
+				final String id = position.get(quad);
+				blankIdToQuadSet.computeIfAbsent(id, k -> new LinkedList<>()).add(quad);
+				firstDegreeHashes.remove(id);
+				hubs.remove(id);
 			}
+		}
+		components = null;
+	}
 
-			// 5.4.6: Do we have a new chosen path?
-			if (chosenPath.length() == 0 || pathBuilder.toString().compareTo(chosenPath.toString()) < 0) {
-				chosenPath.setLength(0);
-				chosenPath.append(pathBuilder);
-				chosenIssuer = issuerCopy;
+	/**
+	 * Unregisters a removed quad from the blank nodes it references and
+	 * invalidates their first degree hashes.
+	 */
+	private void unregister(final Quad quad) {
+		for (final Position position : BLANK_POSITIONS) {
+			if (position.isBlank(quad)) {
+				final String id = position.get(quad);
+				final var related = blankIdToQuadSet.get(id);
+				if (related != null) {
+					related.removeIf(quad::equals);
+					if (related.isEmpty()) {
+						blankIdToQuadSet.remove(id);
+					}
+				}
+				firstDegreeHashes.remove(id);
+				hubs.remove(id);
 			}
 		}
+		components = null;
+	}
+
+	/**
+	 * An iterative implementation of the Hash N-Degree Quads algorithm.
+	 * <p>
+	 * Recursive calls of the algorithm are represented by frames on an explicit
+	 * stack instead of Java call frames, so the recursion depth is limited only
+	 * by the heap. Frames, and their path buffers, are reused by the following
+	 * calls at the same depth, so the memory used by a search is proportional to
+	 * its maximal depth.
+	 */
+	private class HashNDegreeQuads {
+
+		/** The message digest owned by the current work unit. */
+		final MessageDigest digest;
+
+		/** The frames, a frame at index {@code i} represents depth {@code i + 1}. */
+		private final List<Frame> frames = new ArrayList<>();
+
+		/** The number of permutations generated by the search. */
+		long permutations;
+
+		/** The maximal recursion depth of the search. */
+		int maxDepth;
+
+		/** The number of recursive calls of the search. */
+		long recursions;
+
+		/** The largest group of permuted related blank nodes. */
+		int maxRelated;
+
+		HashNDegreeQuads(MessageDigest digest) {
+			this.digest = digest;
+		}
 
 		/**
 		 * Calculate the hash from the N-Degree nodes.
 		 *
-		 * @param bid           the blank node starting ID
+		 * @param id            the blank node starting ID
 		 * @param defaultIssuer the identifier issuer
 		 *
 		 * @return the result
 		 */
 		NDegreeResult hash(final String id, final IdentifierIssuer defaultIssuer) {
 
-			IdentifierIssuer issuer = defaultIssuer;
+			permutations = 0;
+			maxDepth = 1;
+			recursions = 0;
+			maxRelated = 0;
 
-			SortedMap<String, Set<String>> hashToRelated = createHashToRelated(id, defaultIssuer);
+			int top = 0;
+			frame(top).enter(id, defaultIssuer);
 
-			for (Entry<String, Set<String>> entry : hashToRelated.entrySet()) {
-				// 5.1 to 5.3: Append the hash for the related item to the hash we are building
-				// and initialise variables
-				dataToHash.append(entry.getKey());
-				chosenPath = new StringBuilder();
-				chosenIssuer = null;
+			NDegreeResult result = null;
 
-				// 5.4: For every possible permutation of the blank node list...
-				Permutator permutator = new Permutator(entry.getValue().toArray(new String[entry.getValue().size()]));
-				while (permutator.hasNext()) {
-					ticker.tick();
-					doPermutation(permutator.next(), issuer);
+			while (true) {
+
+				final Frame frame = frames.get(top);
+
+				if (result != null) {
+					// 5.4.5: a recursive call has returned
+					frame.recursed(result);
+					result = null;
 				}
 
-				// 5.5: Append chosen path to the hash
-				dataToHash.append(chosenPath);
-				issuer = chosenIssuer;
+				switch (frame.state) {
+				case GROUP:
+					frame.nextGroup();
+					break;
+
+				case PERMUTATION:
+					frame.nextPermutation();
+					break;
+
+				case RECURSION:
+					final String related = frame.nextRecursion();
+					if (related != null) {
+						ticker.tick(Work.RECURSION, top + 2);
+						top++;
+						recursions++;
+						maxDepth = Math.max(maxDepth, top + 1);
+						frame(top).enter(related, frame.issuerCopy);
+					}
+					break;
+
+				case DONE:
+					result = frame.result(top + 1);
+					if (top == 0) {
+						return result;
+					}
+					top--;
+					break;
+				}
 			}
+		}
 
-			digest.reset();
-			String hash = hex(digest.digest(dataToHash.toString().getBytes(StandardCharsets.UTF_8)));
-			return new NDegreeResult(hash, issuer);
+		private Frame frame(final int index) {
+			if (index == frames.size()) {
+				frames.add(new Frame());
+			}
+			return frames.get(index);
 		}
 
 		/**
@@ -619,24 +2385,311 @@ public final class RdfCanon implements RdfQuadConsumer {
 		 * @return the hash
 		 */
 		private String hashRelatedBlankNode(String related, Quad quad, IdentifierIssuer issuer, Position position) {
-			// Find an ID for the blank ID
+			return hashRelated(relatedLabel(related, issuer), quad, position);
+		}
+
+		/**
+		 * Find an ID for the related blank node, a canonical ID, an ID issued by
+		 * the given issuer, or a first degree hash.
+		 */
+		private String relatedLabel(String related, IdentifierIssuer issuer) {
 			String id;
 			if (canonIssuer.hasId(related)) {
 				id = canonIssuer.getId(related);
 			} else if (issuer.hasId(related)) {
 				id = issuer.getId(related);
 			} else {
-				id = hashFirstDegree(related);
+				id = firstDegreeHashes.get(related);
+				if (id == null) {
+					id = hashFirstDegree(related, digest);
+				}
 			}
+			return id;
+		}
 
-			// Create the hash of position, predicate and ID.
+		/**
+		 * Create the hash of position, predicate and ID.
+		 */
+		private String hashRelated(String id, Quad quad, Position position) {
 			digest.reset();
 			digest.update(position.tag());
+			long bytes = 1;
 			if (position != Position.GRAPH) {
-				digest.update(NQuadsWriter.resource(quad.predicate).getBytes(StandardCharsets.UTF_8));
+				final byte[] predicate = NQuadsWriter.resource(quad.predicate).getBytes(StandardCharsets.UTF_8);
+				digest.update(predicate);
+				bytes += predicate.length;
+			}
+			final byte[] data = id.getBytes(StandardCharsets.UTF_8);
+			digest.update(data);
+
+			ticker.tick(Work.HASH, bytes + data.length);
+
+			if (metrics != null) {
+				metrics.relatedHash(bytes + data.length);
 			}
-			digest.update(id.getBytes(StandardCharsets.UTF_8));
 			return hex(digest.digest());
 		}
+
+		/**
+		 * The state of a single Hash N-Degree Quads call.
+		 */
+		private final class Frame {
+
+			/** The blank node being hashed. */
+			String id;
+
+			/** The currently used identifier issuer. */
+			IdentifierIssuer issuer;
+
+			/** The remaining groups of related blank nodes. */
+			Iterator<Entry<String, Set<String>>> groups;
+
+			/** The permutations of the current group. */
+			Permutator permutator;
+
+			/** The data which will go into the hash. */
+			final StringBuilder dataToHash = new StringBuilder();
+
+			/** The currently chosen path. */
+			final StringBuilder chosenPath = new StringBuilder();
+
+			/** The currently chosen identifier issuer. */
+			IdentifierIssuer chosenIssuer;
+
+			/** The path of the current permutation. */
+			final StringBuilder path = new StringBuilder();
+
+			/** The identifier issuer of the current permutation. */
+			IdentifierIssuer issuerCopy;
+
+			/** The related blank nodes of the current permutation to recurse to. */
+			final List<String> recursionList = new ArrayList<>();
+
+			/** The index of the next blank node to recurse to. */
+			int recursionIndex;
+
+			State state;
+
+			/**
+			 * Implementation of steps 1 to 3 of the Hash N-Degree Quads algorithm.
+			 */
+			void enter(final String id, final IdentifierIssuer issuer) {
+				this.id = id;
+				this.issuer = issuer;
+				this.dataToHash.setLength(0);
+				this.chosenIssuer = null;
+				this.issuerCopy = null;
+				this.permutator = null;
+
+				final SortedMap<String, Set<String>> hashToRelated = new TreeMap<>();
+				// quads that refer to the blank node.
+				final Collection<Quad> quads = blankIdToQuadSet.get(id);
+
+				if (quads.size() >= hubThreshold) {
+					// visit only the distinct relations, reusing the hashes
+					final HubNode hub = hubs.computeIfAbsent(id, hubId -> HubNode.of(hubId, quads));
+					for (int index = 0; index < hub.size(); index++) {
+						ticker.tick();
+						final String related = hub.related(index);
+						final String label = relatedLabel(related, issuer);
+						String hash = hub.hash(index, label);
+						if (hash == null) {
+							hash = hashRelated(label, hub.quad(index), hub.position(index));
+							hub.hash(index, label, hash);
+						}
+						hashToRelated.computeIfAbsent(hash, h -> new HashSet<>()).add(related);
+					}
+
+				} else {
+					for (Quad quad : quads) {
+						ticker.tick();
+						// find all the blank nodes that refer to this node by a quad
+						for (Position position : Position.CAN_BE_BLANK) {
+							if (position.isBlank(quad) && !id.equals(position.get(quad))) {
+								String related = position.get(quad);
+								String hash = hashRelatedBlankNode(related, quad, issuer, position);
+								hashToRelated.computeIfAbsent(hash, h -> new HashSet<>()).add(related);
+							}
+						}
+					}
+				}
+
+				this.groups = hashToRelated.entrySet().iterator();
+				this.state = State.GROUP;
+			}
+
+			/**
+			 * Steps 5.1 to 5.3: start the next group of related blank nodes.
+			 */
+			void nextGroup() {
+				if (!groups.hasNext()) {
+					state = State.DONE;
+					return;
+				}
+
+				final Entry<String, Set<String>> entry = groups.next();
+
+				// 5.1 to 5.3: Append the hash for the related item to the hash we are building
+				// and initialise variables
+				dataToHash.append(entry.getKey());
+				chosenPath.setLength(0);
+				chosenIssuer = null;
+
+				maxRelated = Math.max(maxRelated, entry.getValue().size());
+
+				// 5.4: For every possible permutation of the blank node list...
+				permutator = new Permutator(entry.getValue().toArray(new String[entry.getValue().size()]));
+				state = State.PERMUTATION;
+			}
+
+			/**
+			 * Steps 5.4.1 to 5.4.4: process the next permutation up to the recursion.
+			 */
+			void nextPermutation() {
+
+				if (!permutator.hasNext()) {
+					// 5.5: Append chosen path to the hash
+					dataToHash.append(chosenPath);
+					issuer = chosenIssuer;
+					state = State.GROUP;
+					return;
+				}
+
+				ticker.tick(Work.PERMUTATION, 1);
+				permutations++;
+				if (metrics != null) {
+					metrics.permutation();
+				}
+
+				final String[] permutation = permutator.next();
+
+				// 5.4.1 to 5.4.3 : initialize variables
+				issuerCopy = issuer.copy();
+				path.setLength(0);
+				recursionList.clear();
+				recursionIndex = 0;
+
+				if (metrics != null) {
+					metrics.issuerCopy();
+				}
+
+				// 5.4.4: for every resource in the this permutation of the resources
+				for (final String related : permutation) {
+					ticker.tick();
+					appendToPath(related);
+
+					// 5.4.4.3: Is this path better than our chosen path?
+					if (isWorse()) {
+						// This is permutation is not going to make the best path, so skip the rest of
+						// it
+						return;
+					}
+				}
+
+				state = State.RECURSION;
+			}
+
+			/**
+			 * Step 5.4.5: get the next related blank node to recurse to, or complete
+			 * the permutation.
+			 *
+			 * @return the blank node to recurse to, or {@code null}
+			 */
+			String nextRecursion() {
+				if (recursionIndex < recursionList.size()) {
+					return recursionList.get(recursionIndex);
+				}
+
+				// 5.4.6: Do we have a new chosen path?
+				if (chosenPath.length() == 0 || CharSequence.compare(path, chosenPath) < 0) {
+					chosenPath.setLength(0);
+					chosenPath.append(path);
+					chosenIssuer = issuerCopy;
+				}
+				state = State.PERMUTATION;
+				return null;
+			}
+
+			/**
+			 * Step 5.4.5: continue with the result of a recursive call.
+			 */
+			void recursed(final NDegreeResult result) {
+				final String related = recursionList.get(recursionIndex++);
+
+				path.append(issuerCopy.getId(related)).append('<').append(result.getHash()).append('>');
+				issuerCopy = result.getIssuer();
+
+				if (isWorse()) {
+					// This is permutation is not going to make the best path, so skip the rest of
+					// it
+					state = State.PERMUTATION;
+				}
+			}
+
+			/**
+			 * Step 6: the hash of this call.
+			 */
+			NDegreeResult result(final int depth) {
+				final byte[] data = dataToHash.toString().getBytes(StandardCharsets.UTF_8);
+
+				ticker.tick(Work.HASH, data.length);
+
+				if (metrics != null) {
+					metrics.nDegreeHash(data.length, depth);
+				}
+
+				digest.reset();
+				return new NDegreeResult(hex(digest.digest(data)), issuer);
+			}
+
+			/**
+			 * Append an ID to the hash path.
+			 *
+			 * @param related the ID to append
+			 */
+			private void appendToPath(final String related) {
+				if (canonIssuer.hasId(related)) {
+					// 5.4.4.1: Already has a canonical ID so we just use it.
+					path.append(canonIssuer.getId(related));
+				} else {
+					// 5.4.4.2: Need to try an ID, and possibly recurse
+					if (!issuerCopy.hasId(related)) {
+						recursionList.add(related);
+					}
+					path.append(issuerCopy.getId(related));
+				}
+			}
+
+			/**
+			 * Is the current path worse than the chosen path?
+			 */
+			private boolean isWorse() {
+				if (chosenPath.length() > 0 && CharSequence.compare(path, chosenPath) > 0) {
+					if (metrics != null) {
+						metrics.prunedPermutation();
+					}
+					return true;
+				}
+				return false;
+			}
+		}
+	}
+
+	/**
+	 * The steps of a Hash N-Degree Quads call.
+	 */
+	private enum State {
+
+		/** Start the next group of related blank nodes, or finish. */
+		GROUP,
+
+		/** Start the next permutation of the current group. */
+		PERMUTATION,
+
+		/** Recurse to the next related blank node of the current permutation. */
+		RECURSION,
+
+		/** All the groups are processed, the hash is computed. */
+		DONE,
 	}
 }
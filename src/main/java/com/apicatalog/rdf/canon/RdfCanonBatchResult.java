@@ -0,0 +1,65 @@
+package com.apicatalog.rdf.canon;
+
+/**
+ * An outcome of a single dataset canonicalization within a batch, either a
+ * {@link RdfCanonResult} or an error, e.g. an {@link IllegalStateException}
+ * thrown by {@link RdfCanonTicker} to abort the computation.
+ *
+ * @see RdfCanonicalizer#canonizeAll(java.util.List)
+ */
+public final class RdfCanonBatchResult {
+
+    private final int index;
+    private final RdfCanonResult result;
+    private final Exception error;
+
+    private RdfCanonBatchResult(int index, RdfCanonResult result, Exception error) {
+        this.index = index;
+        this.result = result;
+        this.error = error;
+    }
+
+    static RdfCanonBatchResult success(int index, RdfCanonResult result) {
+        return new RdfCanonBatchResult(index, result, null);
+    }
+
+    static RdfCanonBatchResult failure(int index, Exception error) {
+        return new RdfCanonBatchResult(index, null, error);
+    }
+
+    /**
+     * Get the position of the dataset in the batch input.
+     *
+     * @return the input index
+     */
+    public int index() {
+        return index;
+    }
+
+    /**
+     * Returns {@code true} if the dataset has been canonicalized.
+     *
+     * @return {@code true} if {@link #result()} is available
+     */
+    public boolean isSuccess() {
+        return error == null;
+    }
+
+    /**
+     * Get the canonicalization result.
+     *
+     * @return the result or {@code null} if the canonicalization failed
+     */
+    public RdfCanonResult result() {
+        return result;
+    }
+
+    /**
+     * Get the error which terminated the canonicalization.
+     *
+     * @return the error or {@code null} if the canonicalization succeeded
+     */
+    public Exception error() {
+        return error;
+    }
+}
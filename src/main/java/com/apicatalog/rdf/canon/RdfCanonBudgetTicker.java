@@ -0,0 +1,289 @@
+package com.apicatalog.rdf.canon;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * An implementation of {@link RdfCanonTicker} enforcing a work budget, i.e.
+ * separate caps on ingested quads, digested bytes, generated permutations,
+ * the Hash N-Degree Quads recursion depth and a deadline, to reject hostile
+ * inputs predictably.
+ * <p>
+ * The counters are checked on every typed tick, which is cheap. The clock and
+ * the interruption status of the current thread are checked only once per
+ * {@link #checkEvery(int)} ticks of each thread, so the hot loops of honest
+ * inputs are not slowed down by clock reads nor by contention on a shared
+ * counter. The deadline starts at the first tick, or when
+ * {@link #start()} is called.
+ * <p>
+ * A ticker keeps per-run state and must not be reused. It is thread-safe, so
+ * it can be used by a parallel canonicalization.
+ *
+ * <pre>{@code
+ * RdfCanonTicker ticker = RdfCanonBudgetTicker.create()
+ *         .maxQuads(100_000)
+ *         .maxPermutations(1_000_000)
+ *         .maxDepth(16)
+ *         .deadline(Duration.ofSeconds(5));
+ * }</pre>
+ *
+ * @see RdfCanonTicker.Work
+ */
+public final class RdfCanonBudgetTicker implements RdfCanonTicker {
+
+    /** The default number of ticks between clock checks. */
+    static final int DEFAULT_CHECK_EVERY = 1024;
+
+    private long maxQuads = Long.MAX_VALUE;
+    private long maxDigestBytes = Long.MAX_VALUE;
+    private long maxPermutations = Long.MAX_VALUE;
+    private long maxDepth = Long.MAX_VALUE;
+    private long deadlineNanos = Long.MAX_VALUE;
+    private int checkEvery = DEFAULT_CHECK_EVERY;
+
+    private final LongAdder ticks = new LongAdder();
+    private final AtomicLong quads = new AtomicLong();
+    private final AtomicLong digestBytes = new AtomicLong();
+    private final AtomicLong permutations = new AtomicLong();
+
+    /** The number of ticks left until the next check, per thread. */
+    private final ThreadLocal<int[]> countdown = ThreadLocal.withInitial(() -> new int[] { checkEvery });
+
+    /** The time of the first tick. */
+    private volatile long startNanos;
+
+    private volatile boolean started;
+
+    private RdfCanonBudgetTicker() {
+    }
+
+    /**
+     * Creates a new ticker with no limits.
+     *
+     * @return a new ticker
+     */
+    public static RdfCanonBudgetTicker create() {
+        return new RdfCanonBudgetTicker();
+    }
+
+    /**
+     * Sets the maximal number of ingested quads.
+     *
+     * @param maxQuads the maximal number of quads
+     * @return this ticker
+     */
+    public RdfCanonBudgetTicker maxQuads(long maxQuads) {
+        this.maxQuads = positive(maxQuads, "Maximal number of quads");
+        return this;
+    }
+
+    /**
+     * Sets the maximal number of bytes passed to the message digest.
+     *
+     * @param maxDigestBytes the maximal number of bytes
+     * @return this ticker
+     */
+    public RdfCanonBudgetTicker maxDigestBytes(long maxDigestBytes) {
+        this.maxDigestBytes = positive(maxDigestBytes, "Maximal number of digested bytes");
+        return this;
+    }
+
+    /**
+     * Sets the maximal number of permutations generated by the Hash N-Degree
+     * Quads algorithm.
+     *
+     * @param maxPermutations the maximal number of permutations
+     * @return this ticker
+     */
+    public RdfCanonBudgetTicker maxPermutations(long maxPermutations) {
+        this.maxPermutations = positive(maxPermutations, "Maximal number of permutations");
+        return this;
+    }
+
+    /**
+     * Sets the maximal recursion depth of the Hash N-Degree Quads algorithm.
+     *
+     * @param maxDepth the maximal depth
+     * @return this ticker
+     */
+    public RdfCanonBudgetTicker maxDepth(long maxDepth) {
+        this.maxDepth = positive(maxDepth, "Maximal recursion depth");
+        return this;
+    }
+
+    /**
+     * Sets the maximal duration measured from the first tick.
+     *
+     * @param duration the maximal duration
+     * @return this ticker
+     */
+    public RdfCanonBudgetTicker deadline(Duration duration) {
+        this.deadlineNanos = positive(duration.toNanos(), "Deadline");
+        return this;
+    }
+
+    /**
+     * Sets the number of ticks of a thread between checks of the clock and of
+     * the thread interruption status.
+     *
+     * @param ticks the number of ticks, {@code 1} checks on every tick
+     * @return this ticker
+     */
+    public RdfCanonBudgetTicker checkEvery(int ticks) {
+        this.checkEvery = (int) positive(ticks, "Number of ticks between checks");
+        return this;
+    }
+
+    @Override
+    public void tick() throws IllegalStateException {
+        if (!started) {
+            startOnce();
+        }
+        ticks.increment();
+        final int[] left = countdown.get();
+        if (--left[0] == 0) {
+            left[0] = checkEvery;
+            check();
+        }
+    }
+
+    @Override
+    public void tick(Work work, long units) throws IllegalStateException {
+        switch (work) {
+        case QUAD:
+            exceeds(quads.addAndGet(units), maxQuads, "quads");
+            break;
+
+        case HASH:
+            exceeds(digestBytes.addAndGet(units), maxDigestBytes, "digested bytes");
+            break;
+
+        case PERMUTATION:
+            exceeds(permutations.addAndGet(units), maxPermutations, "permutations");
+            break;
+
+        case RECURSION:
+            exceeds(units, maxDepth, "recursion depth");
+            break;
+        }
+        // a hash is computed in a loop ticking already
+        if (work != Work.HASH) {
+            tick();
+        }
+    }
+
+    /**
+     * Get the number of ticks.
+     *
+     * @return the number of ticks
+     */
+    public long ticks() {
+        return ticks.sum();
+    }
+
+    /**
+     * Get the number of ingested quads.
+     *
+     * @return the number of quads
+     */
+    public long quads() {
+        return quads.get();
+    }
+
+    /**
+     * Get the number of digested bytes.
+     *
+     * @return the number of bytes
+     */
+    public long digestBytes() {
+        return digestBytes.get();
+    }
+
+    /**
+     * Get the number of generated permutations.
+     *
+     * @return the number of permutations
+     */
+    public long permutations() {
+        return permutations.get();
+    }
+
+    /**
+     * Starts the deadline now, e.g. once a queued run gets its turn, so the
+     * time spent before, including the ingestion, is not charged against it.
+     *
+     * @return this ticker
+     */
+    public synchronized RdfCanonBudgetTicker start() {
+        startNanos = System.nanoTime();
+        started = true;
+        return this;
+    }
+
+    /**
+     * Writes the rest of this budget, e.g. for a worker computing a part of the
+     * run. The ingested quads are not limited, they have been counted here.
+     */
+    void writeRemaining(final DataOutputStream out) throws IOException {
+        out.writeLong(remaining(maxDigestBytes, digestBytes.get()));
+        out.writeLong(remaining(maxPermutations, permutations.get()));
+        out.writeLong(maxDepth);
+        out.writeLong(started ? remaining(deadlineNanos, System.nanoTime() - startNanos) : deadlineNanos);
+        out.writeInt(checkEvery);
+    }
+
+    /**
+     * Reads a budget written by {@link #writeRemaining(DataOutputStream)}.
+     */
+    static RdfCanonBudgetTicker readRemaining(final DataInputStream in) throws IOException {
+        final var ticker = new RdfCanonBudgetTicker();
+        ticker.maxDigestBytes = in.readLong();
+        ticker.maxPermutations = in.readLong();
+        ticker.maxDepth = in.readLong();
+        ticker.deadlineNanos = in.readLong();
+        ticker.checkEvery = (int) positive(in.readInt(), "Number of ticks between checks");
+        return ticker;
+    }
+
+    private static long remaining(final long limit, final long used) {
+        return limit == Long.MAX_VALUE ? limit : Math.max(0, limit - used);
+    }
+
+    private synchronized void startOnce() {
+        if (!started) {
+            startNanos = System.nanoTime();
+            started = true;
+        }
+    }
+
+    private void check() {
+        if (Thread.currentThread().isInterrupted()) {
+            throw new IllegalStateException("Canonicalization has been interrupted.");
+        }
+        if (deadlineNanos != Long.MAX_VALUE) {
+            final long elapsed = System.nanoTime() - startNanos;
+            if (elapsed > deadlineNanos) {
+                throw new IllegalStateException(
+                        "Deadline of " + Duration.ofNanos(deadlineNanos).toMillis() + " ms exceeded. " +
+                                "Elapsed: " + Duration.ofNanos(elapsed).toMillis() + " ms.");
+            }
+        }
+    }
+
+    private static void exceeds(long value, long limit, String name) {
+        if (value > limit) {
+            throw new IllegalStateException("Maximum " + name + " of " + limit + " exceeded.");
+        }
+    }
+
+    private static long positive(long value, String name) {
+        if (value <= 0) {
+            throw new IllegalArgumentException(name + " must be positive but was " + value + ".");
+        }
+        return value;
+    }
+}
@@ -0,0 +1,164 @@
+package com.apicatalog.rdf.canon;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * A bounded, thread-safe LRU cache of Hash N-Degree Quads results shared
+ * across {@link RdfCanon} runs.
+ * <p>
+ * Datasets often repeat the same blank node structures, e.g. proof objects or
+ * status blocks. An entry is keyed by a structural fingerprint of the blank
+ * node component the hashed node belongs to: the component quads, including
+ * all the ground terms, with not yet labeled blank nodes renamed in the order
+ * of their first occurrence and canonically labeled ones kept as they are. The
+ * entry stores the resulting hash and the relative labeling of the component,
+ * so a cache hit skips the N-degree permutation search and still yields
+ * exactly the same result.
+ * <p>
+ * Hit rate depends on a producer emitting the repeated structures in the same
+ * quad order, blank node labels themselves do not matter.
+ *
+ * <pre>{@code
+ * RdfCanonCache cache = RdfCanonCache.create(10_000);
+ *
+ * RdfCanon canon = RdfCanon.create("SHA-256").cache(cache);
+ * }</pre>
+ */
+public final class RdfCanonCache {
+
+    private final int maxEntries;
+
+    private final Map<String, Entry> entries;
+
+    private long hits;
+    private long misses;
+    private long evictions;
+
+    private RdfCanonCache(final int maxEntries) {
+        this.maxEntries = maxEntries;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                if (size() > RdfCanonCache.this.maxEntries) {
+                    evictions++;
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    /**
+     * Creates a new cache holding at most {@code maxEntries} entries.
+     *
+     * @param maxEntries the maximal number of entries, must be positive
+     * @return a new cache instance
+     * @throws IllegalArgumentException if {@code maxEntries} is not positive
+     */
+    public static RdfCanonCache create(final int maxEntries) {
+        if (maxEntries <= 0) {
+            throw new IllegalArgumentException("Maximum number of entries must be positive but was " + maxEntries + ".");
+        }
+        return new RdfCanonCache(maxEntries);
+    }
+
+    synchronized Entry get(final String key) {
+        final Entry entry = entries.get(key);
+        if (entry != null) {
+            hits++;
+        } else {
+            misses++;
+        }
+        return entry;
+    }
+
+    synchronized void put(final String key, final Entry entry) {
+        entries.put(key, entry);
+    }
+
+    /**
+     * Get the number of lookups which found an entry.
+     *
+     * @return the number of hits
+     */
+    public synchronized long hits() {
+        return hits;
+    }
+
+    /**
+     * Get the number of lookups which did not find an entry.
+     *
+     * @return the number of misses
+     */
+    public synchronized long misses() {
+        return misses;
+    }
+
+    /**
+     * Get the number of entries evicted to keep the cache bounded.
+     *
+     * @return the number of evictions
+     */
+    public synchronized long evictions() {
+        return evictions;
+    }
+
+    /**
+     * Get the ratio of hits to all the lookups.
+     *
+     * @return the hit rate between {@code 0} and {@code 1}, or {@code 0} if there
+     *         has been no lookup
+     */
+    public synchronized double hitRate() {
+        final long lookups = hits + misses;
+        return lookups > 0 ? (double) hits / lookups : 0;
+    }
+
+    /**
+     * Get the number of cached entries.
+     *
+     * @return the number of entries
+     */
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    /**
+     * Get the maximal number of cached entries.
+     *
+     * @return the cache capacity
+     */
+    public int maxEntries() {
+        return maxEntries;
+    }
+
+    /**
+     * Removes all the entries and resets the counters.
+     */
+    public synchronized void clear() {
+        entries.clear();
+        hits = 0;
+        misses = 0;
+        evictions = 0;
+    }
+
+    /**
+     * A cached Hash N-Degree Quads result with the issued blank node identifiers
+     * expressed as component-local indices.
+     */
+    static final class Entry {
+
+        final String hash;
+
+        final int[] issued;
+
+        Entry(String hash, int[] issued) {
+            this.hash = hash;
+            this.issued = issued;
+        }
+    }
+}
@@ -0,0 +1,234 @@
+package com.apicatalog.rdf.canon;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The intermediate state of a canonicalization, e.g. terminated prematurely by
+ * {@link RdfCanonTicker} at the end of a maintenance window, captured by
+ * {@link RdfCanon#checkpoint()} and used by {@link RdfCanon#resume(RdfCanonCheckpoint)}
+ * to continue the canonicalization of the same dataset in another process.
+ * <p>
+ * A checkpoint keeps the first degree hashes computed so far, the canonical
+ * identifiers issued before the hash group in progress, and the Hash N-Degree
+ * Quads results already computed for the group in progress. The remaining
+ * groups are recomputed from the dataset. A checkpoint is bound to the dataset
+ * by an order-independent fingerprint of the input quads.
+ *
+ * <pre>{@code
+ * try {
+ *     canon.provide(writer);
+ * } catch (IllegalStateException e) {
+ *     canon.checkpoint().write(path);
+ * }
+ *
+ * // later, after the same dataset has been ingested again
+ * canon.resume(RdfCanonCheckpoint.read(path)).provide(writer);
+ * }</pre>
+ */
+public final class RdfCanonCheckpoint {
+
+    /** Identifies the checkpoint format. */
+    private static final int MAGIC = 0x52444643;
+
+    /** The strings are prefixed by their UTF-8 length since the version 2. */
+    private static final int VERSION = 2;
+
+    private final String fingerprint;
+
+    private final Map<String, String> firstDegreeHashes;
+
+    private final List<String> issued;
+
+    private final Map<String, NDegreeResult> results;
+
+    RdfCanonCheckpoint(String fingerprint, Map<String, String> firstDegreeHashes, List<String> issued,
+            Map<String, NDegreeResult> results) {
+        this.fingerprint = fingerprint;
+        this.firstDegreeHashes = firstDegreeHashes;
+        this.issued = issued;
+        this.results = results;
+    }
+
+    /**
+     * Reads a checkpoint from the given file.
+     *
+     * @param path the file written by {@link #write(Path)}
+     * @return the checkpoint
+     * @throws IOException if the file cannot be read or is not a checkpoint
+     */
+    public static RdfCanonCheckpoint read(final Path path) throws IOException {
+        try (final InputStream is = Files.newInputStream(path)) {
+            return read(is);
+        }
+    }
+
+    /**
+     * Reads a checkpoint from the given stream. The stream is not closed.
+     *
+     * @param is the stream written by {@link #write(OutputStream)}
+     * @return the checkpoint
+     * @throws IOException if the stream cannot be read or is not a checkpoint
+     */
+    public static RdfCanonCheckpoint read(final InputStream is) throws IOException {
+
+        final var in = new DataInputStream(new BufferedInputStream(is));
+
+        if (in.readInt() != MAGIC) {
+            throw new IOException("Not an RDFC-1.0 checkpoint.");
+        }
+
+        final int version = in.readInt();
+        if (version != VERSION) {
+            throw new IOException("Unsupported checkpoint version " + version + ", expected " + VERSION + ".");
+        }
+
+        final String fingerprint = WorkUnit.readString(in);
+
+        final int hashes = in.readInt();
+        final var firstDegreeHashes = new LinkedHashMap<String, String>(hashes * 2);
+        for (int i = 0; i < hashes; i++) {
+            firstDegreeHashes.put(WorkUnit.readString(in), WorkUnit.readString(in));
+        }
+
+        final List<String> issued = readIds(in);
+
+        final int size = in.readInt();
+        final var results = new LinkedHashMap<String, NDegreeResult>(size * 2);
+        for (int i = 0; i < size; i++) {
+            final String id = WorkUnit.readString(in);
+            final String hash = WorkUnit.readString(in);
+
+            final IdentifierIssuer issuer = new IdentifierIssuer("_:b");
+            readIds(in).forEach(issuer::getId);
+
+            results.put(id, new NDegreeResult(hash, issuer));
+        }
+
+        return new RdfCanonCheckpoint(fingerprint, firstDegreeHashes, issued, results);
+    }
+
+    /**
+     * Writes the checkpoint to the given file, replacing an existing file.
+     *
+     * @param path the file to write
+     * @throws IOException if the file cannot be written
+     */
+    public void write(final Path path) throws IOException {
+        try (final OutputStream os = Files.newOutputStream(path)) {
+            write(os);
+        }
+    }
+
+    /**
+     * Writes the checkpoint to the given stream. The stream is flushed but not
+     * closed.
+     *
+     * @param os the stream to write
+     * @throws IOException if the stream cannot be written
+     */
+    public void write(final OutputStream os) throws IOException {
+
+        final var out = new DataOutputStream(new BufferedOutputStream(os));
+
+        out.writeInt(MAGIC);
+        out.writeInt(VERSION);
+        WorkUnit.writeString(out, fingerprint);
+
+        out.writeInt(firstDegreeHashes.size());
+        for (final var entry : firstDegreeHashes.entrySet()) {
+            WorkUnit.writeString(out, entry.getKey());
+            WorkUnit.writeString(out, entry.getValue());
+        }
+
+        writeIds(out, issued);
+
+        out.writeInt(results.size());
+        for (final var entry : results.entrySet()) {
+            WorkUnit.writeString(out, entry.getKey());
+            WorkUnit.writeString(out, entry.getValue().getHash());
+            // identifiers are issued by the counter, the order is enough
+            writeIds(out, entry.getValue().getIssuer().mapping().keySet());
+        }
+
+        out.flush();
+    }
+
+    /**
+     * The fingerprint of the dataset the checkpoint has been captured from.
+     *
+     * @return the fingerprint prefixed by the hash algorithm name
+     */
+    public String fingerprint() {
+        return fingerprint;
+    }
+
+    /**
+     * The number of blank nodes whose first degree hash has been computed.
+     *
+     * @return the number of first degree hashes
+     */
+    public int firstDegreeHashes() {
+        return firstDegreeHashes.size();
+    }
+
+    /**
+     * The number of issued canonical identifiers.
+     *
+     * @return the number of identifiers
+     */
+    public int issuedIdentifiers() {
+        return issued.size();
+    }
+
+    /**
+     * The number of Hash N-Degree Quads results computed for the hash group in
+     * progress.
+     *
+     * @return the number of results
+     */
+    public int nDegreeResults() {
+        return results.size();
+    }
+
+    Map<String, String> firstDegreeHashMap() {
+        return firstDegreeHashes;
+    }
+
+    List<String> issued() {
+        return issued;
+    }
+
+    Map<String, NDegreeResult> results() {
+        return results;
+    }
+
+    private static List<String> readIds(final DataInputStream in) throws IOException {
+        final int size = in.readInt();
+        final var ids = new ArrayList<String>(size);
+        for (int i = 0; i < size; i++) {
+            ids.add(WorkUnit.readString(in));
+        }
+        return Collections.unmodifiableList(ids);
+    }
+
+    private static void writeIds(final DataOutputStream out, final Collection<String> ids) throws IOException {
+        out.writeInt(ids.size());
+        for (final String id : ids) {
+            WorkUnit.writeString(out, id);
+        }
+    }
+}
@@ -0,0 +1,227 @@
+package com.apicatalog.rdf.canon;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.function.UnaryOperator;
+
+import com.apicatalog.rdf.api.RdfConsumerException;
+import com.apicatalog.rdf.api.RdfQuadConsumer;
+
+/**
+ * Canonical quads relabeled by a label map, e.g. an HMAC of the canonical
+ * blank node identifiers, from which sorted subsets are derived.
+ * <p>
+ * Selective disclosure canonicalizes a credential once, relabels its blank
+ * nodes and then picks several subsets of the quads to reveal. The derivation
+ * relabels and sorts the quads only once and keeps the relabeled position of
+ * each canonical quad, so a subset is derived by sorting the positions of the
+ * selected quads, without canonicalizing or re-ingesting the subset.
+ *
+ * <pre>{@code
+ * RdfCanonDerivation derivation = result.relabel(label -> "_:u" + hmac(label));
+ *
+ * List<String> reveal = derivation.select(selected);
+ * }</pre>
+ *
+ * @see RdfCanonResult#relabel(UnaryOperator)
+ */
+public final class RdfCanonDerivation {
+
+    /** The canonical quads in canonical order. */
+    private final List<Quad> canonical;
+
+    /** The relabeled quads in relabeled order. */
+    private final Quad[] relabeled;
+
+    /** The canonical index of each relabeled quad, in relabeled order. */
+    private final int[] order;
+
+    /** The relabeled position of each canonical quad. */
+    private final int[] rank;
+
+    /** The canonical index of each canonical N-Quad. */
+    private final Map<String, Integer> index;
+
+    RdfCanonDerivation(final List<Quad> canonical, final UnaryOperator<String> labels) {
+
+        final int size = canonical.size();
+
+        final Quad[] quads = new Quad[size];
+        final Integer[] sorted = new Integer[size];
+
+        this.index = new HashMap<>(size * 2);
+
+        for (int i = 0; i < size; i++) {
+            final Quad quad = canonical.get(i);
+            quads[i] = quad.isGround() ? quad : quad.relabel(labels);
+            sorted[i] = i;
+            index.put(quad.nquad, i);
+        }
+
+        Arrays.sort(sorted, (a, b) -> quads[a].nquad.compareTo(quads[b].nquad));
+
+        this.canonical = canonical;
+        this.relabeled = new Quad[size];
+        this.order = new int[size];
+        this.rank = new int[size];
+
+        for (int i = 0; i < size; i++) {
+            order[i] = sorted[i];
+            rank[sorted[i]] = i;
+            relabeled[i] = quads[sorted[i]];
+        }
+    }
+
+    /**
+     * Emits all the relabeled RDF quads, in the relabeled N-Quads order, to the
+     * given consumer.
+     *
+     * @param consumer the {@link RdfQuadConsumer} that will receive the RDF
+     *                 quads
+     * @throws RdfConsumerException if an error occurs while processing or
+     *                              consuming RDF quads
+     */
+    public void provide(final RdfQuadConsumer consumer) throws RdfConsumerException {
+        for (final var quad : relabeled) {
+            consumer.quad(quad.subject(), quad.predicate, quad.object(), quad.datatype, quad.language, quad.direction,
+                    quad.graph());
+        }
+    }
+
+    /**
+     * Emits all the relabeled RDF N-Quads, in the relabeled N-Quads order, to the
+     * given consumer.
+     *
+     * @param consumer the consumer that will receive the RDF N-Quads
+     */
+    public void provide(final Consumer<String> consumer) {
+        for (final var quad : relabeled) {
+            consumer.accept(quad.nquad);
+        }
+    }
+
+    /**
+     * Get the relabeled N-Quads of the selected canonical quads, in the relabeled
+     * N-Quads order.
+     *
+     * @param selection indexes of the selected quads in the canonical order
+     * @return the selected relabeled N-Quads
+     * @throws IndexOutOfBoundsException if an index is out of range
+     */
+    public List<String> select(final BitSet selection) {
+        if (selection.length() > rank.length) {
+            throw new IndexOutOfBoundsException(selection.length() - 1);
+        }
+        return nquads(selection.stream().map(i -> rank[i]).toArray());
+    }
+
+    /**
+     * Get the relabeled N-Quads of the selected canonical quads, in the relabeled
+     * N-Quads order.
+     *
+     * @param selection indexes of the selected quads in the canonical order
+     * @return the selected relabeled N-Quads
+     * @throws IndexOutOfBoundsException if an index is out of range
+     */
+    public List<String> select(final int... selection) {
+        final int[] positions = new int[selection.length];
+        for (int i = 0; i < selection.length; i++) {
+            positions[i] = rank[selection[i]];
+        }
+        return nquads(positions);
+    }
+
+    /**
+     * Get the relabeled N-Quads of the selected canonical N-Quads, in the
+     * relabeled N-Quads order.
+     *
+     * @param selection canonical N-Quads, as emitted by
+     *                  {@link RdfCanonResult#provide(Consumer)}
+     * @return the selected relabeled N-Quads
+     * @throws IllegalArgumentException if an N-Quad is not part of the result
+     */
+    public List<String> select(final Collection<String> selection) {
+        final int[] positions = new int[selection.size()];
+        int i = 0;
+        for (final String nquad : selection) {
+            positions[i++] = rank[indexOf(nquad)];
+        }
+        return nquads(positions);
+    }
+
+    /**
+     * Get the index of the given canonical N-Quad in the canonical order.
+     *
+     * @param nquad a canonical N-Quad
+     * @return the index of the canonical N-Quad
+     * @throws IllegalArgumentException if the N-Quad is not part of the result
+     */
+    public int indexOf(final String nquad) {
+        final Integer i = index.get(nquad);
+        if (i == null) {
+            throw new IllegalArgumentException("The N-Quad [" + nquad + "] is not a canonical N-Quad of the result.");
+        }
+        return i;
+    }
+
+    /**
+     * Get the position of a canonical quad after relabeling, i.e. its index in
+     * the relabeled N-Quads order.
+     *
+     * @param index the index of a quad in the canonical order
+     * @return the index of the quad in the relabeled order
+     * @throws IndexOutOfBoundsException if the index is out of range
+     */
+    public int relabeledIndexOf(final int index) {
+        return rank[index];
+    }
+
+    /**
+     * Get the index of a relabeled quad in the canonical order.
+     *
+     * @param index the index of a quad in the relabeled order
+     * @return the index of the quad in the canonical order
+     * @throws IndexOutOfBoundsException if the index is out of range
+     */
+    public int canonicalIndexOf(final int index) {
+        return order[index];
+    }
+
+    /**
+     * Get the canonical N-Quad at the given index in the canonical order.
+     *
+     * @param index the index of a quad in the canonical order
+     * @return the canonical N-Quad
+     * @throws IndexOutOfBoundsException if the index is out of range
+     */
+    public String canonical(final int index) {
+        return canonical.get(index).nquad;
+    }
+
+    /**
+     * Get the number of quads.
+     *
+     * @return the number of quads
+     */
+    public int size() {
+        return relabeled.length;
+    }
+
+    private List<String> nquads(final int[] positions) {
+        Arrays.sort(positions);
+        final var nquads = new ArrayList<String>(positions.length);
+        for (int i = 0; i < positions.length; i++) {
+            // a quad selected more than once is emitted once
+            if (i == 0 || positions[i] != positions[i - 1]) {
+                nquads.add(relabeled[positions[i]].nquad);
+            }
+        }
+        return nquads;
+    }
+}
@@ -0,0 +1,170 @@
+package com.apicatalog.rdf.canon;
+
+/**
+ * A pre-flight estimate of the Hash N-Degree Quads work needed to canonicalize
+ * a dataset, computed by {@link RdfCanon#estimate()} from the first degree
+ * hashes only.
+ * <p>
+ * Blank nodes with a unique first degree hash are labeled without the
+ * N-degree phase. Each of the remaining, tied, blank nodes starts a search
+ * generating all the permutations of its related blank nodes sharing a hash.
+ * The estimate counts the permutations of the first recursion level, which is
+ * a lower bound of the work since recursive calls repeat the search for the
+ * related blank nodes.
+ *
+ * <pre>{@code
+ * RdfCanonEstimate estimate = canon.estimate();
+ *
+ * if (estimate.complexity() == RdfCanonEstimate.Complexity.EXTREME) {
+ *     // refuse the dataset
+ * }
+ * }</pre>
+ */
+public final class RdfCanonEstimate {
+
+    /** The expected N-degree work. */
+    public enum Complexity {
+
+        /** No N-degree work, all the blank nodes have a unique first degree hash. */
+        NONE,
+
+        /** Small tied groups with a few related blank nodes. */
+        LOW,
+
+        /** Noticeable N-degree work, but within common limits. */
+        HIGH,
+
+        /**
+         * Factorial work typical for poison graphs, canonicalization is not
+         * expected to finish in a reasonable time.
+         */
+        EXTREME,
+    }
+
+    /** The largest related group still classified as {@link Complexity#LOW}. */
+    static final int LOW_RELATED = 4;
+
+    /** The permutations still classified as {@link Complexity#LOW}. */
+    static final long LOW_PERMUTATIONS = 10_000;
+
+    /** The smallest related group classified as {@link Complexity#EXTREME}. */
+    static final int EXTREME_RELATED = 9;
+
+    /** The permutations classified as {@link Complexity#EXTREME}. */
+    static final long EXTREME_PERMUTATIONS = 1_000_000;
+
+    private final int blankNodes;
+    private final int tiedBlankNodes;
+    private final int tiedGroups;
+    private final int largestTiedGroup;
+    private final int maxFanOut;
+    private final int maxRelatedGroup;
+    private final long permutations;
+
+    RdfCanonEstimate(int blankNodes, int tiedBlankNodes, int tiedGroups, int largestTiedGroup, int maxFanOut,
+            int maxRelatedGroup, long permutations) {
+        this.blankNodes = blankNodes;
+        this.tiedBlankNodes = tiedBlankNodes;
+        this.tiedGroups = tiedGroups;
+        this.largestTiedGroup = largestTiedGroup;
+        this.maxFanOut = maxFanOut;
+        this.maxRelatedGroup = maxRelatedGroup;
+        this.permutations = permutations;
+    }
+
+    /**
+     * The number of blank nodes in the dataset.
+     *
+     * @return the number of blank nodes
+     */
+    public int blankNodes() {
+        return blankNodes;
+    }
+
+    /**
+     * The number of blank nodes sharing a first degree hash with another blank
+     * node, i.e. requiring the N-degree phase.
+     *
+     * @return the number of tied blank nodes
+     */
+    public int tiedBlankNodes() {
+        return tiedBlankNodes;
+    }
+
+    /**
+     * The number of groups of blank nodes sharing a first degree hash.
+     *
+     * @return the number of tied groups
+     */
+    public int tiedGroups() {
+        return tiedGroups;
+    }
+
+    /**
+     * The size of the largest group of blank nodes sharing a first degree hash.
+     *
+     * @return the size of the largest tied group
+     */
+    public int largestTiedGroup() {
+        return largestTiedGroup;
+    }
+
+    /**
+     * The maximal number of distinct blank nodes related to a tied blank node.
+     *
+     * @return the maximal fan-out
+     */
+    public int maxFanOut() {
+        return maxFanOut;
+    }
+
+    /**
+     * The size of the largest group of blank nodes related to a tied blank node
+     * and indistinguishable by their hashes, whose permutations are generated.
+     *
+     * @return the size of the largest related group
+     */
+    public int maxRelatedGroup() {
+        return maxRelatedGroup;
+    }
+
+    /**
+     * The number of permutations generated at the first recursion level,
+     * saturated at {@link Long#MAX_VALUE}.
+     *
+     * @return the estimated number of permutations
+     */
+    public long permutations() {
+        return permutations;
+    }
+
+    /**
+     * Classifies the expected N-degree work.
+     *
+     * @return the complexity class
+     */
+    public Complexity complexity() {
+        if (tiedBlankNodes == 0) {
+            return Complexity.NONE;
+        }
+        if (maxRelatedGroup >= EXTREME_RELATED || permutations > EXTREME_PERMUTATIONS) {
+            return Complexity.EXTREME;
+        }
+        if (maxRelatedGroup <= LOW_RELATED && permutations <= LOW_PERMUTATIONS) {
+            return Complexity.LOW;
+        }
+        return Complexity.HIGH;
+    }
+
+    @Override
+    public String toString() {
+        return "RdfCanonEstimate[complexity=" + complexity()
+                + ", blankNodes=" + blankNodes
+                + ", tiedBlankNodes=" + tiedBlankNodes
+                + ", tiedGroups=" + tiedGroups
+                + ", largestTiedGroup=" + largestTiedGroup
+                + ", maxFanOut=" + maxFanOut
+                + ", maxRelatedGroup=" + maxRelatedGroup
+                + ", permutations=" + permutations + "]";
+    }
+}
@@ -0,0 +1,108 @@
+package com.apicatalog.rdf.canon;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * An immutable canonical labeling of blank nodes computed by
+ * {@link RdfCanon#label()}, e.g. to assign identifiers or to derive a key per
+ * blank node without the canonical N-Quads.
+ * <p>
+ * Canonical identifiers are issued by a counter, so the labeling is kept as the
+ * input blank node identifiers in the order the canonical identifiers have
+ * been issued, i.e. the identifier at index {@code i} is labeled
+ * {@code _:c14n<i>}.
+ */
+public final class RdfCanonLabels {
+
+    /** The canonical identifier prefix. */
+    static final String PREFIX = "_:c14n";
+
+    /** The input blank node identifiers in canonical order. */
+    private final String[] ids;
+
+    /** Input blank node identifier to index, built on the first lookup. */
+    private volatile Map<String, Integer> index;
+
+    RdfCanonLabels(final Map<String, String> mapping) {
+        this.ids = mapping.keySet().toArray(new String[mapping.size()]);
+    }
+
+    /**
+     * Get the number of labeled blank nodes.
+     *
+     * @return the number of blank nodes
+     */
+    public int size() {
+        return ids.length;
+    }
+
+    /**
+     * Get the input blank node identifier labeled {@code _:c14n<index>}.
+     *
+     * @param index the canonical index
+     * @return the input blank node identifier
+     * @throws IndexOutOfBoundsException if there is no such label
+     */
+    public String id(final int index) {
+        return ids[index];
+    }
+
+    /**
+     * Get the canonical index of an input blank node identifier.
+     *
+     * @param id the input blank node identifier
+     * @return the canonical index or {@code -1} if the blank node is not present
+     */
+    public int indexOf(final String id) {
+        var index = this.index;
+        if (index == null) {
+            index = new HashMap<>(ids.length * 2);
+            for (int i = 0; i < ids.length; i++) {
+                index.put(ids[i], i);
+            }
+            this.index = index;
+        }
+        final Integer i = index.get(id);
+        return i != null ? i : -1;
+    }
+
+    /**
+     * Get the canonical label of an input blank node identifier.
+     *
+     * @param id the input blank node identifier
+     * @return the canonical label, e.g. {@code _:c14n0}, or {@code null} if the
+     *         blank node is not present
+     */
+    public String label(final String id) {
+        final int i = indexOf(id);
+        return i != -1 ? PREFIX + i : null;
+    }
+
+    /**
+     * Get the input blank node identifiers in canonical order.
+     *
+     * @return an unmodifiable list of identifiers
+     */
+    public List<String> ids() {
+        return Collections.unmodifiableList(Arrays.asList(ids));
+    }
+
+    /**
+     * Get the blank nodes mapping, an input blank node identifier to a canonical
+     * one, in canonical order, as returned by {@link RdfCanon#mapping()}.
+     *
+     * @return a new mapping table
+     */
+    public Map<String, String> mapping() {
+        final var mapping = new LinkedHashMap<String, String>(ids.length * 2);
+        for (int i = 0; i < ids.length; i++) {
+            mapping.put(ids[i], PREFIX + i);
+        }
+        return mapping;
+    }
+}
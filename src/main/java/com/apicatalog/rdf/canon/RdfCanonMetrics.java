@@ -0,0 +1,371 @@
+package com.apicatalog.rdf.canon;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * An optional recorder of RDF dataset canonicalization metrics, e.g. to
+ * explain why a particular dataset was slow or to export the values to a
+ * monitoring system.
+ * <p>
+ * A recorder is attached to {@link RdfCanon} instances, the same way as
+ * {@link RdfCanonTicker}, and accumulates the values of all the runs. The
+ * recorder is thread-safe, so a single instance can be shared by many
+ * instances or by {@link RdfCanonicalizer}. Recording does not allocate per
+ * event nor contend on shared counters, and nothing is recorded if no recorder
+ * is attached.
+ *
+ * <pre>{@code
+ * RdfCanonMetrics metrics = RdfCanonMetrics.create();
+ *
+ * RdfCanon canon = RdfCanon.create("SHA-256", RdfCanonTicker.EMPTY, metrics);
+ * ...
+ * metrics.nDegreeIdsNanos();
+ * }</pre>
+ */
+public final class RdfCanonMetrics {
+
+    private final LongAdder runs = new LongAdder();
+    private final LongAdder quads = new LongAdder();
+
+    private final LongAdder ingestNanos = new LongAdder();
+    private final LongAdder simpleIdsNanos = new LongAdder();
+    private final LongAdder nDegreeIdsNanos = new LongAdder();
+    private final LongAdder canonQuadsNanos = new LongAdder();
+
+    private final LongAdder firstDegreeHashes = new LongAdder();
+    private final LongAdder relatedHashes = new LongAdder();
+    private final LongAdder bytesDigested = new LongAdder();
+    private final LongAdder permutations = new LongAdder();
+    private final LongAdder prunedPermutations = new LongAdder();
+    private final LongAdder issuerCopies = new LongAdder();
+
+    private final LongAccumulator maxDepth = new LongAccumulator(Math::max, 0);
+    private final LongAccumulator maxTiedGroup = new LongAccumulator(Math::max, 0);
+
+    private final LongAdder parallelFirstDegree = new LongAdder();
+    private final LongAdder sequentialFirstDegree = new LongAdder();
+    private final LongAdder parallelGroups = new LongAdder();
+    private final LongAdder sequentialGroups = new LongAdder();
+
+    private RdfCanonMetrics() {
+    }
+
+    /**
+     * Creates a new metrics recorder with all the values set to zero.
+     *
+     * @return a new recorder
+     */
+    public static RdfCanonMetrics create() {
+        return new RdfCanonMetrics();
+    }
+
+    /**
+     * The number of canonicalization runs.
+     *
+     * @return the number of runs
+     */
+    public long runs() {
+        return runs.sum();
+    }
+
+    /**
+     * The number of ingested quads, including duplicates.
+     *
+     * @return the number of quads
+     */
+    public long quads() {
+        return quads.sum();
+    }
+
+    /**
+     * The time spent ingesting quads, measured once per run from the first quad
+     * ingested to the start of the run.
+     *
+     * @return the duration in nanoseconds
+     */
+    public long ingestNanos() {
+        return ingestNanos.sum();
+    }
+
+    /**
+     * The time spent computing first degree hashes and issuing identifiers to
+     * blank nodes with a unique first degree hash.
+     *
+     * @return the duration in nanoseconds
+     */
+    public long simpleIdsNanos() {
+        return simpleIdsNanos.sum();
+    }
+
+    /**
+     * The time spent computing N-degree hashes and issuing identifiers to the
+     * remaining blank nodes.
+     *
+     * @return the duration in nanoseconds
+     */
+    public long nDegreeIdsNanos() {
+        return nDegreeIdsNanos.sum();
+    }
+
+    /**
+     * The time spent relabeling and sorting the canonical quads.
+     *
+     * @return the duration in nanoseconds
+     */
+    public long canonQuadsNanos() {
+        return canonQuadsNanos.sum();
+    }
+
+    /**
+     * The number of computed first degree hashes.
+     *
+     * @return the number of hashes
+     */
+    public long firstDegreeHashes() {
+        return firstDegreeHashes.sum();
+    }
+
+    /**
+     * The number of computed related blank node hashes.
+     *
+     * @return the number of hashes
+     */
+    public long relatedHashes() {
+        return relatedHashes.sum();
+    }
+
+    /**
+     * The number of bytes passed to the message digest by the first degree,
+     * related and N-degree hashes.
+     *
+     * @return the number of bytes
+     */
+    public long bytesDigested() {
+        return bytesDigested.sum();
+    }
+
+    /**
+     * The number of permutations of related blank nodes generated by the
+     * N-degree hashing.
+     *
+     * @return the number of permutations
+     */
+    public long permutations() {
+        return permutations.sum();
+    }
+
+    /**
+     * The number of permutations abandoned early because they could not produce
+     * the chosen path.
+     *
+     * @return the number of pruned permutations
+     */
+    public long prunedPermutations() {
+        return prunedPermutations.sum();
+    }
+
+    /**
+     * The number of identifier issuer copies made by the N-degree hashing.
+     *
+     * @return the number of copies
+     */
+    public long issuerCopies() {
+        return issuerCopies.sum();
+    }
+
+    /**
+     * The maximal recursion depth of the N-degree hashing.
+     *
+     * @return the maximal depth, zero if no N-degree hash has been computed
+     */
+    public long maxDepth() {
+        return maxDepth.get();
+    }
+
+    /**
+     * The size of the largest group of blank nodes sharing a first degree hash.
+     *
+     * @return the maximal group size, zero if all the hashes have been unique
+     */
+    public long maxTiedGroup() {
+        return maxTiedGroup.get();
+    }
+
+    /**
+     * The number of runs computing the first degree hashes in parallel, as
+     * planned from the number of blank nodes and components.
+     *
+     * @return the number of runs
+     */
+    public long parallelFirstDegree() {
+        return parallelFirstDegree.sum();
+    }
+
+    /**
+     * The number of runs computing the first degree hashes sequentially.
+     *
+     * @return the number of runs
+     */
+    public long sequentialFirstDegree() {
+        return sequentialFirstDegree.sum();
+    }
+
+    /**
+     * The number of groups of tied blank nodes hashed in parallel by the
+     * N-degree hashing, as planned from the group size and the number of
+     * components the group spans.
+     *
+     * @return the number of groups
+     */
+    public long parallelGroups() {
+        return parallelGroups.sum();
+    }
+
+    /**
+     * The number of groups of tied blank nodes hashed sequentially.
+     *
+     * @return the number of groups
+     */
+    public long sequentialGroups() {
+        return sequentialGroups.sum();
+    }
+
+    /**
+     * Sets all the values to zero.
+     */
+    public void reset() {
+        runs.reset();
+        quads.reset();
+        ingestNanos.reset();
+        simpleIdsNanos.reset();
+        nDegreeIdsNanos.reset();
+        canonQuadsNanos.reset();
+        firstDegreeHashes.reset();
+        relatedHashes.reset();
+        bytesDigested.reset();
+        permutations.reset();
+        prunedPermutations.reset();
+        issuerCopies.reset();
+        maxDepth.reset();
+        maxTiedGroup.reset();
+        parallelFirstDegree.reset();
+        sequentialFirstDegree.reset();
+        parallelGroups.reset();
+        sequentialGroups.reset();
+    }
+
+    /**
+     * Get a snapshot of all the values, e.g. to export them to a monitoring
+     * system.
+     *
+     * @return a name to value map in a stable order
+     */
+    public Map<String, Long> toMap() {
+        final var map = new LinkedHashMap<String, Long>();
+        map.put("runs", runs());
+        map.put("quads", quads());
+        map.put("ingestNanos", ingestNanos());
+        map.put("simpleIdsNanos", simpleIdsNanos());
+        map.put("nDegreeIdsNanos", nDegreeIdsNanos());
+        map.put("canonQuadsNanos", canonQuadsNanos());
+        map.put("firstDegreeHashes", firstDegreeHashes());
+        map.put("relatedHashes", relatedHashes());
+        map.put("bytesDigested", bytesDigested());
+        map.put("permutations", permutations());
+        map.put("prunedPermutations", prunedPermutations());
+        map.put("issuerCopies", issuerCopies());
+        map.put("maxDepth", maxDepth());
+        map.put("maxTiedGroup", maxTiedGroup());
+        map.put("parallelFirstDegree", parallelFirstDegree());
+        map.put("sequentialFirstDegree", sequentialFirstDegree());
+        map.put("parallelGroups", parallelGroups());
+        map.put("sequentialGroups", sequentialGroups());
+        return map;
+    }
+
+    @Override
+    public String toString() {
+        return "RdfCanonMetrics" + toMap();
+    }
+
+    void run() {
+        runs.increment();
+    }
+
+    /**
+     * Records the quads ingested before a run.
+     *
+     * @param count the number of quads
+     * @param start the time the first quad has been ingested at
+     */
+    void ingested(final long count, final long start) {
+        quads.add(count);
+        ingestNanos.add(System.nanoTime() - start);
+    }
+
+    /**
+     * Records the duration of the simple identifiers phase.
+     *
+     * @param start the time the phase has started at
+     * @return the current time, the start of the next phase
+     */
+    long simpleIds(final long start) {
+        return elapsed(simpleIdsNanos, start);
+    }
+
+    long nDegreeIds(final long start) {
+        return elapsed(nDegreeIdsNanos, start);
+    }
+
+    long canonQuads(final long start) {
+        return elapsed(canonQuadsNanos, start);
+    }
+
+    void firstDegreeHash(final long bytes) {
+        firstDegreeHashes.increment();
+        bytesDigested.add(bytes);
+    }
+
+    void relatedHash(final long bytes) {
+        relatedHashes.increment();
+        bytesDigested.add(bytes);
+    }
+
+    void nDegreeHash(final long bytes, final int depth) {
+        bytesDigested.add(bytes);
+        maxDepth.accumulate(depth);
+    }
+
+    void permutation() {
+        permutations.increment();
+    }
+
+    void prunedPermutation() {
+        prunedPermutations.increment();
+    }
+
+    void issuerCopy() {
+        issuerCopies.increment();
+    }
+
+    void tiedGroup(final int size) {
+        maxTiedGroup.accumulate(size);
+    }
+
+    void firstDegree(final ExecutionPlanner.Strategy strategy) {
+        (strategy == ExecutionPlanner.Strategy.PARALLEL ? parallelFirstDegree : sequentialFirstDegree).increment();
+    }
+
+    void group(final ExecutionPlanner.Strategy strategy) {
+        (strategy == ExecutionPlanner.Strategy.PARALLEL ? parallelGroups : sequentialGroups).increment();
+    }
+
+    private static long elapsed(final LongAdder counter, final long start) {
+        final long now = System.nanoTime();
+        counter.add(now - start);
+        return now;
+    }
+}
@@ -0,0 +1,334 @@
+package com.apicatalog.rdf.canon;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.TreeSet;
+
+/**
+ * A profile attributing the cost of the Hash N-Degree Quads algorithm to
+ * individual blank nodes and groups of blank nodes sharing a first degree
+ * hash, e.g. to find the pathological structures of a slow dataset and report
+ * them to its producer.
+ * <p>
+ * A profile is attached to an {@link RdfCanon} instance and collects the
+ * groups and blank node searches of all the runs of the instance. Searches
+ * answered by {@link RdfCanonCache} or by the incremental mode are not
+ * recorded.
+ *
+ * <pre>{@code
+ * RdfCanonProfile profile = RdfCanonProfile.create();
+ *
+ * RdfCanon canon = RdfCanon.create("SHA-256").profile(profile);
+ * ...
+ * System.out.println(profile.report(10));
+ * }</pre>
+ */
+public final class RdfCanonProfile {
+
+    /** Orders by time spent, the most expensive first. */
+    private static final Comparator<Group> GROUP_ORDER = Comparator.comparingLong(Group::nanos).reversed()
+            .thenComparing(Group::hash);
+
+    /** Orders by time spent, the most expensive first. */
+    private static final Comparator<Search> SEARCH_ORDER = Comparator.comparingLong(Search::nanos).reversed()
+            .thenComparing(Search::blankNode);
+
+    private final List<Group> groups;
+    private final List<Search> searches;
+
+    private RdfCanonProfile() {
+        this.groups = new ArrayList<>();
+        this.searches = new ArrayList<>();
+    }
+
+    /**
+     * Creates a new empty profile.
+     *
+     * @return a new profile
+     */
+    public static RdfCanonProfile create() {
+        return new RdfCanonProfile();
+    }
+
+    /**
+     * Get the groups of tied blank nodes, the most expensive first.
+     *
+     * @return a new list of groups
+     */
+    public synchronized List<Group> groups() {
+        final var sorted = new ArrayList<>(groups);
+        sorted.sort(GROUP_ORDER);
+        return sorted;
+    }
+
+    /**
+     * Get the Hash N-Degree Quads searches of individual blank nodes, the most
+     * expensive first.
+     *
+     * @return a new list of searches
+     */
+    public synchronized List<Search> searches() {
+        final var sorted = new ArrayList<>(searches);
+        sorted.sort(SEARCH_ORDER);
+        return sorted;
+    }
+
+    /**
+     * Removes all the recorded groups and searches.
+     */
+    public synchronized void clear() {
+        groups.clear();
+        searches.clear();
+    }
+
+    /**
+     * Produces a human readable report of all the groups and searches, the most
+     * expensive first.
+     *
+     * @return the report
+     */
+    public String report() {
+        return report(Integer.MAX_VALUE);
+    }
+
+    /**
+     * Produces a human readable report of the most expensive groups and
+     * searches, naming the input blank node labels and the predicates of the
+     * quads they appear in.
+     *
+     * @param limit the maximal number of groups and searches to list
+     * @return the report
+     */
+    public String report(final int limit) {
+
+        final var groups = groups();
+        final var searches = searches();
+
+        final StringBuilder builder = new StringBuilder();
+
+        builder.append("RDFC-1.0 profile: ")
+                .append(groups.size()).append(" hash groups, ")
+                .append(searches.size()).append(" searches, ")
+                .append(searches.stream().mapToLong(Search::permutations).sum()).append(" permutations, ")
+                .append(millis(groups.stream().mapToLong(Group::nanos).sum()))
+                .append('\n');
+
+        builder.append("Hash groups:\n");
+        for (int i = 0; i < Math.min(limit, groups.size()); i++) {
+            final Group group = groups.get(i);
+            builder.append(String.format(Locale.ROOT, "%4d. %s, %d blank nodes, %d permutations, hash %s: %s%n",
+                    i + 1,
+                    millis(group.nanos()),
+                    group.blankNodes().size(),
+                    group.permutations(),
+                    group.hash(),
+                    String.join(", ", group.blankNodes())));
+        }
+
+        builder.append("Blank nodes:\n");
+        for (int i = 0; i < Math.min(limit, searches.size()); i++) {
+            final Search search = searches.get(i);
+            builder.append(String.format(Locale.ROOT,
+                    "%4d. %s %s, %d permutations, %d recursions, depth %d, largest related group %d, predicates: %s%n",
+                    i + 1,
+                    search.blankNode(),
+                    millis(search.nanos()),
+                    search.permutations(),
+                    search.recursions(),
+                    search.depth(),
+                    search.maxRelated(),
+                    String.join(", ", search.predicates())));
+        }
+
+        return builder.toString();
+    }
+
+    @Override
+    public String toString() {
+        return report(10);
+    }
+
+    synchronized void group(final String hash, final Collection<String> blankNodes, final long permutations,
+            final long nanos) {
+        groups.add(new Group(hash, List.copyOf(new TreeSet<>(blankNodes)), permutations, nanos));
+    }
+
+    void search(final String blankNode, final String hash, final Collection<Quad> related, final long permutations,
+            final long recursions, final int depth, final int maxRelated, final long nanos) {
+
+        final var predicates = new TreeSet<String>();
+        for (final Quad quad : related) {
+            predicates.add(quad.predicate);
+        }
+
+        final Search search = new Search(blankNode, hash, List.copyOf(predicates), permutations, recursions, depth,
+                maxRelated, nanos);
+
+        synchronized (this) {
+            searches.add(search);
+        }
+    }
+
+    private static String millis(final long nanos) {
+        return String.format(Locale.ROOT, "%.3f ms", nanos / 1_000_000d);
+    }
+
+    /**
+     * A group of blank nodes sharing a first degree hash, hashed by the Hash
+     * N-Degree Quads algorithm.
+     */
+    public static final class Group {
+
+        private final String hash;
+        private final List<String> blankNodes;
+        private final long permutations;
+        private final long nanos;
+
+        Group(String hash, List<String> blankNodes, long permutations, long nanos) {
+            this.hash = hash;
+            this.blankNodes = blankNodes;
+            this.permutations = permutations;
+            this.nanos = nanos;
+        }
+
+        /**
+         * The first degree hash shared by the blank nodes.
+         *
+         * @return the hash
+         */
+        public String hash() {
+            return hash;
+        }
+
+        /**
+         * The input labels of the blank nodes.
+         *
+         * @return an unmodifiable list of blank node identifiers
+         */
+        public List<String> blankNodes() {
+            return blankNodes;
+        }
+
+        /**
+         * The number of permutations explored by the searches of the group.
+         *
+         * @return the number of permutations
+         */
+        public long permutations() {
+            return permutations;
+        }
+
+        /**
+         * The time spent hashing the group and issuing the identifiers.
+         *
+         * @return the duration in nanoseconds
+         */
+        public long nanos() {
+            return nanos;
+        }
+    }
+
+    /**
+     * A Hash N-Degree Quads search started from a single blank node.
+     */
+    public static final class Search {
+
+        private final String blankNode;
+        private final String hash;
+        private final List<String> predicates;
+        private final long permutations;
+        private final long recursions;
+        private final int depth;
+        private final int maxRelated;
+        private final long nanos;
+
+        Search(String blankNode, String hash, List<String> predicates, long permutations, long recursions, int depth,
+                int maxRelated, long nanos) {
+            this.blankNode = blankNode;
+            this.hash = hash;
+            this.predicates = predicates;
+            this.permutations = permutations;
+            this.recursions = recursions;
+            this.depth = depth;
+            this.maxRelated = maxRelated;
+            this.nanos = nanos;
+        }
+
+        /**
+         * The input label of the blank node.
+         *
+         * @return the blank node identifier
+         */
+        public String blankNode() {
+            return blankNode;
+        }
+
+        /**
+         * The first degree hash of the blank node.
+         *
+         * @return the hash
+         */
+        public String hash() {
+            return hash;
+        }
+
+        /**
+         * The predicates of the quads the blank node appears in.
+         *
+         * @return an unmodifiable sorted list of predicates
+         */
+        public List<String> predicates() {
+            return predicates;
+        }
+
+        /**
+         * The number of permutations explored.
+         *
+         * @return the number of permutations
+         */
+        public long permutations() {
+            return permutations;
+        }
+
+        /**
+         * The number of recursive Hash N-Degree Quads calls, the fan-out of the
+         * search.
+         *
+         * @return the number of recursive calls
+         */
+        public long recursions() {
+            return recursions;
+        }
+
+        /**
+         * The maximal recursion depth.
+         *
+         * @return the depth, starting at one
+         */
+        public int depth() {
+            return depth;
+        }
+
+        /**
+         * The size of the largest group of related blank nodes sharing a hash,
+         * whose permutations have been explored.
+         *
+         * @return the group size
+         */
+        public int maxRelated() {
+            return maxRelated;
+        }
+
+        /**
+         * The time spent by the search.
+         *
+         * @return the duration in nanoseconds
+         */
+        public long nanos() {
+            return nanos;
+        }
+    }
+}
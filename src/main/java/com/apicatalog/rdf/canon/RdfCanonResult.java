@@ -0,0 +1,125 @@
+package com.apicatalog.rdf.canon;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.function.UnaryOperator;
+
+import com.apicatalog.rdf.api.RdfConsumerException;
+import com.apicatalog.rdf.api.RdfQuadConsumer;
+
+/**
+ * An immutable result of the RDF dataset canonicalization, detached from the
+ * {@link RdfCanon} instance which computed it.
+ */
+public final class RdfCanonResult {
+
+    /** The canonical quads in canonical order. */
+    private final List<Quad> quads;
+
+    /** The blank nodes mapping in canonical order. */
+    private final Map<String, String> mapping;
+
+    RdfCanonResult(Collection<Quad> quads, Map<String, String> mapping) {
+        this.quads = List.copyOf(quads);
+        this.mapping = Collections.unmodifiableMap(new LinkedHashMap<>(mapping));
+    }
+
+    /**
+     * Emits the canonical RDF quads to the given consumer.
+     *
+     * @param consumer the {@link RdfQuadConsumer} that will receive the canonical
+     *                 RDF quads
+     * @throws RdfConsumerException if an error occurs while processing or
+     *                              consuming RDF quads
+     */
+    public void provide(final RdfQuadConsumer consumer) throws RdfConsumerException {
+        for (final var quad : quads) {
+            consumer.quad(quad.subject(), quad.predicate, quad.object(), quad.datatype, quad.language, quad.direction,
+                    quad.graph());
+        }
+    }
+
+    /**
+     * Emits the canonical RDF N-Quads to the given consumer.
+     *
+     * @param consumer the consumer that will receive the canonical RDF N-Quads
+     */
+    public void provide(final Consumer<String> consumer) {
+        quads.forEach(quad -> consumer.accept(quad.nquad));
+    }
+
+    /**
+     * Hashes the canonical N-Quads, e.g. to compare or sign the dataset.
+     *
+     * @param digest the digest to hash with
+     * @return the hash in hexadecimal
+     */
+    public String digest(final MessageDigest digest) {
+        digest.reset();
+        for (final var quad : quads) {
+            digest.update(quad.nquad.getBytes(StandardCharsets.UTF_8));
+        }
+        return RdfCanon.hex(digest.digest());
+    }
+
+    /**
+     * Get the blank nodes mapping, an input blank node identifier to a canonical
+     * one, in the order in which the canonical identifiers have been issued.
+     *
+     * @return an unmodifiable mapping table
+     */
+    public Map<String, String> mapping() {
+        return mapping;
+    }
+
+    /**
+     * Relabels the canonical blank nodes, e.g. by an HMAC based label map used
+     * by selective disclosure, and sorts the relabeled quads, so subsets of the
+     * quads can be derived without another canonicalization.
+     *
+     * @param labels maps a canonical blank node identifier, e.g.
+     *               {@code _:c14n0}, to a new one, e.g. {@code _:u3hu...}
+     * @return the relabeled quads
+     */
+    public RdfCanonDerivation relabel(final UnaryOperator<String> labels) {
+        return new RdfCanonDerivation(quads, labels);
+    }
+
+    /**
+     * Relabels the canonical blank nodes by the given label map.
+     *
+     * @param labels a canonical blank node identifier, e.g. {@code _:c14n0}, to
+     *               a new one
+     * @return the relabeled quads
+     * @throws IllegalArgumentException if a canonical blank node is not mapped
+     * @see #relabel(UnaryOperator)
+     */
+    public RdfCanonDerivation relabel(final Map<String, String> labels) {
+        return relabel(label -> {
+            final String relabeled = labels.get(label);
+            if (relabeled == null) {
+                throw new IllegalArgumentException("The label map has no entry for [" + label + "].");
+            }
+            return relabeled;
+        });
+    }
+
+    List<Quad> quads() {
+        return quads;
+    }
+
+    /**
+     * Get the number of canonical quads.
+     *
+     * @return the number of quads
+     */
+    public int size() {
+        return quads.size();
+    }
+}
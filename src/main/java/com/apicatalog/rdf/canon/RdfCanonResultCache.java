@@ -0,0 +1,215 @@
+package com.apicatalog.rdf.canon;
+
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * A bounded, thread-safe cache of whole canonicalization results shared across
+ * {@link RdfCanon} runs.
+ * <p>
+ * An entry is keyed by an order-independent fingerprint of the input quads
+ * computed while the quads are ingested, so the same dataset received in a
+ * different quad order is a hit. On a hit {@link RdfCanon} provides the stored
+ * canonical output and {@link RdfCanon#mapping()} without canonicalizing the
+ * dataset again. Blank node labels are part of the input, a relabeled dataset
+ * is a different entry.
+ * <p>
+ * Entries are evicted in the least recently used order to keep both the number
+ * of entries and their estimated memory weight bounded, and expire after the
+ * given time to live.
+ *
+ * <pre>{@code
+ * RdfCanonResultCache cache = RdfCanonResultCache.create(1_000, 64 * 1024 * 1024, Duration.ofMinutes(10));
+ *
+ * RdfCanon canon = RdfCanon.create("SHA-256").resultCache(cache);
+ * }</pre>
+ */
+public final class RdfCanonResultCache {
+
+    /** An estimated fixed overhead of an entry and a quad in bytes. */
+    private static final int ENTRY_OVERHEAD = 128;
+
+    private final int maxEntries;
+    private final long maxWeight;
+    private final long ttlNanos;
+
+    private final LinkedHashMap<String, Entry> entries;
+
+    private long weight;
+
+    private long hits;
+    private long misses;
+    private long evictions;
+    private long expirations;
+
+    private RdfCanonResultCache(final int maxEntries, final long maxWeight, final long ttlNanos) {
+        this.maxEntries = maxEntries;
+        this.maxWeight = maxWeight;
+        this.ttlNanos = ttlNanos;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true);
+    }
+
+    /**
+     * Creates a new cache.
+     *
+     * @param maxEntries the maximal number of entries, must be positive
+     * @param maxWeight  the maximal estimated memory weight of all the entries in
+     *                   bytes, must be positive
+     * @param ttl        the time an entry is valid after it has been stored, must
+     *                   be positive
+     * @return a new cache instance
+     * @throws IllegalArgumentException if a limit is not positive
+     */
+    public static RdfCanonResultCache create(final int maxEntries, final long maxWeight, final Duration ttl) {
+        if (maxEntries <= 0) {
+            throw new IllegalArgumentException("Maximum number of entries must be positive but was " + maxEntries + ".");
+        }
+        if (maxWeight <= 0) {
+            throw new IllegalArgumentException("Maximum weight must be positive but was " + maxWeight + ".");
+        }
+        if (ttl.isNegative() || ttl.isZero()) {
+            throw new IllegalArgumentException("Time to live must be positive but was " + ttl + ".");
+        }
+        return new RdfCanonResultCache(maxEntries, maxWeight, ttl.toNanos());
+    }
+
+    synchronized RdfCanonResult get(final String fingerprint) {
+        final Entry entry = entries.get(fingerprint);
+
+        if (entry == null) {
+            misses++;
+            return null;
+        }
+
+        if (System.nanoTime() - entry.created > ttlNanos) {
+            remove(fingerprint, entry);
+            expirations++;
+            misses++;
+            return null;
+        }
+
+        hits++;
+        return entry.result;
+    }
+
+    synchronized void put(final String fingerprint, final RdfCanonResult result) {
+
+        final long entryWeight = weigh(fingerprint, result);
+
+        if (entryWeight > maxWeight) {
+            // never fits
+            return;
+        }
+
+        final Entry previous = entries.put(fingerprint, new Entry(result, entryWeight, System.nanoTime()));
+        if (previous != null) {
+            weight -= previous.weight;
+        }
+        weight += entryWeight;
+
+        final Iterator<Map.Entry<String, Entry>> iterator = entries.entrySet().iterator();
+        while ((weight > maxWeight || entries.size() > maxEntries) && iterator.hasNext()) {
+            final Map.Entry<String, Entry> eldest = iterator.next();
+            weight -= eldest.getValue().weight;
+            iterator.remove();
+            evictions++;
+        }
+    }
+
+    private void remove(final String fingerprint, final Entry entry) {
+        entries.remove(fingerprint);
+        weight -= entry.weight;
+    }
+
+    static long weigh(final String fingerprint, final RdfCanonResult result) {
+        long bytes = ENTRY_OVERHEAD + 2L * fingerprint.length();
+        for (final Quad quad : result.quads()) {
+            bytes += ENTRY_OVERHEAD + 2L * quad.nquad.length();
+        }
+        for (final var mapping : result.mapping().entrySet()) {
+            bytes += ENTRY_OVERHEAD + 2L * (mapping.getKey().length() + mapping.getValue().length());
+        }
+        return bytes;
+    }
+
+    /**
+     * Get the number of lookups which found a valid entry.
+     *
+     * @return the number of hits
+     */
+    public synchronized long hits() {
+        return hits;
+    }
+
+    /**
+     * Get the number of lookups which did not find a valid entry.
+     *
+     * @return the number of misses
+     */
+    public synchronized long misses() {
+        return misses;
+    }
+
+    /**
+     * Get the number of entries evicted to keep the cache bounded.
+     *
+     * @return the number of evictions
+     */
+    public synchronized long evictions() {
+        return evictions;
+    }
+
+    /**
+     * Get the number of entries removed because their time to live elapsed.
+     *
+     * @return the number of expirations
+     */
+    public synchronized long expirations() {
+        return expirations;
+    }
+
+    /**
+     * Get the number of cached entries, including expired ones not removed yet.
+     *
+     * @return the number of entries
+     */
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    /**
+     * Get the estimated memory weight of all the cached entries in bytes.
+     *
+     * @return the total weight
+     */
+    public synchronized long weight() {
+        return weight;
+    }
+
+    /**
+     * Removes all the entries and resets the counters.
+     */
+    public synchronized void clear() {
+        entries.clear();
+        weight = 0;
+        hits = 0;
+        misses = 0;
+        evictions = 0;
+        expirations = 0;
+    }
+
+    private static final class Entry {
+
+        final RdfCanonResult result;
+        final long weight;
+        final long created;
+
+        Entry(RdfCanonResult result, long weight, long created) {
+            this.result = result;
+            this.weight = weight;
+            this.created = created;
+        }
+    }
+}
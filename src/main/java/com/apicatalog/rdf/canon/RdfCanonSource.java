@@ -0,0 +1,26 @@
+package com.apicatalog.rdf.canon;
+
+import com.apicatalog.rdf.api.RdfConsumerException;
+import com.apicatalog.rdf.api.RdfQuadConsumer;
+
+/**
+ * A source of an RDF dataset to be canonicalized, e.g. an N-Quads reader.
+ *
+ * <pre>{@code
+ * RdfCanonSource<NQuadsReaderException> source = consumer -> new NQuadsReader(reader).provide(consumer);
+ * }</pre>
+ *
+ * @param <E> the type of exception thrown when the dataset cannot be read
+ */
+@FunctionalInterface
+public interface RdfCanonSource<E extends Exception> {
+
+    /**
+     * Emits all the quads of the dataset to the given consumer.
+     *
+     * @param consumer the consumer receiving the dataset quads
+     * @throws E                    if the dataset cannot be read
+     * @throws RdfConsumerException if the consumer rejects a quad
+     */
+    void provide(RdfQuadConsumer consumer) throws E, RdfConsumerException;
+}
@@ -35,4 +35,47 @@ public interface RdfCanonTicker {
      *                               aborted.
      */
     void tick() throws IllegalStateException;
+
+    /**
+     * Called when a unit of typed work is done, e.g. a permutation is generated
+     * or a hash is computed, so implementations can enforce separate limits.
+     * <p>
+     * A permutation and a recursion are reported instead of a {@link #tick()},
+     * while the ingested quads and the hashes are reported in addition to the
+     * ticks of the enclosing loops. The default implementation therefore calls
+     * {@link #tick()} only for {@link Work#PERMUTATION} and
+     * {@link Work#RECURSION}, so existing tickers are called once per unit of
+     * work and are not affected by the ingestion.
+     *
+     * @param work  the type of work done
+     * @param units the amount of work, see {@link Work}
+     * @throws IllegalStateException if the canonicalization process should be
+     *                               aborted.
+     */
+    default void tick(Work work, long units) throws IllegalStateException {
+        if (work == Work.PERMUTATION || work == Work.RECURSION) {
+            tick();
+        }
+    }
+
+    /**
+     * A type of work reported by {@link RdfCanonTicker#tick(Work, long)}.
+     */
+    enum Work {
+
+        /** Quads have been ingested, units are the number of quads. */
+        QUAD,
+
+        /** A hash has been computed, units are the number of digested bytes. */
+        HASH,
+
+        /** A permutation has been generated, units are the number of permutations. */
+        PERMUTATION,
+
+        /**
+         * A recursive Hash N-Degree Quads call has been entered, units are the
+         * recursion depth.
+         */
+        RECURSION,
+    }
 }
\ No newline at end of file
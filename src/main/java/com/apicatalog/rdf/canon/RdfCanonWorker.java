@@ -0,0 +1,106 @@
+package com.apicatalog.rdf.canon;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.FileDescriptor;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+/**
+ * A worker executing canonicalization work units sent by a coordinator, i.e.
+ * an {@link RdfCanon} instance configured by
+ * {@link RdfCanon#workers(RdfCanonWorkers)}.
+ * <p>
+ * A unit is a self-contained, serialized, part of the canonicalization, e.g.
+ * the first degree hashing of a few blank node components or the Hash
+ * N-Degree Quads of the tied blank nodes of a component. Units can be carried
+ * by any transport, e.g. as request bodies, and executed by
+ * {@link #execute(byte[])}. The {@link #main(String[])} method serves units
+ * framed by their length over the standard input and output, which is how
+ * {@link RdfCanonWorkers#processes(int)} talks to local worker processes.
+ *
+ * <pre>{@code
+ * java -cp titanium-rdfc.jar:... com.apicatalog.rdf.canon.RdfCanonWorker
+ * }</pre>
+ */
+public final class RdfCanonWorker {
+
+    /** The maximal length of a frame, a longer one is not allocated. */
+    static final int MAX_FRAME_LENGTH = 256 * 1024 * 1024;
+
+    private RdfCanonWorker() {
+    }
+
+    /**
+     * Serves work units over the standard input and output until the input is
+     * closed.
+     *
+     * @param args ignored
+     * @throws IOException if the units cannot be read or the results written
+     */
+    public static void main(String[] args) throws IOException {
+        final OutputStream out = new FileOutputStream(FileDescriptor.out);
+        // nothing else must be written to the results stream
+        System.setOut(System.err);
+        serve(System.in, out);
+    }
+
+    /**
+     * Serves work units framed by their length until the input is closed. A
+     * frame longer than 256 MiB is rejected.
+     *
+     * @param is the stream to read units from
+     * @param os the stream to write results to
+     * @throws IOException if the units cannot be read or the results written
+     */
+    public static void serve(final InputStream is, final OutputStream os) throws IOException {
+
+        final var in = new DataInputStream(new BufferedInputStream(is));
+        final var out = new DataOutputStream(new BufferedOutputStream(os));
+
+        while (true) {
+            final byte[] unit;
+            try {
+                unit = read(in);
+            } catch (EOFException e) {
+                return;
+            }
+            write(out, execute(unit));
+        }
+    }
+
+    /**
+     * Executes a single work unit. Errors are reported in the result and raised
+     * by the coordinator.
+     *
+     * @param unit the serialized unit
+     * @return the serialized result
+     */
+    public static byte[] execute(final byte[] unit) {
+        return WorkUnit.execute(unit);
+    }
+
+    static byte[] read(final DataInputStream in) throws IOException {
+        final byte[] frame = new byte[length(in.readInt())];
+        in.readFully(frame);
+        return frame;
+    }
+
+    static void write(final DataOutputStream out, final byte[] frame) throws IOException {
+        out.writeInt(length(frame.length));
+        out.write(frame);
+        out.flush();
+    }
+
+    private static int length(final int length) throws IOException {
+        if (length < 0 || length > MAX_FRAME_LENGTH) {
+            throw new IOException("Invalid frame length " + length + ", expected at most " + MAX_FRAME_LENGTH + ".");
+        }
+        return length;
+    }
+}
@@ -0,0 +1,265 @@
+package com.apicatalog.rdf.canon;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A set of workers the canonicalization work units are distributed to, e.g.
+ * local processes started by {@link #processes(int)} or remote nodes reached
+ * by a custom {@link Transport}.
+ * <p>
+ * Each worker executes a single unit at a time, units are dispatched to idle
+ * workers as they become available. A worker whose transport fails is closed
+ * and receives no more units. An instance can be shared by many
+ * {@link RdfCanon} instances and should be closed to stop the workers.
+ *
+ * <pre>{@code
+ * try (RdfCanonWorkers workers = RdfCanonWorkers.processes(4)) {
+ *     RdfCanon canon = RdfCanon.create("SHA-256").workers(workers);
+ *     ...
+ * }
+ * }</pre>
+ */
+public final class RdfCanonWorkers implements AutoCloseable {
+
+    /**
+     * A connection to a single worker.
+     */
+    @FunctionalInterface
+    public interface Transport extends Closeable {
+
+        /**
+         * Sends a work unit to the worker and waits for the result, e.g. passes
+         * the unit to {@link RdfCanonWorker#execute(byte[])} on a remote node.
+         *
+         * @param unit the serialized unit
+         * @return the serialized result
+         * @throws IOException if the worker cannot be reached
+         */
+        byte[] send(byte[] unit) throws IOException;
+
+        @Override
+        default void close() throws IOException {
+        }
+    }
+
+    /** Takes the place of the workers once all of them have failed. */
+    private static final Transport FAILED = unit -> {
+        throw new IOException("All the workers have failed.");
+    };
+
+    private final List<Transport> transports;
+
+    private final BlockingQueue<Transport> idle;
+
+    /** The number of workers which have not failed. */
+    private final AtomicInteger live;
+
+    private RdfCanonWorkers(final List<Transport> transports) {
+        this.transports = transports;
+        this.idle = new ArrayBlockingQueue<>(transports.size(), false, transports);
+        this.live = new AtomicInteger(transports.size());
+    }
+
+    /**
+     * Creates a new set of workers reached by the given transports.
+     *
+     * @param transports the transports, one per worker
+     * @return a new set of workers
+     * @throws IllegalArgumentException if there is no transport
+     */
+    public static RdfCanonWorkers of(final Collection<? extends Transport> transports) {
+        if (transports.isEmpty()) {
+            throw new IllegalArgumentException("At least one worker transport is required.");
+        }
+        return new RdfCanonWorkers(List.copyOf(transports));
+    }
+
+    /**
+     * Starts the given number of local worker processes running
+     * {@link RdfCanonWorker} with the class path of the current process.
+     *
+     * @param count the number of processes, must be positive
+     * @return a new set of workers
+     * @throws IOException              if a process cannot be started
+     * @throws IllegalArgumentException if {@code count} is not positive
+     */
+    public static RdfCanonWorkers processes(final int count) throws IOException {
+        if (count <= 0) {
+            throw new IllegalArgumentException("Number of processes must be positive but was " + count + ".");
+        }
+
+        final String java = Path.of(System.getProperty("java.home"), "bin", "java").toString();
+
+        final var transports = new ArrayList<Transport>(count);
+        try {
+            for (int i = 0; i < count; i++) {
+                transports.add(new ProcessTransport(new ProcessBuilder(
+                        java,
+                        "-cp", System.getProperty("java.class.path"),
+                        RdfCanonWorker.class.getName())
+                        .redirectError(ProcessBuilder.Redirect.INHERIT)
+                        .start()));
+            }
+        } catch (IOException e) {
+            for (final Transport transport : transports) {
+                transport.close();
+            }
+            throw e;
+        }
+        return new RdfCanonWorkers(transports);
+    }
+
+    /**
+     * The number of workers, including the failed ones.
+     *
+     * @return the number of workers
+     */
+    public int size() {
+        return transports.size();
+    }
+
+    /**
+     * Stops all the workers.
+     *
+     * @throws IOException if a worker cannot be stopped
+     */
+    @Override
+    public void close() throws IOException {
+        IOException exception = null;
+        for (final Transport transport : transports) {
+            try {
+                transport.close();
+            } catch (IOException e) {
+                exception = e;
+            }
+        }
+        if (exception != null) {
+            throw exception;
+        }
+    }
+
+    /**
+     * Executes the given units on idle workers.
+     *
+     * @param units the serialized units
+     * @return the serialized results in the order of the units
+     * @throws UncheckedIOException  if a worker cannot be reached
+     * @throws IllegalStateException if the current thread is interrupted
+     */
+    List<byte[]> execute(final List<byte[]> units) {
+
+        final var futures = new ArrayList<CompletableFuture<byte[]>>(units.size());
+
+        for (final byte[] unit : units) {
+            futures.add(CompletableFuture.supplyAsync(() -> send(unit), RdfCanon.VIRTUAL_THREADS));
+        }
+
+        final var results = new ArrayList<byte[]>(units.size());
+        try {
+            for (final var future : futures) {
+                results.add(future.join());
+            }
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw e;
+        }
+        return results;
+    }
+
+    private byte[] send(final byte[] unit) {
+        final Transport transport;
+        try {
+            transport = idle.take();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Canonicalization has been interrupted.", e);
+        }
+        try {
+            final byte[] result = transport.send(unit);
+            idle.add(transport);
+            return result;
+
+        } catch (IOException e) {
+            if (transport == FAILED) {
+                idle.add(transport);
+            } else {
+                discard(transport, e);
+            }
+            throw new UncheckedIOException(e);
+
+        } catch (RuntimeException | Error e) {
+            discard(transport, e);
+            throw e;
+        }
+    }
+
+    /**
+     * Closes a worker whose frames may be out of sync, e.g. a dead process,
+     * instead of sending it more units.
+     */
+    private void discard(final Transport transport, final Throwable failure) {
+        try {
+            transport.close();
+        } catch (IOException e) {
+            failure.addSuppressed(e);
+        }
+        if (live.decrementAndGet() == 0) {
+            // wakes up the units waiting for a worker
+            idle.add(FAILED);
+        }
+    }
+
+    /**
+     * Talks to a local worker process over its standard input and output.
+     */
+    private static final class ProcessTransport implements Transport {
+
+        private final Process process;
+        private final DataInputStream in;
+        private final DataOutputStream out;
+
+        ProcessTransport(final Process process) {
+            this.process = process;
+            this.in = new DataInputStream(new BufferedInputStream(process.getInputStream()));
+            this.out = new DataOutputStream(new BufferedOutputStream(process.getOutputStream()));
+        }
+
+        @Override
+        public synchronized byte[] send(final byte[] unit) throws IOException {
+            RdfCanonWorker.write(out, unit);
+            return RdfCanonWorker.read(in);
+        }
+
+        @Override
+        public void close() throws IOException {
+            // the worker exits once its input is closed
+            out.close();
+            try {
+                if (!process.waitFor(5, TimeUnit.SECONDS)) {
+                    process.destroyForcibly();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                process.destroyForcibly();
+            }
+        }
+    }
+}
@@ -0,0 +1,299 @@
+package com.apicatalog.rdf.canon;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.Supplier;
+
+import com.apicatalog.rdf.api.RdfConsumerException;
+
+/**
+ * An immutable, thread-safe factory canonicalizing RDF datasets, configured
+ * once with a hash algorithm and limits.
+ * <p>
+ * Unlike {@link RdfCanon}, which is single-use, the canonicalizer can be
+ * shared and called concurrently. Each call leases pooled per-run state (a
+ * message digest, output buffers, maps and identifier issuers) which is
+ * cleared and returned to the pool afterwards, so canonicalizing many small
+ * datasets does not allocate a new set of collections per call.
+ *
+ * <pre>{@code
+ * RdfCanonicalizer canonicalizer = RdfCanonicalizer.create("SHA-256", () -> new RdfCanonTimeTicker(1000));
+ *
+ * RdfCanonResult result = canonicalizer.canonize(consumer -> new NQuadsReader(reader).provide(consumer));
+ * }</pre>
+ */
+public final class RdfCanonicalizer {
+
+    /**
+     * Datasets with more quads than this are not returned to the pool, so a
+     * single huge run does not pin its grown scratch state in memory.
+     */
+    static final int MAX_POOLED_QUADS = 10_000;
+
+    private final String hashAlgorithm;
+
+    private final Supplier<RdfCanonTicker> tickers;
+
+    private final BlockingQueue<RdfCanon> pool;
+
+    /** A shared metrics recorder, {@code null} if disabled. */
+    private final RdfCanonMetrics metrics;
+
+    private RdfCanonicalizer(String hashAlgorithm, Supplier<RdfCanonTicker> tickers, int poolSize,
+            RdfCanonMetrics metrics) {
+        this.hashAlgorithm = hashAlgorithm;
+        this.tickers = tickers;
+        this.pool = new ArrayBlockingQueue<>(poolSize);
+        this.metrics = metrics;
+    }
+
+    /**
+     * Creates a new canonicalizer using the specified hash algorithm, e.g.
+     * {@code SHA-256} or {@code SHA-384}, with no limits.
+     *
+     * @param hashAlgorithm the name of the hash algorithm to use
+     * @return a new canonicalizer instance
+     * @throws IllegalStateException if {@code hashAlgorithm} is not available
+     */
+    public static RdfCanonicalizer create(String hashAlgorithm) {
+        return create(hashAlgorithm, () -> RdfCanonTicker.EMPTY);
+    }
+
+    /**
+     * Creates a new canonicalizer using the specified hash algorithm, e.g.
+     * {@code SHA-256} or {@code SHA-384}, and limits.
+     * <p>
+     * The {@code tickers} supplier is called once per canonicalization and must
+     * return a fresh {@link RdfCanonTicker}, since tickers such as
+     * {@link RdfCanonTimeTicker} keep per-run state.
+     *
+     * @param hashAlgorithm the name of the hash algorithm to use
+     * @param tickers       a supplier of a new ticker for each run
+     * @return a new canonicalizer instance
+     * @throws IllegalStateException if {@code hashAlgorithm} is not available
+     */
+    public static RdfCanonicalizer create(String hashAlgorithm, Supplier<RdfCanonTicker> tickers) {
+        return create(hashAlgorithm, tickers, 2 * Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Creates a new canonicalizer using the specified hash algorithm, limits and
+     * the maximal number of pooled per-run states.
+     *
+     * @param hashAlgorithm the name of the hash algorithm to use
+     * @param tickers       a supplier of a new ticker for each run
+     * @param poolSize      the maximal number of idle per-run states kept for
+     *                      reuse, must be positive
+     * @return a new canonicalizer instance
+     * @throws IllegalStateException    if {@code hashAlgorithm} is not available
+     * @throws IllegalArgumentException if {@code poolSize} is not positive
+     */
+    public static RdfCanonicalizer create(String hashAlgorithm, Supplier<RdfCanonTicker> tickers, int poolSize) {
+        return create(hashAlgorithm, tickers, poolSize, null);
+    }
+
+    /**
+     * Creates a new canonicalizer using the specified hash algorithm, limits, the
+     * maximal number of pooled per-run states and a metrics recorder shared by
+     * all the runs.
+     *
+     * @param hashAlgorithm the name of the hash algorithm to use
+     * @param tickers       a supplier of a new ticker for each run
+     * @param poolSize      the maximal number of idle per-run states kept for
+     *                      reuse, must be positive
+     * @param metrics       a recorder of the canonicalization metrics or
+     *                      {@code null} to record nothing
+     * @return a new canonicalizer instance
+     * @throws IllegalStateException    if {@code hashAlgorithm} is not available
+     * @throws IllegalArgumentException if {@code poolSize} is not positive
+     */
+    public static RdfCanonicalizer create(String hashAlgorithm, Supplier<RdfCanonTicker> tickers, int poolSize,
+            RdfCanonMetrics metrics) {
+        Objects.requireNonNull(tickers);
+
+        if (poolSize <= 0) {
+            throw new IllegalArgumentException("Pool size must be positive but was " + poolSize + ".");
+        }
+
+        final var canonicalizer = new RdfCanonicalizer(hashAlgorithm, tickers, poolSize, metrics);
+
+        // fail fast and warm up the pool with the first instance
+        canonicalizer.pool.offer(canonicalizer.newCanon());
+
+        return canonicalizer;
+    }
+
+    /**
+     * Canonicalizes the dataset emitted by the given source.
+     *
+     * @param <E>    the type of exception thrown by the source
+     * @param source the source of the dataset to canonicalize
+     * @return an immutable canonicalization result
+     * @throws E                     if the source fails to emit the dataset
+     * @throws RdfConsumerException  if an error occurs while consuming RDF quads
+     * @throws IllegalStateException if the computation is terminated prematurely
+     */
+    public <E extends Exception> RdfCanonResult canonize(RdfCanonSource<E> source) throws E, RdfConsumerException {
+
+        final RdfCanon canon = lease();
+
+        try {
+            source.provide(canon);
+            return canon.lastResult();
+
+        } finally {
+            release(canon);
+        }
+    }
+
+    /**
+     * Canonicalizes many independent datasets using the common fork-join pool.
+     *
+     * @param sources the datasets to canonicalize
+     * @return the outcomes in the input order
+     * @see #canonizeAll(List, ForkJoinPool)
+     */
+    public List<RdfCanonBatchResult> canonizeAll(List<? extends RdfCanonSource<?>> sources) {
+        return canonizeAll(sources, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Canonicalizes many independent datasets across the given work-stealing
+     * pool.
+     * <p>
+     * The input is split into chunks, each worker leases a single per-run state
+     * and reuses it for all the datasets of a chunk. A failure, e.g. a ticker
+     * abort or a malformed dataset, is reported by the corresponding
+     * {@link RdfCanonBatchResult} and does not fail the whole batch.
+     *
+     * @param sources the datasets to canonicalize
+     * @param pool    the pool to run the canonicalization on
+     * @return the outcomes in the input order
+     */
+    public List<RdfCanonBatchResult> canonizeAll(List<? extends RdfCanonSource<?>> sources, ForkJoinPool pool) {
+
+        final var results = new RdfCanonBatchResult[sources.size()];
+
+        if (results.length > 0) {
+            final int chunk = Math.max(1, results.length / (4 * pool.getParallelism()));
+            pool.invoke(new BatchTask(sources, results, 0, results.length, chunk));
+        }
+
+        return Arrays.asList(results);
+    }
+
+    /**
+     * Get the name of the hash algorithm used by this canonicalizer.
+     *
+     * @return the hash algorithm name
+     */
+    public String hashAlgorithm() {
+        return hashAlgorithm;
+    }
+
+    RdfCanon lease() {
+        RdfCanon canon = pool.poll();
+        if (canon == null) {
+            canon = newCanon();
+        }
+        canon.ticker(tickers.get());
+        return canon;
+    }
+
+    void release(RdfCanon canon) {
+        final boolean reusable = canon.size() <= MAX_POOLED_QUADS;
+        canon.reset();
+        if (reusable) {
+            pool.offer(canon);
+        }
+    }
+
+    /**
+     * Returns the given instance cleared for the next dataset, or a newly leased
+     * one if the instance has grown too large to be kept.
+     */
+    private RdfCanon recycle(RdfCanon canon) {
+        if (canon.size() > MAX_POOLED_QUADS) {
+            canon.reset();
+            return lease();
+        }
+        canon.reset();
+        canon.ticker(tickers.get());
+        return canon;
+    }
+
+    /**
+     * Canonicalizes a single dataset of a batch using the given leased instance.
+     */
+    private static RdfCanonBatchResult canonize(RdfCanon canon, RdfCanonSource<?> source, int index) {
+        try {
+            source.provide(canon);
+            return RdfCanonBatchResult.success(index, canon.lastResult());
+
+        } catch (Exception e) {
+            return RdfCanonBatchResult.failure(index, e);
+        }
+    }
+
+    private RdfCanon newCanon() {
+        try {
+            final var canon = RdfCanon.newInstance(new LinkedHashSet<>(), MessageDigest.getInstance(hashAlgorithm),
+                    RdfCanonTicker.EMPTY);
+            canon.metrics(metrics);
+            return canon;
+
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(hashAlgorithm + " is not available", e);
+        }
+    }
+
+    private final class BatchTask extends RecursiveAction {
+
+        private static final long serialVersionUID = 1L;
+
+        private final transient List<? extends RdfCanonSource<?>> sources;
+        private final transient RdfCanonBatchResult[] results;
+        private final int from;
+        private final int to;
+        private final int chunk;
+
+        BatchTask(List<? extends RdfCanonSource<?>> sources, RdfCanonBatchResult[] results, int from, int to,
+                int chunk) {
+            this.sources = sources;
+            this.results = results;
+            this.from = from;
+            this.to = to;
+            this.chunk = chunk;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from > chunk) {
+                final int middle = (from + to) >>> 1;
+                invokeAll(new BatchTask(sources, results, from, middle, chunk),
+                        new BatchTask(sources, results, middle, to, chunk));
+                return;
+            }
+
+            RdfCanon canon = lease();
+            try {
+                for (int index = from; index < to; index++) {
+                    if (index > from) {
+                        canon = recycle(canon);
+                    }
+                    results[index] = canonize(canon, sources.get(index), index);
+                }
+            } finally {
+                release(canon);
+            }
+        }
+    }
+}
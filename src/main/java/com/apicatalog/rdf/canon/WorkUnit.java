@@ -0,0 +1,331 @@
+package com.apicatalog.rdf.canon;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.apicatalog.rdf.canon.RdfCanonTicker.Work;
+
+/**
+ * Serializable work units sent by a coordinator to {@link RdfCanonWorker}
+ * processes, and their results.
+ * <p>
+ * A unit carries all the quads of one or more blank node components, so a
+ * worker rebuilds the components and computes the hashes exactly as the
+ * coordinator would. A first degree unit returns the first degree hashes of
+ * the requested blank nodes. An N-degree unit carries also the first degree
+ * hashes and the canonical identifiers issued so far, and returns the Hash
+ * N-Degree Quads results of the requested tied blank nodes, i.e. their hashes
+ * and the relative labelings merged by the coordinator in the canonical
+ * order.
+ * <p>
+ * A unit carries also the rest of the coordinator's
+ * {@link RdfCanonBudgetTicker} budget, enforced by the worker, and a result
+ * reports the work done, charged to the coordinator's ticker.
+ */
+final class WorkUnit {
+
+    static final byte FIRST_DEGREE = 1;
+    static final byte N_DEGREE = 2;
+
+    private static final byte OK = 0;
+    private static final byte ERROR = 1;
+    private static final byte ABORTED = 2;
+
+    private WorkUnit() {
+    }
+
+    /**
+     * Encodes a first degree unit.
+     *
+     * @param algorithm the hash algorithm name
+     * @param ticker    the coordinator's ticker
+     * @param quads     the quads of the components
+     * @param ids       the blank nodes to hash
+     * @return the encoded unit
+     */
+    static byte[] firstDegree(final String algorithm, final RdfCanonTicker ticker, final Collection<Quad> quads,
+            final Collection<String> ids) {
+        return encode(out -> {
+            out.writeByte(FIRST_DEGREE);
+            writeString(out, algorithm);
+            writeBudget(out, ticker);
+            writeQuads(out, quads);
+            writeStrings(out, ids);
+        });
+    }
+
+    /**
+     * Encodes an N-degree unit.
+     *
+     * @param algorithm the hash algorithm name
+     * @param ticker    the coordinator's ticker
+     * @param quads     the quads of the components
+     * @param hashes    the first degree hashes of all the blank nodes of the
+     *                  components
+     * @param issued    the canonical identifiers issued to the blank nodes of the
+     *                  components
+     * @param ids       the tied blank nodes to hash
+     * @return the encoded unit
+     */
+    static byte[] nDegree(final String algorithm, final RdfCanonTicker ticker, final Collection<Quad> quads,
+            final Map<String, String> hashes, final Map<String, String> issued, final Collection<String> ids) {
+        return encode(out -> {
+            out.writeByte(N_DEGREE);
+            writeString(out, algorithm);
+            writeBudget(out, ticker);
+            writeQuads(out, quads);
+            writeMap(out, hashes);
+            writeMap(out, issued);
+            writeStrings(out, ids);
+        });
+    }
+
+    /**
+     * Executes an encoded unit. Errors are encoded in the result, so a worker
+     * keeps serving the following units.
+     *
+     * @param unit the encoded unit
+     * @return the encoded result
+     */
+    static byte[] execute(final byte[] unit) {
+        try {
+            final var in = new DataInputStream(new ByteArrayInputStream(unit));
+
+            final byte type = in.readByte();
+            final String algorithm = readString(in);
+
+            // counts the work done even if there is no budget
+            final RdfCanonBudgetTicker ticker = in.readBoolean()
+                    ? RdfCanonBudgetTicker.readRemaining(in)
+                    : RdfCanonBudgetTicker.create();
+
+            final RdfCanon canon = RdfCanon.create(MessageDigest.getInstance(algorithm), ticker);
+
+            final int size = in.readInt();
+            for (int i = 0; i < size; i++) {
+                canon.quad(readNullable(in), readNullable(in), readNullable(in), readNullable(in),
+                        readNullable(in), readNullable(in), readNullable(in));
+            }
+
+            switch (type) {
+            case FIRST_DEGREE:
+                final var ids = readStrings(in);
+                final var hashes = canon.firstDegreeHashes(ids);
+                return encode(out -> {
+                    writeOk(out, ticker);
+                    writeMap(out, hashes);
+                });
+
+            case N_DEGREE:
+                final var results = canon.nDegreeResults(readMap(in), readMap(in), readStrings(in));
+                return encode(out -> {
+                    writeOk(out, ticker);
+                    out.writeInt(results.size());
+                    for (final var result : results.entrySet()) {
+                        writeString(out, result.getKey());
+                        writeString(out, result.getValue().getHash());
+                        // identifiers are issued by the counter, the order is enough
+                        writeStrings(out, result.getValue().getIssuer().mapping().keySet());
+                    }
+                });
+
+            default:
+                throw new IOException("Unknown work unit type " + type + ".");
+            }
+
+        } catch (IllegalStateException e) {
+            // the budget has been exceeded
+            return encode(out -> {
+                out.writeByte(ABORTED);
+                writeString(out, String.valueOf(e.getMessage()));
+            });
+
+        } catch (IOException | NoSuchAlgorithmException | RuntimeException e) {
+            return encode(out -> {
+                out.writeByte(ERROR);
+                writeString(out, String.valueOf(e.getMessage()));
+            });
+        }
+    }
+
+    /**
+     * Decodes the result of a first degree unit.
+     *
+     * @param result the encoded result
+     * @param ticker the coordinator's ticker to charge the work done to
+     * @return the first degree hashes by blank node identifier
+     * @throws IOException           if the result is an error or cannot be
+     *                               decoded
+     * @throws IllegalStateException if the worker or the ticker has aborted
+     *                               the computation
+     */
+    static Map<String, String> firstDegreeResult(final byte[] result, final RdfCanonTicker ticker)
+            throws IOException {
+        return readMap(open(result, ticker));
+    }
+
+    /**
+     * Decodes the result of an N-degree unit.
+     *
+     * @param result the encoded result
+     * @param ticker the coordinator's ticker to charge the work done to
+     * @return the Hash N-Degree Quads results by blank node identifier
+     * @throws IOException           if the result is an error or cannot be
+     *                               decoded
+     * @throws IllegalStateException if the worker or the ticker has aborted
+     *                               the computation
+     */
+    static Map<String, NDegreeResult> nDegreeResult(final byte[] result, final RdfCanonTicker ticker)
+            throws IOException {
+        final var in = open(result, ticker);
+        final int size = in.readInt();
+        final var results = new LinkedHashMap<String, NDegreeResult>(size * 2);
+        for (int i = 0; i < size; i++) {
+            final String id = readString(in);
+            final String hash = readString(in);
+
+            final IdentifierIssuer issuer = new IdentifierIssuer("_:b");
+            readStrings(in).forEach(issuer::getId);
+
+            results.put(id, new NDegreeResult(hash, issuer));
+        }
+        return results;
+    }
+
+    private static DataInputStream open(final byte[] result, final RdfCanonTicker ticker) throws IOException {
+        final var in = new DataInputStream(new ByteArrayInputStream(result));
+        switch (in.readByte()) {
+        case OK:
+            ticker.tick(Work.HASH, in.readLong());
+            final long permutations = in.readLong();
+            if (permutations > 0) {
+                ticker.tick(Work.PERMUTATION, permutations);
+            }
+            return in;
+
+        case ABORTED:
+            throw new IllegalStateException(readString(in));
+
+        default:
+            throw new IOException("Worker failed: " + readString(in));
+        }
+    }
+
+    private static void writeOk(final DataOutputStream out, final RdfCanonBudgetTicker ticker) throws IOException {
+        out.writeByte(OK);
+        out.writeLong(ticker.digestBytes());
+        out.writeLong(ticker.permutations());
+    }
+
+    private static void writeBudget(final DataOutputStream out, final RdfCanonTicker ticker) throws IOException {
+        if (ticker instanceof RdfCanonBudgetTicker) {
+            out.writeBoolean(true);
+            ((RdfCanonBudgetTicker) ticker).writeRemaining(out);
+        } else {
+            out.writeBoolean(false);
+        }
+    }
+
+    private interface Writer {
+        void write(DataOutputStream out) throws IOException;
+    }
+
+    private static byte[] encode(final Writer writer) {
+        final var bytes = new ByteArrayOutputStream();
+        try (final var out = new DataOutputStream(bytes)) {
+            writer.write(out);
+        } catch (IOException e) {
+            // never thrown by an in-memory stream
+            throw new IllegalStateException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    private static void writeQuads(final DataOutputStream out, final Collection<Quad> quads) throws IOException {
+        out.writeInt(quads.size());
+        for (final Quad quad : quads) {
+            writeNullable(out, quad.subject);
+            writeNullable(out, quad.predicate);
+            writeNullable(out, quad.object);
+            writeNullable(out, quad.datatype);
+            writeNullable(out, quad.language);
+            writeNullable(out, quad.direction);
+            writeNullable(out, quad.graph);
+        }
+    }
+
+    /**
+     * Writes a string prefixed by its UTF-8 length, e.g. a large literal, which
+     * {@link DataOutputStream#writeUTF(String)} limits to 65535 bytes.
+     */
+    static void writeString(final DataOutputStream out, final String value) throws IOException {
+        final byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    static String readString(final DataInputStream in) throws IOException {
+        final int length = in.readInt();
+        if (length < 0) {
+            throw new IOException("Invalid string length " + length + ".");
+        }
+        final byte[] bytes = new byte[length];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static void writeNullable(final DataOutputStream out, final String value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) {
+            writeString(out, value);
+        }
+    }
+
+    private static String readNullable(final DataInputStream in) throws IOException {
+        return in.readBoolean() ? readString(in) : null;
+    }
+
+    private static void writeStrings(final DataOutputStream out, final Collection<String> values) throws IOException {
+        out.writeInt(values.size());
+        for (final String value : values) {
+            writeString(out, value);
+        }
+    }
+
+    private static List<String> readStrings(final DataInputStream in) throws IOException {
+        final int size = in.readInt();
+        final var values = new ArrayList<String>(size);
+        for (int i = 0; i < size; i++) {
+            values.add(readString(in));
+        }
+        return values;
+    }
+
+    private static void writeMap(final DataOutputStream out, final Map<String, String> map) throws IOException {
+        out.writeInt(map.size());
+        for (final var entry : map.entrySet()) {
+            writeString(out, entry.getKey());
+            writeString(out, entry.getValue());
+        }
+    }
+
+    private static Map<String, String> readMap(final DataInputStream in) throws IOException {
+        final int size = in.readInt();
+        final var map = new LinkedHashMap<String, String>(size * 2);
+        for (int i = 0; i < size; i++) {
+            map.put(readString(in), readString(in));
+        }
+        return map;
+    }
+}
@@ -0,0 +1,385 @@
+package com.apicatalog.rdf.canon.cli;
+
+import java.io.BufferedOutputStream;
+import java.io.BufferedReader;
+import java.io.FileDescriptor;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+import com.apicatalog.rdf.api.RdfConsumerException;
+import com.apicatalog.rdf.api.RdfQuadConsumer;
+import com.apicatalog.rdf.canon.RdfCanonBatchResult;
+import com.apicatalog.rdf.canon.RdfCanonBudgetTicker;
+import com.apicatalog.rdf.canon.RdfCanonResult;
+import com.apicatalog.rdf.canon.RdfCanonSource;
+import com.apicatalog.rdf.canon.RdfCanonTicker;
+import com.apicatalog.rdf.canon.RdfCanonicalizer;
+import com.apicatalog.rdf.nquads.NQuadsReader;
+import com.apicatalog.rdf.nquads.NQuadsReaderException;
+
+/**
+ * A command-line canonicalizer of N-Quads files, directories or the standard
+ * input.
+ * <p>
+ * Many files are canonicalized by {@link RdfCanonicalizer} across a pool of
+ * worker threads, the results are written in the input order. The class is
+ * kept free of reflection and resource lookups, so it starts fast from an
+ * AppCDS archive and compiles to a native image as it is. The command line is
+ * built on the public API only and is not part of the library jar, it is
+ * packaged separately with the {@code cli} classifier.
+ *
+ * <pre>
+ * java -cp ... com.apicatalog.rdf.canon.cli.RdfCanonCli [options] [file | directory | -]...
+ * </pre>
+ */
+public final class RdfCanonCli {
+
+    /** Exit status of a successful run. */
+    static final int OK = 0;
+
+    /** Exit status if an input cannot be read or canonicalized. */
+    static final int FAILURE = 1;
+
+    /** Exit status of invalid options. */
+    static final int USAGE = 2;
+
+    /** The number of datasets per worker kept in memory before written. */
+    private static final int WINDOW_PER_JOB = 8;
+
+    private static final String STDIN = "-";
+
+    private static final String HELP = String.join("\n",
+            "Usage: rdfc [options] [file | directory | -]...",
+            "",
+            "Canonicalizes N-Quads by RDFC-1.0. Directories are searched for *.nq and",
+            "*.nquads files, the standard input is read if no input is given.",
+            "",
+            "Options:",
+            "  -a, --algorithm <name>  hash algorithm, SHA-256 (default) or SHA-384",
+            "  -o, --output <format>   nquads (default), mapping or digest",
+            "  -j, --jobs <n>          number of worker threads, defaults to the number of CPUs",
+            "  -t, --timeout <ms>      maximal time spent by a single input",
+            "  -h, --help              prints this help",
+            "");
+
+    /** An output format. */
+    enum Output {
+        /** Canonical N-Quads. */
+        NQUADS,
+        /** Blank node identifiers mapped to canonical labels. */
+        MAPPING,
+        /** A hash of the canonical N-Quads. */
+        DIGEST,
+    }
+
+    private String algorithm = "SHA-256";
+    private Output output = Output.NQUADS;
+    private int jobs = Runtime.getRuntime().availableProcessors();
+    private Duration timeout;
+    private final List<String> inputs = new ArrayList<>();
+
+    private RdfCanonCli() {
+    }
+
+    /**
+     * Runs the canonicalizer and exits with a non-zero status on failure.
+     *
+     * @param args the options and inputs
+     */
+    public static void main(String[] args) {
+        // the canonical output is UTF-8 regardless of the platform charset
+        final int status = run(args, System.in,
+                new BufferedOutputStream(new FileOutputStream(FileDescriptor.out)), System.err);
+        if (status != OK) {
+            System.exit(status);
+        }
+    }
+
+    /**
+     * Runs the canonicalizer.
+     *
+     * @param args the options and inputs
+     * @param in   the standard input
+     * @param os   the standard output, written in UTF-8 and flushed
+     * @param err  the standard error output
+     * @return the exit status
+     */
+    static int run(final String[] args, final InputStream in, final OutputStream os, final PrintStream err) {
+
+        final PrintStream out = new PrintStream(os, false, StandardCharsets.UTF_8);
+        try {
+            return run(args, in, out, err);
+        } finally {
+            out.flush();
+        }
+    }
+
+    private static int run(final String[] args, final InputStream in, final PrintStream out, final PrintStream err) {
+
+        final RdfCanonCli cli = new RdfCanonCli();
+
+        try {
+            if (!cli.parse(args, out)) {
+                return OK;
+            }
+        } catch (IllegalArgumentException e) {
+            err.println("rdfc: " + e.getMessage());
+            err.print(HELP);
+            return USAGE;
+        }
+
+        final List<String> files;
+        try {
+            files = cli.files();
+        } catch (IOException e) {
+            err.println("rdfc: " + e.getMessage());
+            return FAILURE;
+        }
+
+        final Supplier<RdfCanonTicker> tickers = cli.timeout != null
+                ? () -> RdfCanonBudgetTicker.create().deadline(cli.timeout)
+                : () -> RdfCanonTicker.EMPTY;
+
+        final RdfCanonicalizer canonicalizer;
+        try {
+            canonicalizer = RdfCanonicalizer.create(cli.algorithm, tickers, cli.jobs);
+        } catch (IllegalArgumentException | IllegalStateException e) {
+            err.println("rdfc: " + e.getMessage());
+            return USAGE;
+        }
+
+        final boolean headers = files.size() > 1;
+        int status = OK;
+
+        if (cli.jobs == 1 || files.size() == 1) {
+            for (final String file : files) {
+                RdfCanonResult result = null;
+                try {
+                    result = canonicalizer.canonize(source(file, in));
+                } catch (Exception e) {
+                    status = failed(err, file, e);
+                }
+                if (result != null) {
+                    cli.write(out, file, result, headers);
+                }
+            }
+            return status;
+        }
+
+        final ForkJoinPool pool = new ForkJoinPool(cli.jobs);
+        try {
+            final int window = cli.jobs * WINDOW_PER_JOB;
+
+            for (int from = 0; from < files.size(); from += window) {
+
+                final var batch = files.subList(from, Math.min(files.size(), from + window));
+
+                final var sources = new ArrayList<RdfCanonSource<?>>(batch.size());
+                for (final String file : batch) {
+                    sources.add(source(file, in));
+                }
+
+                for (final RdfCanonBatchResult result : canonicalizer.canonizeAll(sources, pool)) {
+                    final String file = batch.get(result.index());
+                    if (result.isSuccess()) {
+                        cli.write(out, file, result.result(), headers);
+                    } else {
+                        status = failed(err, file, result.error());
+                    }
+                }
+            }
+        } finally {
+            pool.shutdown();
+        }
+        return status;
+    }
+
+    /**
+     * Parses the options.
+     *
+     * @return {@code false} if the help has been requested
+     * @throws IllegalArgumentException if an option is invalid
+     */
+    private boolean parse(final String[] args, final PrintStream out) {
+
+        boolean options = true;
+
+        for (int i = 0; i < args.length; i++) {
+            final String arg = args[i];
+
+            if (!options || !arg.startsWith("-") || STDIN.equals(arg)) {
+                inputs.add(arg);
+                continue;
+            }
+
+            switch (arg) {
+            case "--":
+                options = false;
+                break;
+
+            case "-h":
+            case "--help":
+                out.print(HELP);
+                return false;
+
+            case "-a":
+            case "--algorithm":
+                algorithm = value(args, ++i, arg).toUpperCase(Locale.ROOT);
+                break;
+
+            case "-o":
+            case "--output":
+                try {
+                    output = Output.valueOf(value(args, ++i, arg).toUpperCase(Locale.ROOT));
+                } catch (IllegalArgumentException e) {
+                    throw new IllegalArgumentException("Unknown output format " + args[i] + ".");
+                }
+                break;
+
+            case "-j":
+            case "--jobs":
+                jobs = positive(value(args, ++i, arg), arg);
+                break;
+
+            case "-t":
+            case "--timeout":
+                timeout = Duration.ofMillis(positive(value(args, ++i, arg), arg));
+                break;
+
+            default:
+                throw new IllegalArgumentException("Unknown option " + arg + ".");
+            }
+        }
+
+        if (inputs.isEmpty()) {
+            inputs.add(STDIN);
+        }
+        return true;
+    }
+
+    /**
+     * Expands directories to the N-Quads files they contain.
+     */
+    private List<String> files() throws IOException {
+
+        final var files = new ArrayList<String>();
+
+        for (final String input : inputs) {
+            if (STDIN.equals(input)) {
+                files.add(input);
+                continue;
+            }
+
+            final Path path = Path.of(input);
+
+            if (!Files.isDirectory(path)) {
+                files.add(input);
+                continue;
+            }
+
+            try (Stream<Path> paths = Files.walk(path)) {
+                paths.filter(Files::isRegularFile)
+                        .filter(file -> file.getFileName().toString().endsWith(".nq")
+                                || file.getFileName().toString().endsWith(".nquads"))
+                        .map(Path::toString)
+                        .sorted()
+                        .forEach(files::add);
+            }
+        }
+        return files;
+    }
+
+    private void write(final PrintStream out, final String file, final RdfCanonResult result,
+            final boolean headers) {
+
+        switch (output) {
+        case NQUADS:
+            if (headers) {
+                // a comment keeps the output valid N-Quads
+                out.print("# " + file + "\n");
+            }
+            result.provide(out::print);
+            break;
+
+        case MAPPING:
+            if (headers) {
+                out.print("# " + file + "\n");
+            }
+            result.mapping().forEach((id, label) -> out.print(id + " " + label + "\n"));
+            break;
+
+        case DIGEST:
+            out.print(digest(result) + "  " + file + "\n");
+            break;
+        }
+    }
+
+    private String digest(final RdfCanonResult result) {
+        final MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance(algorithm);
+        } catch (NoSuchAlgorithmException e) {
+            // already checked by the canonicalizer
+            throw new IllegalStateException(e);
+        }
+        return result.digest(digest);
+    }
+
+    private static RdfCanonSource<Exception> source(final String file, final InputStream in) {
+        return consumer -> {
+            if (STDIN.equals(file)) {
+                read(new InputStreamReader(in, StandardCharsets.UTF_8), consumer);
+                return;
+            }
+            try (Reader reader = Files.newBufferedReader(Path.of(file), StandardCharsets.UTF_8)) {
+                read(reader, consumer);
+            }
+        };
+    }
+
+    private static void read(final Reader reader, final RdfQuadConsumer consumer)
+            throws NQuadsReaderException, RdfConsumerException {
+        new NQuadsReader(reader instanceof BufferedReader ? reader : new BufferedReader(reader)).provide(consumer);
+    }
+
+    private static int failed(final PrintStream err, final String file, final Exception e) {
+        err.println("rdfc: " + file + ": " + e.getMessage());
+        return FAILURE;
+    }
+
+    private static String value(final String[] args, final int index, final String option) {
+        if (index >= args.length) {
+            throw new IllegalArgumentException("Option " + option + " requires a value.");
+        }
+        return args[index];
+    }
+
+    private static int positive(final String value, final String option) {
+        try {
+            final int number = Integer.parseInt(value);
+            if (number > 0) {
+                return number;
+            }
+        } catch (NumberFormatException e) {
+            // reported below
+        }
+        throw new IllegalArgumentException("Option " + option + " requires a positive number but was " + value + ".");
+    }
+}
@@ -0,0 +1,458 @@
+package com.apicatalog.rdf.canon.server;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.lang.System.Logger;
+import java.lang.System.Logger.Level;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+import com.apicatalog.rdf.api.RdfConsumerException;
+import com.apicatalog.rdf.canon.RdfCanon;
+import com.apicatalog.rdf.canon.RdfCanonBudgetTicker;
+import com.apicatalog.rdf.canon.RdfCanonResult;
+import com.apicatalog.rdf.canon.RdfCanonTicker;
+import com.apicatalog.rdf.nquads.NQuadsReader;
+import com.apicatalog.rdf.nquads.NQuadsReaderException;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+/**
+ * A local canonicalization service built on the JDK HTTP server, e.g. a sidecar
+ * shared by many services, so they share a single warmed-up JVM.
+ * <p>
+ * Each request is handled by a new virtual thread. An N-Quads request body
+ * {@code POST}ed to {@code /nquads}, {@code /digest} or {@code /mapping} is
+ * answered by the canonical N-Quads, the hash of the canonical N-Quads in
+ * hexadecimal, or the canonical labels of the input blank nodes, one
+ * {@code <input> <canonical>} pair per line.
+ * <p>
+ * Concurrent requests carrying the same dataset, regardless of the quad order,
+ * are coalesced by the input fingerprint, only the first one is canonicalized.
+ * The number of concurrent canonicalizations is bounded, and each of them is
+ * bounded by a work budget enforced by a ticker, by
+ * {@link RdfCanonBudgetTicker} by default.
+ * <p>
+ * Status codes: {@code 400} malformed N-Quads, {@code 404} unknown path,
+ * {@code 405} not a {@code POST}, {@code 413} a body exceeding the limit,
+ * {@code 422} the work budget exceeded, {@code 500} an unexpected error,
+ * {@code 503} no capacity left.
+ * <p>
+ * The server is built on the public API only and is not part of the library
+ * jar, it is packaged separately with the {@code server} classifier.
+ *
+ * <pre>{@code
+ * RdfCanonServer server = RdfCanonServer.create(new InetSocketAddress(8080))
+ *         .maxConcurrency(8)
+ *         .start();
+ * }</pre>
+ */
+public final class RdfCanonServer {
+
+    /** The default maximal size of a request body. */
+    static final int DEFAULT_MAX_BODY_SIZE = 16 * 1024 * 1024;
+
+    /** The default maximal time waiting for a free canonicalization slot. */
+    static final Duration DEFAULT_QUEUE_TIMEOUT = Duration.ofSeconds(5);
+
+    /** The default maximal canonicalization time, the default ticker deadline. */
+    static final Duration DEFAULT_RUN_TIMEOUT = Duration.ofSeconds(10);
+
+    private static final Logger LOGGER = System.getLogger(RdfCanonServer.class.getName());
+
+    private static final String COALESCED = "X-Canon-Coalesced";
+
+    private final InetSocketAddress address;
+
+    private String hashAlgorithm = "SHA-256";
+    private int maxConcurrency = Runtime.getRuntime().availableProcessors();
+    private int maxBodySize = DEFAULT_MAX_BODY_SIZE;
+    private Duration queueTimeout = DEFAULT_QUEUE_TIMEOUT;
+    private Duration runTimeout = DEFAULT_RUN_TIMEOUT;
+    private Supplier<RdfCanonTicker> tickers = () -> RdfCanonBudgetTicker.create()
+            .maxPermutations(1_000_000)
+            .deadline(DEFAULT_RUN_TIMEOUT);
+
+    /** Canonicalizations in progress by the input fingerprint. */
+    private final Map<String, CompletableFuture<RdfCanonResult>> inflight = new ConcurrentHashMap<>();
+
+    private final AtomicLong requests = new AtomicLong();
+    private final AtomicLong coalesced = new AtomicLong();
+
+    private Semaphore slots;
+    private HttpServer server;
+    private ExecutorService executor;
+
+    private RdfCanonServer(InetSocketAddress address) {
+        this.address = address;
+    }
+
+    /**
+     * Creates a new server listening on the given address once started.
+     *
+     * @param address the address to bind, port {@code 0} binds an ephemeral port
+     * @return a new server
+     */
+    public static RdfCanonServer create(final InetSocketAddress address) {
+        return new RdfCanonServer(Objects.requireNonNull(address));
+    }
+
+    /**
+     * Starts a server on the given port, {@code 8080} by default.
+     *
+     * @param args an optional port
+     * @throws IOException if the port cannot be bound
+     */
+    public static void main(String[] args) throws IOException {
+        final int port = args.length > 0 ? Integer.parseInt(args[0]) : 8080;
+        final RdfCanonServer server = create(new InetSocketAddress(port)).start();
+        LOGGER.log(Level.INFO, "RDFC-1.0 service listening on {0}", server.address());
+    }
+
+    /**
+     * Sets the hash algorithm.
+     *
+     * @param hashAlgorithm {@code SHA-256} (default) or {@code SHA-384}
+     * @return this server
+     */
+    public RdfCanonServer hashAlgorithm(final String hashAlgorithm) {
+        this.hashAlgorithm = Objects.requireNonNull(hashAlgorithm);
+        return this;
+    }
+
+    /**
+     * Sets the maximal number of concurrent canonicalizations, defaults to the
+     * number of processors. Coalesced requests do not take a slot.
+     *
+     * @param maxConcurrency the maximal number of canonicalizations
+     * @return this server
+     */
+    public RdfCanonServer maxConcurrency(final int maxConcurrency) {
+        this.maxConcurrency = positive(maxConcurrency, "Maximal concurrency");
+        return this;
+    }
+
+    /**
+     * Sets the maximal size of a request body in bytes.
+     *
+     * @param maxBodySize the maximal size
+     * @return this server
+     */
+    public RdfCanonServer maxBodySize(final int maxBodySize) {
+        this.maxBodySize = positive(maxBodySize, "Maximal body size");
+        return this;
+    }
+
+    /**
+     * Sets the maximal time a request waits for a free canonicalization slot
+     * before it is rejected.
+     *
+     * @param queueTimeout the maximal waiting time
+     * @return this server
+     */
+    public RdfCanonServer queueTimeout(final Duration queueTimeout) {
+        this.queueTimeout = Objects.requireNonNull(queueTimeout);
+        return this;
+    }
+
+    /**
+     * Sets the maximal time a canonicalization is expected to take, e.g. the
+     * deadline enforced by the tickers. A coalesced request waits for the
+     * canonicalization it has joined at most the queue timeout and this time,
+     * and is rejected afterwards.
+     *
+     * @param runTimeout the maximal canonicalization time
+     * @return this server
+     */
+    public RdfCanonServer runTimeout(final Duration runTimeout) {
+        this.runTimeout = Objects.requireNonNull(runTimeout);
+        return this;
+    }
+
+    /**
+     * Sets a supplier of a new ticker for each canonicalization, enforcing the
+     * work budget of a request. The deadline of a {@link RdfCanonBudgetTicker}
+     * is started once the request gets a canonicalization slot, so neither the
+     * body parsing nor the wait for a slot is charged against it.
+     *
+     * @param tickers a supplier of a new ticker for each run
+     * @return this server
+     */
+    public RdfCanonServer tickers(final Supplier<RdfCanonTicker> tickers) {
+        this.tickers = Objects.requireNonNull(tickers);
+        return this;
+    }
+
+    /**
+     * Binds the address and starts serving requests.
+     *
+     * @return this server
+     * @throws IOException              if the address cannot be bound
+     * @throws IllegalStateException    if the hash algorithm is not available
+     */
+    public RdfCanonServer start() throws IOException {
+
+        // fail fast if the algorithm is not supported
+        RdfCanon.create(hashAlgorithm);
+
+        slots = new Semaphore(maxConcurrency);
+        executor = Executors.newVirtualThreadPerTaskExecutor();
+
+        server = HttpServer.create(address, 0);
+        server.setExecutor(executor);
+        server.createContext("/", this::handle);
+        server.start();
+        return this;
+    }
+
+    /**
+     * Stops the server, waiting at most the given time for the requests in
+     * progress.
+     *
+     * @param delay the maximal time to wait
+     */
+    public void stop(final Duration delay) {
+        server.stop((int) Math.min(Integer.MAX_VALUE, delay.toSeconds()));
+        executor.shutdown();
+    }
+
+    /**
+     * Get the bound address, e.g. the ephemeral port.
+     *
+     * @return the bound address
+     */
+    public InetSocketAddress address() {
+        return server.getAddress();
+    }
+
+    /**
+     * Get the number of handled requests.
+     *
+     * @return the number of requests
+     */
+    public long requests() {
+        return requests.get();
+    }
+
+    /**
+     * Get the number of requests answered by a canonicalization of another,
+     * concurrent, request carrying the same dataset.
+     *
+     * @return the number of coalesced requests
+     */
+    public long coalesced() {
+        return coalesced.get();
+    }
+
+    private void handle(final HttpExchange exchange) throws IOException {
+        try {
+            requests.incrementAndGet();
+
+            final String path = exchange.getRequestURI().getPath();
+
+            if (!"/nquads".equals(path) && !"/digest".equals(path) && !"/mapping".equals(path)) {
+                respond(exchange, 404, "Unknown path " + path + ", expected /nquads, /digest or /mapping.");
+                return;
+            }
+
+            if (!"POST".equals(exchange.getRequestMethod())) {
+                exchange.getResponseHeaders().set("Allow", "POST");
+                respond(exchange, 405, "Method " + exchange.getRequestMethod() + " is not allowed.");
+                return;
+            }
+
+            final byte[] body = read(exchange.getRequestBody());
+
+            if (body == null) {
+                respond(exchange, 413, "Request body exceeds " + maxBodySize + " bytes.");
+                return;
+            }
+
+            final RdfCanonTicker ticker = tickers.get();
+            final RdfCanon canon = RdfCanon.create(hashAlgorithm, ticker);
+
+            try {
+                new NQuadsReader(new InputStreamReader(new ByteArrayInputStream(body), StandardCharsets.UTF_8))
+                        .provide(canon);
+
+            } catch (NQuadsReaderException | RdfConsumerException e) {
+                respond(exchange, 400, "Malformed N-Quads: " + e.getMessage());
+                return;
+
+            } catch (IllegalStateException e) {
+                // the ingestion budget exceeded
+                respond(exchange, 422, e.getMessage());
+                return;
+            }
+
+            final String key = canon.fingerprint();
+
+            final var future = new CompletableFuture<RdfCanonResult>();
+            final var leader = inflight.putIfAbsent(key, future);
+
+            final RdfCanonResult result;
+
+            try {
+                if (leader != null) {
+                    coalesced.incrementAndGet();
+                    exchange.getResponseHeaders().set(COALESCED, "true");
+                    // a copy times out without affecting the other requests
+                    result = leader.copy()
+                            .orTimeout(queueTimeout.plus(runTimeout).toMillis(), TimeUnit.MILLISECONDS)
+                            .join();
+
+                } else {
+                    canonize(canon, ticker, key, future);
+                    result = future.join();
+                }
+
+            } catch (CompletionException e) {
+                final Throwable cause = e.getCause();
+
+                if (cause instanceof Overloaded) {
+                    respond(exchange, 503, cause.getMessage());
+
+                } else if (cause instanceof TimeoutException) {
+                    respond(exchange, 503, "Canonicalization not completed in "
+                            + queueTimeout.plus(runTimeout).toMillis() + " ms.");
+
+                } else if (cause instanceof IllegalStateException) {
+                    respond(exchange, 422, cause.getMessage());
+
+                } else {
+                    respond(exchange, 500, "Canonicalization failed: " + cause);
+                }
+                return;
+            }
+
+            final StringBuilder response = new StringBuilder();
+
+            switch (path) {
+            case "/nquads":
+                exchange.getResponseHeaders().set("Content-Type", "application/n-quads");
+                result.provide(response::append);
+                break;
+
+            case "/digest":
+                exchange.getResponseHeaders().set("Content-Type", "text/plain; charset=utf-8");
+                response.append(result.digest(newDigest())).append('\n');
+                break;
+
+            default:
+                exchange.getResponseHeaders().set("Content-Type", "text/plain; charset=utf-8");
+                result.mapping().forEach((id, label) -> response.append(id).append(' ').append(label).append('\n'));
+                break;
+            }
+
+            write(exchange, 200, response.toString());
+
+        } finally {
+            exchange.close();
+        }
+    }
+
+    /**
+     * Canonicalizes the dataset on behalf of all the requests coalesced by the
+     * given key, and completes the future shared by them.
+     */
+    private void canonize(final RdfCanon canon, final RdfCanonTicker ticker, final String key,
+            final CompletableFuture<RdfCanonResult> future) {
+
+        boolean acquired = false;
+        try {
+            acquired = slots.tryAcquire(queueTimeout.toNanos(), TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+        if (!acquired) {
+            final var exception = new Overloaded(
+                    "No canonicalization slot available in " + queueTimeout.toMillis() + " ms.");
+            inflight.remove(key, future);
+            future.completeExceptionally(exception);
+            return;
+        }
+
+        if (ticker instanceof RdfCanonBudgetTicker) {
+            ((RdfCanonBudgetTicker) ticker).start();
+        }
+
+        try {
+            future.complete(canon.result());
+
+        } catch (Throwable e) {
+            // an error must not leave the coalesced requests waiting
+            future.completeExceptionally(e);
+
+        } finally {
+            inflight.remove(key, future);
+            slots.release();
+        }
+    }
+
+    private byte[] read(final InputStream is) throws IOException {
+        final byte[] body = is.readNBytes(maxBodySize);
+        return is.read() == -1 ? body : null;
+    }
+
+    private MessageDigest newDigest() {
+        try {
+            return MessageDigest.getInstance(hashAlgorithm);
+        } catch (NoSuchAlgorithmException e) {
+            // checked by start()
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static void respond(final HttpExchange exchange, final int status, final String message)
+            throws IOException {
+        exchange.getResponseHeaders().set("Content-Type", "text/plain; charset=utf-8");
+        write(exchange, status, message + '\n');
+    }
+
+    private static void write(final HttpExchange exchange, final int status, final String body) throws IOException {
+        final byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        // zero means a chunked body of an unknown length
+        exchange.sendResponseHeaders(status, bytes.length > 0 ? bytes.length : -1);
+        if (bytes.length > 0) {
+            try (OutputStream os = exchange.getResponseBody()) {
+                os.write(bytes);
+            }
+        }
+    }
+
+    private static int positive(final int value, final String name) {
+        if (value <= 0) {
+            throw new IllegalArgumentException(name + " must be positive but was " + value + ".");
+        }
+        return value;
+    }
+
+    /** No capacity left to canonicalize a request. */
+    private static final class Overloaded extends IllegalStateException {
+
+        private static final long serialVersionUID = 1L;
+
+        Overloaded(String message) {
+            super(message);
+        }
+    }
+}
@@ -0,0 +1,33 @@
+package com.apicatalog.rdf.canon;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+
+import java.util.LinkedHashSet;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+class BlankComponentsTest {
+
+    @Test
+    void test() {
+        final RdfCanon canon = RdfCanon.newInstance(new LinkedHashSet<>(), null, RdfCanonTicker.EMPTY);
+
+        canon.quad("_:a", "http://ex/p", "_:b", null, null, null, null);
+        canon.quad("_:b", "http://ex/p", "_:c", null, null, null, null);
+        canon.quad("_:d", "http://ex/p", "http://ex/o", null, null, null, "_:e");
+        canon.quad("_:f", "http://ex/p", "literal", "http://www.w3.org/2001/XMLSchema#string", null, null, null);
+
+        final BlankComponents components = canon.components();
+
+        assertEquals(3, components.size());
+        assertEquals(components.componentOf("_:a"), components.componentOf("_:c"));
+        assertEquals(components.componentOf("_:d"), components.componentOf("_:e"));
+        assertNotEquals(components.componentOf("_:a"), components.componentOf("_:d"));
+        assertNotEquals(components.componentOf("_:d"), components.componentOf("_:f"));
+        assertEquals(-1, components.componentOf("_:x"));
+
+        assertEquals(2, components.groupBy(List.of("_:a", "_:d", "_:b")).size());
+    }
+}
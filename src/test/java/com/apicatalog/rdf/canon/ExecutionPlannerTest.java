@@ -0,0 +1,54 @@
+package com.apicatalog.rdf.canon;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+@DisplayName("RDFC-1.0 Execution Planner")
+class ExecutionPlannerTest {
+
+	@Test
+	void testTiny() {
+		final RdfCanonMetrics metrics = RdfCanonMetrics.create();
+
+		final RdfCanon canon = RdfCanon.create("SHA-256", RdfCanonTicker.EMPTY, metrics)
+				.parallel(ForkJoinPool.commonPool());
+		RdfCanonMetricsTest.HEXAGON.forEach(quad -> RdfCanonIncrementalTest.add(canon, quad));
+
+		assertEquals(RdfCanonIncrementalTest.scratch("SHA-256", RdfCanonMetricsTest.HEXAGON),
+				RdfCanonIncrementalTest.output(canon));
+
+		assertEquals(0, metrics.parallelFirstDegree());
+		assertEquals(1, metrics.sequentialFirstDegree());
+		assertEquals(0, metrics.parallelGroups());
+		assertEquals(1, metrics.sequentialGroups());
+	}
+
+	@Test
+	void testLarge() {
+		// many isomorphic components, all the blank nodes tied in a single group
+		final List<String[]> quads = new ArrayList<>();
+		for (int i = 0; i < ExecutionPlanner.PARALLEL_FIRST_DEGREE_BLANK_NODES; i++) {
+			quads.add(RdfCanonIsomorphismTest.edge("_:a" + i, "_:b" + i));
+			quads.add(RdfCanonIsomorphismTest.edge("_:b" + i, "_:a" + i));
+		}
+
+		final RdfCanonMetrics metrics = RdfCanonMetrics.create();
+
+		final RdfCanon canon = RdfCanon.create("SHA-256", RdfCanonTicker.EMPTY, metrics)
+				.parallel(ForkJoinPool.commonPool());
+		quads.forEach(quad -> RdfCanonIncrementalTest.add(canon, quad));
+
+		assertEquals(RdfCanonIncrementalTest.scratch("SHA-256", quads), RdfCanonIncrementalTest.output(canon));
+
+		assertEquals(1, metrics.parallelFirstDegree());
+		assertEquals(0, metrics.sequentialFirstDegree());
+		assertEquals(1, metrics.parallelGroups());
+		assertEquals(0, metrics.sequentialGroups());
+	}
+}
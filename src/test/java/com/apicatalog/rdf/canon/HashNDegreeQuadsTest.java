@@ -0,0 +1,45 @@
+package com.apicatalog.rdf.canon;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+@DisplayName("Iterative Hash N-Degree Quads")
+class HashNDegreeQuadsTest {
+
+	@Test
+	void testDeepCycle() throws InterruptedException {
+
+		final int length = 200;
+
+		final RdfCanonMetrics metrics = RdfCanonMetrics.create();
+		final AtomicReference<Throwable> error = new AtomicReference<>();
+		final StringBuilder output = new StringBuilder();
+
+		// the search recurses along the whole cycle, which would overflow such a
+		// small stack if the recursion used Java call frames
+		final Thread thread = new Thread(null, () -> {
+			try {
+				final RdfCanon canon = RdfCanon.create("SHA-256", RdfCanonTicker.EMPTY, metrics);
+				for (int i = 0; i < length; i++) {
+					canon.quad("_:n" + i, "http://ex/p", "_:n" + ((i + 1) % length), null, null, null, null);
+				}
+				canon.provide(output::append);
+
+			} catch (Throwable e) {
+				error.set(e);
+			}
+		}, "deep-cycle", 140 * 1024);
+
+		thread.start();
+		thread.join();
+
+		assertNull(error.get());
+		assertEquals(length, output.toString().split("\n").length);
+		assertEquals(length, metrics.maxDepth());
+	}
+}
@@ -0,0 +1,45 @@
+package com.apicatalog.rdf.canon;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.concurrent.ForkJoinPool;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+@DisplayName("Hub Blank Nodes")
+class HubNodeTest {
+
+	@Test
+	void testNamedGraphHub() {
+
+		final RdfCanon hub = hub(RdfCanon.create("SHA-256"));
+		final RdfCanon parallel = hub(RdfCanon.create("SHA-256").parallel(ForkJoinPool.commonPool()));
+
+		final RdfCanon plain = hub(RdfCanon.create("SHA-256"));
+		plain.hubThreshold = Integer.MAX_VALUE;
+
+		final String expected = RdfCanonIncrementalTest.output(plain);
+
+		assertEquals(expected, RdfCanonIncrementalTest.output(hub));
+		assertEquals(expected, RdfCanonIncrementalTest.output(parallel));
+	}
+
+	/**
+	 * Two isomorphic blank node named graphs, each holding many ground quads and
+	 * a cycle of blank nodes, so the hubs are resolved by the N-degree phase.
+	 */
+	static RdfCanon hub(RdfCanon canon) {
+		for (final String graph : new String[] { "_:g", "_:h" }) {
+			for (int i = 0; i < HubNode.THRESHOLD; i++) {
+				canon.quad("http://ex/s" + (i % 100), "http://ex/p" + (i % 7), "\"" + i + "\"",
+						"http://www.w3.org/2001/XMLSchema#string", null, null, graph);
+			}
+			for (int i = 0; i < 6; i++) {
+				canon.quad(graph + i, "http://ex/next", graph + ((i + 1) % 6), null, null, null, graph);
+				canon.quad(graph + i, "http://ex/in", graph, null, null, null, null);
+			}
+		}
+		return canon;
+	}
+}
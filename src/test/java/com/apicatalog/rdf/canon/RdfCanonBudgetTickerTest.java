@@ -0,0 +1,90 @@
+package com.apicatalog.rdf.canon;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.time.Duration;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.MethodSource;
+
+@DisplayName("RDFC-1.0 Budget Ticker")
+class RdfCanonBudgetTickerTest {
+
+	@ParameterizedTest(name = "{0}")
+	@MethodSource("com.apicatalog.rdf.canon.RdfCanonTest#data")
+	void testBudget(RdfCanonTestCase testCase) throws IOException {
+		final RdfCanonBudgetTicker ticker = RdfCanonBudgetTicker.create()
+				.maxQuads(10_000)
+				.maxPermutations(100_000)
+				.maxDepth(32)
+				.deadline(Duration.ofSeconds(10));
+
+		RdfCanonTest.execute(RdfCanon.create(testCase.hashAlgorithm, ticker), testCase);
+	}
+
+	@Test
+	void testMaxQuads() {
+		final RdfCanon canon = RdfCanon.create("SHA-256", RdfCanonBudgetTicker.create().maxQuads(5));
+
+		final IllegalStateException e = assertThrows(IllegalStateException.class,
+				() -> RdfCanonMetricsTest.HEXAGON.forEach(quad -> RdfCanonIncrementalTest.add(canon, quad)));
+
+		assertEquals("Maximum quads of 5 exceeded.", e.getMessage());
+	}
+
+	@Test
+	void testMaxDepth() {
+		final RdfCanonBudgetTicker ticker = RdfCanonBudgetTicker.create().maxDepth(1);
+
+		final RdfCanon canon = RdfCanon.create("SHA-256", ticker);
+		RdfCanonMetricsTest.HEXAGON.forEach(quad -> RdfCanonIncrementalTest.add(canon, quad));
+
+		assertThrows(IllegalStateException.class, () -> RdfCanonIncrementalTest.output(canon));
+		assertEquals(6, ticker.quads());
+		assertTrue(ticker.digestBytes() > 0);
+	}
+
+	@Test
+	void testInterrupted() {
+		final RdfCanon canon = RdfCanon.create("SHA-256", RdfCanonBudgetTicker.create().checkEvery(1));
+		RdfCanonMetricsTest.HEXAGON.forEach(quad -> RdfCanonIncrementalTest.add(canon, quad));
+
+		Thread.currentThread().interrupt();
+		try {
+			assertThrows(IllegalStateException.class, () -> RdfCanonIncrementalTest.output(canon));
+
+		} finally {
+			assertTrue(Thread.interrupted());
+		}
+	}
+
+	@Test
+	void testThreads() throws InterruptedException {
+		final RdfCanonBudgetTicker ticker = RdfCanonBudgetTicker.create().checkEvery(3);
+
+		final Thread[] threads = new Thread[4];
+		for (int i = 0; i < threads.length; i++) {
+			threads[i] = new Thread(() -> {
+				for (int j = 0; j < 1000; j++) {
+					ticker.tick();
+				}
+			});
+			threads[i].start();
+		}
+		for (Thread thread : threads) {
+			thread.join();
+		}
+
+		assertEquals(4000, ticker.ticks());
+	}
+
+	@Test
+	void testInvalidLimit() {
+		assertThrows(IllegalArgumentException.class, () -> RdfCanonBudgetTicker.create().maxPermutations(0));
+	}
+}
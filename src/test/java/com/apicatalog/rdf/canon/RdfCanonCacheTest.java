@@ -0,0 +1,81 @@
+package com.apicatalog.rdf.canon;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+@DisplayName("RDFC-1.0 N-Degree Cache")
+class RdfCanonCacheTest {
+
+	@Test
+	void testSharedCache() throws IOException {
+
+		final RdfCanonCache cache = RdfCanonCache.create(1_000);
+
+		final List<RdfCanonTestCase> testCases = RdfCanonTest.data()
+				.filter(testCase -> RdfCanonTestCase.Type.RDFC10NegativeEvalTest != testCase.type)
+				.collect(Collectors.toList());
+
+		for (final RdfCanonTestCase testCase : testCases) {
+			RdfCanonTest.execute(RdfCanon.create(testCase.hashAlgorithm).cache(cache), testCase);
+		}
+
+		// map and eval tests share inputs, so there are hits already
+		final long misses = cache.misses();
+		final long hits = cache.hits();
+		assertTrue(misses > 0);
+
+		// the second round is served from the cache
+		for (final RdfCanonTestCase testCase : testCases) {
+			RdfCanonTest.execute(RdfCanon.create(testCase.hashAlgorithm).cache(cache)
+					.parallel(ForkJoinPool.commonPool()), testCase);
+		}
+
+		assertEquals(misses, cache.misses());
+		assertEquals(2 * hits + misses, cache.hits());
+	}
+
+	@Test
+	void testRelabeled() {
+
+		final RdfCanonCache cache = RdfCanonCache.create(10);
+
+		final String first = canonize(cache, "_:x", "_:y");
+		final String second = canonize(cache, "_:q", "_:p");
+
+		assertEquals(first, second);
+		assertEquals(2, cache.hits());
+	}
+
+	@Test
+	void testEvictions() throws IOException {
+
+		final RdfCanonCache cache = RdfCanonCache.create(1);
+
+		for (final RdfCanonTestCase testCase : RdfCanonTest.evalData().collect(Collectors.toList())) {
+			RdfCanonTest.execute(RdfCanon.create(testCase.hashAlgorithm).cache(cache), testCase);
+		}
+
+		assertEquals(1, cache.size());
+		assertTrue(cache.evictions() > 0);
+	}
+
+	static String canonize(RdfCanonCache cache, String a, String b) {
+		final RdfCanon canon = RdfCanon.create("SHA-256").cache(cache);
+
+		// two tied blank nodes linked to each other
+		canon.quad(a, "http://ex/p", b, null, null, null, null);
+		canon.quad(b, "http://ex/p", a, null, null, null, null);
+
+		final StringBuilder builder = new StringBuilder();
+		canon.provide(builder::append);
+		return builder.toString();
+	}
+}
@@ -0,0 +1,120 @@
+package com.apicatalog.rdf.canon;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+@DisplayName("RDFC-1.0 Checkpoint")
+class RdfCanonCheckpointTest {
+
+	static final List<String[]> DATASET = new ArrayList<>(RdfCanonMetricsTest.HEXAGON);
+
+	static {
+		DATASET.add(new String[] { "_:x", "http://ex/p", "_:y", null, null, null, null });
+		DATASET.add(new String[] { "_:y", "http://ex/p", "_:x", null, null, null, null });
+		DATASET.add(new String[] { "_:k", "http://ex/q", "_:l", null, null, null, null });
+		DATASET.add(new String[] { "_:l", "http://ex/q", "_:m", null, null, null, null });
+		DATASET.add(new String[] { "_:m", "http://ex/q", "_:k", null, null, null, null });
+		DATASET.add(new String[] { "_:k", "http://ex/r", "_:u", null, null, null, null });
+		DATASET.add(new String[] { "http://ex/s", "http://ex/p", "http://ex/o", null, null, null, null });
+	}
+
+	@Test
+	void testResume() throws IOException {
+
+		final String expected = RdfCanonIncrementalTest.scratch("SHA-256", DATASET);
+
+		final AtomicInteger total = new AtomicInteger();
+		RdfCanonIncrementalTest.output(canon(DATASET, total::incrementAndGet));
+
+		final List<String[]> reversed = new ArrayList<>(DATASET);
+		Collections.reverse(reversed);
+
+		boolean nDegree = false;
+
+		for (int abortAt = 1; abortAt < total.get(); abortAt++) {
+
+			final int limit = abortAt;
+			final AtomicInteger ticks = new AtomicInteger();
+
+			final RdfCanon aborted = canon(DATASET, () -> {
+				if (ticks.incrementAndGet() > limit) {
+					throw new IllegalStateException();
+				}
+			});
+
+			try {
+				RdfCanonIncrementalTest.output(aborted);
+				continue;
+			} catch (IllegalStateException e) {
+				// expected
+			}
+
+			final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+			aborted.checkpoint().write(bytes);
+
+			final RdfCanonCheckpoint checkpoint = RdfCanonCheckpoint.read(new ByteArrayInputStream(bytes.toByteArray()));
+			nDegree |= checkpoint.issuedIdentifiers() > 0 && checkpoint.nDegreeResults() > 0;
+
+			// resumed in another order
+			final RdfCanon resumed = canon(reversed, RdfCanonTicker.EMPTY);
+
+			assertEquals(expected, RdfCanonIncrementalTest.output(resumed.resume(checkpoint)), "abort at " + abortAt);
+		}
+
+		assertTrue(nDegree);
+	}
+
+	@Test
+	void testMismatch() throws IOException {
+
+		final RdfCanon canon = canon(DATASET, RdfCanonTicker.EMPTY);
+		RdfCanonIncrementalTest.output(canon);
+
+		final RdfCanonCheckpoint checkpoint = canon.checkpoint();
+
+		final RdfCanon other = canon(DATASET.subList(1, DATASET.size()), RdfCanonTicker.EMPTY);
+		assertThrows(IllegalArgumentException.class, () -> other.resume(checkpoint));
+
+		assertThrows(IOException.class, () -> RdfCanonCheckpoint.read(new ByteArrayInputStream(new byte[8])));
+	}
+
+	@Test
+	void testLongLabel() throws IOException {
+
+		// longer than DataOutputStream#writeUTF allows
+		final String label = "_:" + "x".repeat(70_000);
+
+		final List<String[]> dataset = new ArrayList<>(DATASET);
+		dataset.add(new String[] { label, "http://ex/p", "_:a", null, null, null, null });
+
+		final RdfCanon canon = canon(dataset, RdfCanonTicker.EMPTY);
+		RdfCanonIncrementalTest.output(canon);
+
+		final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		canon.checkpoint().write(bytes);
+
+		final RdfCanonCheckpoint checkpoint = RdfCanonCheckpoint.read(new ByteArrayInputStream(bytes.toByteArray()));
+		assertTrue(checkpoint.issuedIdentifiers() > 0);
+
+		assertEquals(RdfCanonIncrementalTest.scratch("SHA-256", dataset),
+				RdfCanonIncrementalTest.output(canon(dataset, RdfCanonTicker.EMPTY).resume(checkpoint)));
+	}
+
+	static RdfCanon canon(List<String[]> quads, RdfCanonTicker ticker) {
+		final RdfCanon canon = RdfCanon.create("SHA-256", ticker);
+		quads.forEach(quad -> RdfCanonIncrementalTest.add(canon, quad));
+		return canon;
+	}
+}
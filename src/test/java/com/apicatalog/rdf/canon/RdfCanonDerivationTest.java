@@ -0,0 +1,94 @@
+package com.apicatalog.rdf.canon;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.function.UnaryOperator;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.MethodSource;
+
+import com.apicatalog.rdf.api.RdfConsumerException;
+
+@DisplayName("Selective Disclosure Derivation")
+class RdfCanonDerivationTest {
+
+	static final Pattern CANONICAL_LABEL = Pattern.compile("_:c14n[0-9]+");
+
+	/** Reverses the order of the canonical labels. */
+	static final UnaryOperator<String> LABELS = label -> "_:u" + (1000 - Integer.parseInt(label.substring(6)));
+
+	@ParameterizedTest(name = "{0}")
+	@MethodSource("com.apicatalog.rdf.canon.RdfCanonTest#evalData")
+	void testSelect(RdfCanonTestCase testCase) throws IOException {
+
+		final RdfCanonResult result = RdfCanonTest.read(RdfCanon.create(testCase.hashAlgorithm), testCase).result();
+
+		final List<String> canonical = new ArrayList<>();
+		result.provide(canonical::add);
+
+		final RdfCanonDerivation derivation = result.relabel(LABELS);
+
+		final List<String> all = new ArrayList<>();
+		derivation.provide(all::add);
+		assertEquals(expected(canonical), all);
+
+		// every other quad
+		final BitSet selection = new BitSet();
+		final List<String> selected = new ArrayList<>();
+		for (int i = 0; i < canonical.size(); i += 2) {
+			selection.set(i);
+			selected.add(canonical.get(i));
+		}
+
+		assertEquals(expected(selected), derivation.select(selection));
+		assertEquals(expected(selected), derivation.select(selection.stream().toArray()));
+		assertEquals(expected(selected), derivation.select(selected));
+
+		for (int i = 0; i < canonical.size(); i++) {
+			assertEquals(i, derivation.indexOf(canonical.get(i)));
+			assertEquals(i, derivation.canonicalIndexOf(derivation.relabeledIndexOf(i)));
+		}
+	}
+
+	@Test
+	void testLabelMap() throws RdfConsumerException {
+		final RdfCanon canon = RdfCanon.create("SHA-256");
+		canon.quad("_:x", "http://ex/p", "_:y", null, null, null, null)
+				.quad("_:y", "http://ex/p", "http://ex/o", null, null, null, null);
+
+		final RdfCanonResult result = canon.result();
+
+		final Map<String, String> mapping = result.mapping();
+
+		final RdfCanonDerivation derivation = result.relabel(Map.of(
+				mapping.get("_:x"), "_:b",
+				mapping.get("_:y"), "_:a"));
+
+		assertEquals(List.of(
+				"_:a <http://ex/p> <http://ex/o> .\n",
+				"_:b <http://ex/p> _:a .\n"),
+				derivation.select(0, 1));
+
+		assertThrows(IllegalArgumentException.class, () -> result.relabel(Map.of(mapping.get("_:x"), "_:b")));
+		assertThrows(IllegalArgumentException.class, () -> derivation.indexOf("<http://ex/s> <http://ex/p> _:b .\n"));
+	}
+
+	static List<String> expected(List<String> canonical) {
+		final List<String> relabeled = canonical.stream()
+				.map(nquad -> CANONICAL_LABEL.matcher(nquad).replaceAll(match -> LABELS.apply(match.group())))
+				.collect(Collectors.toList());
+		Collections.sort(relabeled);
+		return relabeled;
+	}
+}
@@ -0,0 +1,82 @@
+package com.apicatalog.rdf.canon;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+
+import java.io.IOException;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.MethodSource;
+
+import com.apicatalog.rdf.canon.RdfCanonEstimate.Complexity;
+
+@DisplayName("RDFC-1.0 Pre-flight Estimate")
+class RdfCanonEstimateTest {
+
+	@ParameterizedTest(name = "{0}")
+	@MethodSource("com.apicatalog.rdf.canon.RdfCanonTest#data")
+	void testEstimate(RdfCanonTestCase testCase) throws IOException {
+
+		final RdfCanon canon = RdfCanonTest.read(RdfCanon.create(testCase.hashAlgorithm, new RdfCanonTimeTicker(300)),
+				testCase);
+
+		final RdfCanonEstimate estimate = canon.estimate();
+
+		if (RdfCanonTestCase.Type.RDFC10NegativeEvalTest == testCase.type) {
+			assertEquals(Complexity.EXTREME, estimate.complexity(), estimate::toString);
+			return;
+		}
+
+		assertNotEquals(Complexity.EXTREME, estimate.complexity(), estimate::toString);
+
+		// the estimate does not affect the result
+		RdfCanonTest.execute(canon, testCase);
+	}
+
+	@Test
+	void testHexagon() {
+		final RdfCanon canon = RdfCanon.create("SHA-256");
+		RdfCanonMetricsTest.HEXAGON.forEach(quad -> RdfCanonIncrementalTest.add(canon, quad));
+
+		final RdfCanonEstimate estimate = canon.estimate();
+
+		assertEquals(6, estimate.blankNodes());
+		assertEquals(6, estimate.tiedBlankNodes());
+		assertEquals(1, estimate.tiedGroups());
+		assertEquals(6, estimate.largestTiedGroup());
+		assertEquals(2, estimate.maxFanOut());
+		assertEquals(1, estimate.maxRelatedGroup());
+		assertEquals(12, estimate.permutations());
+		assertEquals(Complexity.LOW, estimate.complexity());
+	}
+
+	@Test
+	void testTiedGraphs() {
+		final RdfCanon canon = RdfCanon.create("SHA-256");
+
+		// each subject is related to every graph by a different predicate, all the
+		// graphs are tied and related by the same hash regardless of the predicate
+		final int size = RdfCanonEstimate.EXTREME_RELATED;
+		for (int g = 0; g < size; g++) {
+			for (int s = 0; s < size; s++) {
+				canon.quad("_:s" + s, "http://ex/p" + ((g + s) % size), "http://ex/o", null, null, null, "_:g" + g);
+			}
+		}
+
+		final RdfCanonEstimate estimate = canon.estimate();
+
+		assertEquals(2 * size, estimate.tiedBlankNodes());
+		assertEquals(size, estimate.maxRelatedGroup());
+		assertEquals(Complexity.EXTREME, estimate.complexity());
+	}
+
+	@Test
+	void testGround() {
+		final RdfCanon canon = RdfCanon.create("SHA-256");
+		canon.quad("_:a", "http://ex/p", "http://ex/o", null, null, null, null);
+
+		assertEquals(Complexity.NONE, canon.estimate().complexity());
+	}
+}
@@ -0,0 +1,75 @@
+package com.apicatalog.rdf.canon;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+
+@DisplayName("RDFC-1.0 Flight Recorder Events")
+class RdfCanonEventsTest {
+
+	@Test
+	void testEvents() throws IOException {
+
+		final Path file = Files.createTempFile("rdfc", ".jfr");
+
+		try (final Recording recording = new Recording()) {
+			recording.enable("com.apicatalog.rdf.canon.Run");
+			recording.enable("com.apicatalog.rdf.canon.Phase");
+			recording.enable("com.apicatalog.rdf.canon.HashGroup");
+			recording.enable("com.apicatalog.rdf.canon.PermutationSearch").withThreshold(Duration.ZERO);
+			recording.start();
+
+			final RdfCanon canon = RdfCanon.create("SHA-256");
+			RdfCanonMetricsTest.HEXAGON.forEach(quad -> RdfCanonIncrementalTest.add(canon, quad));
+			RdfCanonIncrementalTest.output(canon);
+
+			recording.stop();
+			recording.dump(file);
+		}
+
+		final Map<String, List<RecordedEvent>> events;
+		try {
+			events = RecordingFile.readAllEvents(file).stream()
+					.filter(event -> event.getEventType().getName().startsWith("com.apicatalog.rdf.canon."))
+					.collect(Collectors.groupingBy(event -> event.getEventType().getName(), Collectors.toList()));
+		} finally {
+			Files.delete(file);
+		}
+
+		final RecordedEvent run = events.get("com.apicatalog.rdf.canon.Run").get(0);
+		assertEquals("SHA-256", run.getString("hashAlgorithm"));
+		assertEquals(6, run.getLong("quads"));
+		assertEquals(6, run.getLong("blankNodes"));
+		assertEquals(6, run.getLong("tiedBlankNodes"));
+		assertTrue(run.getLong("permutations") > 0);
+
+		assertEquals(List.of("issueSimpleIds", "issueNDegreeIds", "canonQuads"),
+				events.get("com.apicatalog.rdf.canon.Phase").stream()
+						.sorted(Comparator.comparing(RecordedEvent::getStartTime))
+						.map(event -> event.getString("phase"))
+						.collect(Collectors.toList()));
+
+		final RecordedEvent group = events.get("com.apicatalog.rdf.canon.HashGroup").get(0);
+		assertEquals(6, group.getLong("blankNodes"));
+		assertEquals(run.getLong("permutations"), group.getLong("permutations"));
+
+		final List<RecordedEvent> searches = events.get("com.apicatalog.rdf.canon.PermutationSearch");
+		assertEquals(run.getLong("permutations"), searches.stream().mapToLong(event -> event.getLong("permutations")).sum());
+		assertTrue(searches.stream().allMatch(event -> event.getString("blankNode").startsWith("_:")));
+	}
+}
@@ -0,0 +1,135 @@
+package com.apicatalog.rdf.canon;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Flow;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.MethodSource;
+
+import com.apicatalog.rdf.api.RdfQuadConsumer;
+
+@DisplayName("Asynchronous RDFC-1.0")
+class RdfCanonFlowTest {
+
+	@ParameterizedTest(name = "{0}")
+	@MethodSource("com.apicatalog.rdf.canon.RdfCanonTest#evalData")
+	void testProvideAsync(RdfCanonTestCase testCase)
+			throws IOException, InterruptedException, ExecutionException, TimeoutException {
+		final RdfCanon canon = RdfCanonTest.read(RdfCanon.create(testCase.hashAlgorithm), testCase);
+
+		final StringBuilder builder = new StringBuilder();
+		canon.provideAsync(builder::append, ForkJoinPool.commonPool()).get(10, TimeUnit.SECONDS);
+
+		RdfCanonTest.assertEval(testCase, RdfCanonTest.expected(testCase), builder.toString());
+	}
+
+	@Test
+	void testProvideAsyncError() throws InterruptedException, TimeoutException {
+
+		final RdfCanon canon = RdfCanonCheckpointTest.canon(RdfCanonCheckpointTest.DATASET, RdfCanonTicker.EMPTY);
+
+		final RdfQuadConsumer consumer = (subject, predicate, object, datatype, language, direction, graph) -> {
+			throw new AssertionError("consumer failed");
+		};
+
+		final ExecutionException e = assertThrows(ExecutionException.class,
+				() -> canon.provideAsync(consumer, ForkJoinPool.commonPool()).get(10, TimeUnit.SECONDS));
+
+		assertInstanceOf(AssertionError.class, e.getCause());
+	}
+
+	@Test
+	void testProvideAsyncRejected() {
+
+		final RdfCanon canon = RdfCanonCheckpointTest.canon(RdfCanonCheckpointTest.DATASET, RdfCanonTicker.EMPTY);
+
+		final Executor rejecting = task -> {
+			throw new RejectedExecutionException("shut down");
+		};
+
+		final RdfQuadConsumer consumer = (subject, predicate, object, datatype, language, direction, graph) -> null;
+
+		assertRejected(canon.provideAsync(consumer, rejecting));
+		assertRejected(canon.provideAsync(nquad -> {
+		}, rejecting));
+	}
+
+	static void assertRejected(final CompletableFuture<Void> future) {
+		assertTrue(future.isCompletedExceptionally());
+		final ExecutionException e = assertThrows(ExecutionException.class, future::get);
+		assertInstanceOf(RejectedExecutionException.class, e.getCause());
+	}
+
+	@ParameterizedTest(name = "{0}")
+	@MethodSource("com.apicatalog.rdf.canon.RdfCanonTest#evalData")
+	void testPublisher(RdfCanonTestCase testCase)
+			throws IOException, InterruptedException, ExecutionException, TimeoutException {
+		final RdfCanon canon = RdfCanonTest.read(RdfCanon.create(testCase.hashAlgorithm), testCase);
+
+		final OneByOneSubscriber subscriber = new OneByOneSubscriber();
+		canon.publisher(2, ForkJoinPool.commonPool()).subscribe(subscriber);
+
+		subscriber.completed.get(10, TimeUnit.SECONDS);
+
+		assertNull(subscriber.error);
+		RdfCanonTest.assertEval(testCase, RdfCanonTest.expected(testCase), subscriber.result.toString());
+	}
+
+	/**
+	 * Requests one batch at a time and asserts that no batch arrives without
+	 * demand.
+	 */
+	static class OneByOneSubscriber implements Flow.Subscriber<List<String>> {
+
+		final CompletableFuture<Void> completed = new CompletableFuture<>();
+		final StringBuilder result = new StringBuilder();
+
+		Flow.Subscription subscription;
+		int demand;
+		Throwable error;
+
+		@Override
+		public void onSubscribe(Flow.Subscription subscription) {
+			this.subscription = subscription;
+			demand = 1;
+			subscription.request(1);
+		}
+
+		@Override
+		public void onNext(List<String> batch) {
+			assertEquals(1, demand);
+			assertTrue(batch.size() <= 2);
+			demand--;
+			batch.forEach(result::append);
+			demand++;
+			subscription.request(1);
+		}
+
+		@Override
+		public void onError(Throwable throwable) {
+			error = throwable;
+			completed.completeExceptionally(throwable);
+		}
+
+		@Override
+		public void onComplete() {
+			completed.complete(null);
+		}
+	}
+}
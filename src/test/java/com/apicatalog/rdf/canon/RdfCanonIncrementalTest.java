@@ -0,0 +1,117 @@
+package com.apicatalog.rdf.canon;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.MethodSource;
+
+@DisplayName("Incremental RDFC-1.0")
+class RdfCanonIncrementalTest {
+
+	@ParameterizedTest(name = "{0}")
+	@MethodSource("com.apicatalog.rdf.canon.RdfCanonTest#evalData")
+	void testAddRemove(RdfCanonTestCase testCase) throws IOException {
+
+		final List<String[]> quads = RdfCanonIsomorphismTest.read(testCase);
+
+		final RdfCanon canon = RdfCanon.create(testCase.hashAlgorithm).incremental(true);
+
+		// the first half, then the rest
+		final int half = quads.size() / 2;
+		quads.subList(0, half).forEach(quad -> add(canon, quad));
+		assertEquals(scratch(testCase.hashAlgorithm, quads.subList(0, half)), output(canon));
+
+		quads.subList(half, quads.size()).forEach(quad -> add(canon, quad));
+		RdfCanonTest.assertEval(testCase, RdfCanonTest.expected(testCase), output(canon));
+
+		// an unrelated edge added and removed again
+		final String[] extra = RdfCanonIsomorphismTest.edge("_:extra", "http://ex/o");
+		add(canon, extra);
+		remove(canon, extra);
+		RdfCanonTest.assertEval(testCase, RdfCanonTest.expected(testCase), output(canon));
+
+		// remove every other quad, duplicates included
+		final Set<List<String>> removed = new HashSet<>();
+		for (int i = 0; i < quads.size(); i += 2) {
+			remove(canon, quads.get(i));
+			removed.add(Arrays.asList(quads.get(i)));
+		}
+
+		final List<String[]> rest = new ArrayList<>();
+		for (final String[] quad : quads) {
+			if (!removed.contains(Arrays.asList(quad))) {
+				rest.add(quad);
+			}
+		}
+		assertEquals(scratch(testCase.hashAlgorithm, rest), output(canon));
+	}
+
+	@Test
+	void testDuplicates() {
+		final List<String[]> dataset = List.of(
+				RdfCanonIsomorphismTest.edge("_:a", "_:b"),
+				RdfCanonIsomorphismTest.edge("_:b", "_:a"));
+
+		final RdfCanonMetrics distinct = RdfCanonMetrics.create();
+		final RdfCanon expected = RdfCanon.create("SHA-256", RdfCanonTicker.EMPTY, distinct);
+		dataset.forEach(quad -> add(expected, quad));
+
+		// the first quad twice
+		final RdfCanonMetrics duplicates = RdfCanonMetrics.create();
+		final RdfCanon canon = RdfCanon.create("SHA-256", RdfCanonTicker.EMPTY, duplicates).incremental(true);
+		dataset.forEach(quad -> add(canon, quad));
+		add(canon, dataset.get(0));
+
+		assertEquals(2, canon.size());
+		assertEquals(output(expected), output(canon));
+		// a duplicate is not hashed twice by the first degree hashes
+		assertEquals(distinct.bytesDigested(), duplicates.bytesDigested());
+
+		// a single removal removes the duplicate too
+		remove(canon, dataset.get(0));
+		assertEquals(scratch("SHA-256", dataset.subList(1, 2)), output(canon));
+	}
+
+	@Test
+	void testRelabel() {
+		final RdfCanon canon = RdfCanon.create("SHA-256").incremental(true);
+
+		add(canon, RdfCanonIsomorphismTest.edge("_:a", "_:b"));
+		add(canon, RdfCanonIsomorphismTest.edge("_:b", "_:c"));
+		output(canon);
+
+		// all the labels are shifted by a new head of the chain
+		add(canon, RdfCanonIsomorphismTest.edge("_:z", "_:a"));
+		assertEquals(scratch("SHA-256", List.of(
+				RdfCanonIsomorphismTest.edge("_:a", "_:b"),
+				RdfCanonIsomorphismTest.edge("_:b", "_:c"),
+				RdfCanonIsomorphismTest.edge("_:z", "_:a"))), output(canon));
+	}
+
+	static void add(RdfCanon canon, String[] quad) {
+		canon.quad(quad[0], quad[1], quad[2], quad[3], quad[4], quad[5], quad[6]);
+	}
+
+	static void remove(RdfCanon canon, String[] quad) {
+		canon.remove(quad[0], quad[1], quad[2], quad[3], quad[4], quad[5], quad[6]);
+	}
+
+	static String output(RdfCanon canon) {
+		final StringBuilder builder = new StringBuilder();
+		canon.provide(builder::append);
+		return builder.toString();
+	}
+
+	static String scratch(String hashAlgorithm, List<String[]> quads) {
+		return output(RdfCanonIsomorphismTest.canon(hashAlgorithm, quads, ""));
+	}
+}
@@ -0,0 +1,113 @@
+package com.apicatalog.rdf.canon;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assertions.fail;
+
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.MethodSource;
+
+import com.apicatalog.rdf.api.RdfConsumerException;
+import com.apicatalog.rdf.api.RdfQuadConsumer;
+import com.apicatalog.rdf.nquads.NQuadsReader;
+import com.apicatalog.rdf.nquads.NQuadsReaderException;
+
+@DisplayName("RDFC-1.0 Isomorphism")
+class RdfCanonIsomorphismTest {
+
+	@ParameterizedTest(name = "{0}")
+	@MethodSource("com.apicatalog.rdf.canon.RdfCanonTest#evalData")
+	void testRelabeled(RdfCanonTestCase testCase) throws IOException {
+
+		final List<String[]> quads = read(testCase);
+
+		final List<String[]> shuffled = new ArrayList<>(quads);
+		Collections.shuffle(shuffled, new Random(42));
+
+		assertTrue(RdfCanon.isIsomorphic(
+				canon(testCase.hashAlgorithm, quads, ""),
+				canon(testCase.hashAlgorithm, shuffled, "x")));
+	}
+
+	@ParameterizedTest(name = "{0}")
+	@MethodSource("com.apicatalog.rdf.canon.RdfCanonTest#evalData")
+	void testDifferent(RdfCanonTestCase testCase) throws IOException {
+
+		final List<String[]> quads = read(testCase);
+
+		final List<String[]> extended = new ArrayList<>(quads);
+		extended.add(edge("_:extra", "http://ex/o"));
+
+		assertFalse(RdfCanon.isIsomorphic(
+				canon(testCase.hashAlgorithm, quads, ""),
+				canon(testCase.hashAlgorithm, extended, "")));
+	}
+
+	@Test
+	void testSameFirstDegree() {
+
+		// two 3-cycles vs. one 6-cycle, all the first degree hashes are equal
+		final List<String[]> triangles = List.of(
+				edge("_:a", "_:b"), edge("_:b", "_:c"), edge("_:c", "_:a"),
+				edge("_:d", "_:e"), edge("_:e", "_:f"), edge("_:f", "_:d"));
+
+		final List<String[]> hexagon = List.of(
+				edge("_:a", "_:b"), edge("_:b", "_:c"), edge("_:c", "_:d"),
+				edge("_:d", "_:e"), edge("_:e", "_:f"), edge("_:f", "_:a"));
+
+		assertFalse(RdfCanon.isIsomorphic(canon("SHA-256", triangles, ""), canon("SHA-256", hexagon, "")));
+		assertTrue(RdfCanon.isIsomorphic(canon("SHA-256", hexagon, ""), canon("SHA-256", hexagon, "y")));
+	}
+
+	@Test
+	void testAlgorithmMismatch() {
+		assertThrows(IllegalArgumentException.class,
+				() -> RdfCanon.isIsomorphic(RdfCanon.create("SHA-256"), RdfCanon.create("SHA-384")));
+	}
+
+	static String[] edge(String subject, String object) {
+		return new String[] { subject, "http://ex/p", object, null, null, null, null };
+	}
+
+	static List<String[]> read(RdfCanonTestCase testCase) throws IOException {
+		final List<String[]> quads = new ArrayList<>();
+		try (final Reader reader = new InputStreamReader(RdfCanonTest.class.getResourceAsStream(testCase.input))) {
+			new NQuadsReader(reader).provide(new RdfQuadConsumer() {
+				@Override
+				public RdfQuadConsumer quad(String subject, String predicate, String object, String datatype,
+						String language, String direction, String graph) {
+					quads.add(new String[] { subject, predicate, object, datatype, language, direction, graph });
+					return this;
+				}
+			});
+		} catch (NQuadsReaderException | RdfConsumerException e) {
+			fail(e);
+		}
+		return quads;
+	}
+
+	static RdfCanon canon(String hashAlgorithm, List<String[]> quads, String prefix) {
+		final RdfCanon canon = RdfCanon.create(hashAlgorithm);
+		for (final String[] quad : quads) {
+			canon.quad(relabel(quad[0], prefix), quad[1],
+					quad[3] == null ? relabel(quad[2], prefix) : quad[2],
+					quad[3], quad[4], quad[5], relabel(quad[6], prefix));
+		}
+		return canon;
+	}
+
+	static String relabel(String value, String prefix) {
+		return value != null && value.startsWith("_:") ? "_:" + prefix + value.substring(2) : value;
+	}
+}
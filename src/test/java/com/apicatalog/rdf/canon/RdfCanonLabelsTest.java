@@ -0,0 +1,64 @@
+package com.apicatalog.rdf.canon;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+@DisplayName("RDFC-1.0 Labeling")
+class RdfCanonLabelsTest {
+
+	@Test
+	void testLabel() throws IOException {
+
+		for (final RdfCanonTestCase testCase : RdfCanonVerifyTest.testCases()) {
+
+			final List<String[]> quads = RdfCanonIsomorphismTest.read(testCase);
+
+			final RdfCanon expected = RdfCanonVerifyTest.canon(quads);
+			RdfCanonIncrementalTest.output(expected);
+
+			final RdfCanonLabels labels = RdfCanonVerifyTest.canon(quads).label();
+
+			assertEquals(expected.mapping(), labels.mapping(), testCase.id);
+			assertEquals(List.copyOf(expected.mapping().keySet()), labels.ids(), testCase.id);
+
+			for (final Map.Entry<String, String> entry : expected.mapping().entrySet()) {
+				assertEquals(entry.getValue(), labels.label(entry.getKey()), testCase.id);
+				assertEquals(entry.getKey(), labels.id(labels.indexOf(entry.getKey())), testCase.id);
+			}
+		}
+	}
+
+	@Test
+	void testUnknown() {
+
+		final RdfCanon canon = RdfCanonVerifyTest.canon(RdfCanonCheckpointTest.DATASET);
+
+		final RdfCanonLabels labels = canon.label();
+
+		assertEquals(canon.mapping().size(), labels.size());
+		assertEquals(-1, labels.indexOf("_:unknown"));
+		assertNull(labels.label("_:unknown"));
+	}
+
+	@Test
+	void testResultCache() {
+
+		final RdfCanonResultCache cache = RdfCanonResultCache.create(10, 1024 * 1024, Duration.ofMinutes(1));
+
+		final RdfCanon canon = RdfCanonVerifyTest.canon(RdfCanonCheckpointTest.DATASET).resultCache(cache);
+		final Map<String, String> mapping = canon.result().mapping();
+
+		final RdfCanon other = RdfCanonVerifyTest.canon(RdfCanonCheckpointTest.DATASET).resultCache(cache);
+
+		assertEquals(mapping, other.label().mapping());
+		assertEquals(mapping, other.mapping());
+	}
+}
@@ -0,0 +1,68 @@
+package com.apicatalog.rdf.canon;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import com.apicatalog.rdf.api.RdfConsumerException;
+
+@DisplayName("RDFC-1.0 Metrics")
+class RdfCanonMetricsTest {
+
+	static final List<String[]> HEXAGON = List.of(
+			RdfCanonIsomorphismTest.edge("_:a", "_:b"),
+			RdfCanonIsomorphismTest.edge("_:b", "_:c"),
+			RdfCanonIsomorphismTest.edge("_:c", "_:d"),
+			RdfCanonIsomorphismTest.edge("_:d", "_:e"),
+			RdfCanonIsomorphismTest.edge("_:e", "_:f"),
+			RdfCanonIsomorphismTest.edge("_:f", "_:a"));
+
+	@Test
+	void testNDegree() {
+		final RdfCanonMetrics metrics = RdfCanonMetrics.create();
+
+		final RdfCanon canon = RdfCanon.create("SHA-256", RdfCanonTicker.EMPTY, metrics);
+		HEXAGON.forEach(quad -> RdfCanonIncrementalTest.add(canon, quad));
+		RdfCanonIncrementalTest.output(canon);
+
+		assertEquals(1, metrics.runs());
+		assertEquals(6, metrics.quads());
+		assertEquals(6, metrics.firstDegreeHashes());
+		assertEquals(6, metrics.maxTiedGroup());
+		assertTrue(metrics.maxDepth() > 1);
+		assertTrue(metrics.relatedHashes() > 0);
+		assertTrue(metrics.permutations() > 0);
+		assertTrue(metrics.prunedPermutations() <= metrics.permutations());
+		assertEquals(metrics.permutations(), metrics.issuerCopies());
+		assertTrue(metrics.bytesDigested() > 0);
+		assertTrue(metrics.nDegreeIdsNanos() > 0);
+
+		metrics.reset();
+		assertTrue(metrics.toMap().values().stream().allMatch(value -> value == 0));
+	}
+
+	@Test
+	void testSimple() throws RdfConsumerException {
+		final RdfCanonMetrics metrics = RdfCanonMetrics.create();
+
+		final RdfCanonicalizer canonicalizer = RdfCanonicalizer.create("SHA-256", () -> RdfCanonTicker.EMPTY, 1,
+				metrics);
+
+		for (int i = 0; i < 3; i++) {
+			canonicalizer.canonize(consumer -> consumer
+					.quad("_:x", "http://ex/p", "_:y", null, null, null, null)
+					.quad("http://ex/s", "http://ex/p", "http://ex/o", null, null, null, null));
+		}
+
+		assertEquals(3, metrics.runs());
+		assertEquals(6, metrics.quads());
+		assertEquals(6, metrics.firstDegreeHashes());
+		assertEquals(0, metrics.maxTiedGroup());
+		assertEquals(0, metrics.maxDepth());
+		assertEquals(0, metrics.permutations());
+	}
+}
@@ -0,0 +1,51 @@
+package com.apicatalog.rdf.canon;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+@DisplayName("RDFC-1.0 Profile")
+class RdfCanonProfileTest {
+
+	@Test
+	void testHexagon() {
+		final RdfCanonProfile profile = RdfCanonProfile.create();
+
+		final RdfCanon canon = RdfCanon.create("SHA-256").profile(profile);
+		RdfCanonMetricsTest.HEXAGON.forEach(quad -> RdfCanonIncrementalTest.add(canon, quad));
+		RdfCanonIncrementalTest.output(canon);
+
+		assertEquals(1, profile.groups().size());
+
+		final RdfCanonProfile.Group group = profile.groups().get(0);
+		assertEquals(List.of("_:a", "_:b", "_:c", "_:d", "_:e", "_:f"), group.blankNodes());
+
+		final List<RdfCanonProfile.Search> searches = profile.searches();
+		assertEquals(6, searches.size());
+		assertEquals(group.permutations(), searches.stream().mapToLong(RdfCanonProfile.Search::permutations).sum());
+
+		for (final RdfCanonProfile.Search search : searches) {
+			assertEquals(group.hash(), search.hash());
+			assertEquals(List.of("http://ex/p"), search.predicates());
+			assertTrue(search.recursions() > 0);
+			assertTrue(search.depth() > 1);
+		}
+
+		// the most expensive first
+		for (int i = 1; i < searches.size(); i++) {
+			assertTrue(searches.get(i - 1).nanos() >= searches.get(i).nanos());
+		}
+
+		final String report = profile.report(3);
+		assertTrue(report.startsWith("RDFC-1.0 profile: 1 hash groups, 6 searches"), report);
+		assertTrue(report.contains("_:a, _:b, _:c, _:d, _:e, _:f"), report);
+		assertTrue(report.contains("predicates: http://ex/p"), report);
+
+		profile.clear();
+		assertTrue(profile.searches().isEmpty());
+	}
+}
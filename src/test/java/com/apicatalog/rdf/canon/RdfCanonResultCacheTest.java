@@ -0,0 +1,140 @@
+package com.apicatalog.rdf.canon;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+@DisplayName("RDFC-1.0 Result Cache")
+class RdfCanonResultCacheTest {
+
+	static final List<String[]> DATASET = List.of(
+			new String[] { "_:a", "http://ex/p", "_:b" },
+			new String[] { "_:b", "http://ex/p", "_:c" },
+			new String[] { "_:c", "http://ex/p", "_:a" },
+			new String[] { "_:a", "http://ex/name", "A" },
+			new String[] { "http://ex/s", "http://ex/p", "_:c" });
+
+	@Test
+	void testOrderIndependent() {
+
+		final RdfCanonResultCache cache = RdfCanonResultCache.create(10, 1024 * 1024, Duration.ofMinutes(1));
+
+		final RdfCanon first = canon(cache, DATASET);
+		final String expected = provide(first);
+
+		final List<String[]> reversed = new ArrayList<>(DATASET);
+		Collections.reverse(reversed);
+
+		final RdfCanon second = canon(cache, reversed);
+
+		assertEquals(expected, provide(second));
+		assertEquals(first.mapping(), second.mapping());
+		assertEquals(1, cache.hits());
+		assertEquals(1, cache.misses());
+		assertEquals(1, cache.size());
+		assertTrue(cache.weight() > 0);
+	}
+
+	@Test
+	void testRelabeledIsMiss() {
+
+		final RdfCanonResultCache cache = RdfCanonResultCache.create(10, 1024 * 1024, Duration.ofMinutes(1));
+
+		final String expected = provide(canon(cache, DATASET));
+
+		final List<String[]> relabeled = new ArrayList<>();
+		for (final String[] quad : DATASET) {
+			relabeled.add(new String[] { quad[0].replace("_:", "_:x"), quad[1], quad[2].replace("_:", "_:x") });
+		}
+
+		final RdfCanon canon = canon(cache, relabeled);
+
+		assertEquals(expected, provide(canon));
+		assertEquals(Map.of("_:xa", "_:c14n0", "_:xb", "_:c14n2", "_:xc", "_:c14n1").keySet(),
+				canon.mapping().keySet());
+		assertEquals(0, cache.hits());
+		assertEquals(2, cache.size());
+	}
+
+	@Test
+	void testExpiration() {
+
+		final RdfCanonResultCache cache = RdfCanonResultCache.create(10, 1024 * 1024, Duration.ofNanos(1));
+
+		final String expected = provide(canon(cache, DATASET));
+		assertEquals(expected, provide(canon(cache, DATASET)));
+
+		assertEquals(0, cache.hits());
+		assertEquals(1, cache.expirations());
+	}
+
+	@Test
+	void testWeightEviction() {
+
+		final RdfCanonResultCache cache = RdfCanonResultCache.create(10, 1024 * 1024, Duration.ofMinutes(1));
+		provide(canon(cache, DATASET));
+
+		final long weight = cache.weight();
+
+		final RdfCanonResultCache small = RdfCanonResultCache.create(10, weight + weight / 2, Duration.ofMinutes(1));
+
+		provide(canon(small, DATASET));
+		provide(canon(small, DATASET.subList(1, DATASET.size())));
+
+		assertEquals(1, small.size());
+		assertEquals(1, small.evictions());
+		assertTrue(small.weight() <= weight + weight / 2);
+	}
+
+	@Test
+	void testDisabledAfterEdit() {
+
+		final RdfCanonResultCache cache = RdfCanonResultCache.create(10, 1024 * 1024, Duration.ofMinutes(1));
+
+		final RdfCanon canon = canon(cache, DATASET);
+		provide(canon);
+
+		canon.resultCache(null);
+		canon.remove("_:a", "http://ex/p", "_:b", null, null, null, null);
+		canon.quad("_:d", "http://ex/p", "_:a", null, null, null, null);
+
+		final List<String[]> edited = new ArrayList<>(DATASET.subList(1, DATASET.size()));
+		edited.add(new String[] { "_:d", "http://ex/p", "_:a" });
+
+		final RdfCanon expected = canon(null, edited);
+
+		assertEquals(provide(expected), provide(canon));
+		assertEquals(expected.mapping(), canon.mapping());
+		assertEquals(expected.mapping(), canon.result().mapping());
+
+		final StringBuilder result = new StringBuilder();
+		canon.result().provide(result::append);
+		assertEquals(provide(expected), result.toString());
+	}
+
+	static RdfCanon canon(RdfCanonResultCache cache, List<String[]> quads) {
+		final RdfCanon canon = RdfCanon.create("SHA-256").resultCache(cache);
+		for (final String[] quad : quads) {
+			if (quad[2].startsWith("_:") || quad[2].startsWith("http:")) {
+				canon.quad(quad[0], quad[1], quad[2], null, null, null, null);
+			} else {
+				canon.quad(quad[0], quad[1], quad[2], "http://www.w3.org/2001/XMLSchema#string", null, null, null);
+			}
+		}
+		return canon;
+	}
+
+	static String provide(RdfCanon canon) {
+		final StringBuilder builder = new StringBuilder();
+		canon.provide(builder::append);
+		return builder.toString();
+	}
+}
@@ -0,0 +1,43 @@
+package com.apicatalog.rdf.canon;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+@DisplayName("RDFC-1.0 Multiple Hash Algorithms")
+class RdfCanonResultsTest {
+
+	@Test
+	void testSharedIngestion() throws IOException {
+
+		final List<RdfCanonTestCase> testCases = RdfCanonTest.evalData()
+				.filter(testCase -> RdfCanonTestCase.Type.RDFC10NegativeEvalTest != testCase.type)
+				.collect(Collectors.toList());
+
+		for (final RdfCanonTestCase testCase : testCases) {
+
+			final List<String[]> quads = RdfCanonIsomorphismTest.read(testCase);
+
+			final RdfCanon canon = RdfCanon.create("SHA-256");
+			quads.forEach(quad -> RdfCanonIncrementalTest.add(canon, quad));
+
+			final Map<String, RdfCanonResult> results = canon.results("SHA-256", "SHA-384");
+
+			assertEquals(List.of("SHA-256", "SHA-384"), List.copyOf(results.keySet()));
+
+			for (final var entry : results.entrySet()) {
+				final StringBuilder output = new StringBuilder();
+				entry.getValue().provide(output::append);
+
+				assertEquals(RdfCanonIncrementalTest.scratch(entry.getKey(), quads), output.toString(),
+						testCase.id + " " + entry.getKey());
+			}
+		}
+	}
+}
@@ -1,6 +1,8 @@
 package com.apicatalog.rdf.canon;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.junit.jupiter.api.Assertions.fail;
 
@@ -11,11 +13,17 @@ import java.io.InputStreamReader;
 import java.io.Reader;
 import java.io.StringReader;
 import java.io.StringWriter;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.Pipe;
+import java.nio.channels.WritableByteChannel;
 import java.nio.charset.StandardCharsets;
 import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
 import java.util.stream.Stream;
 
 import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.MethodSource;
 
@@ -38,6 +46,89 @@ class RdfCanonTest {
 		execute(RdfCanon.create(testCase.hashAlgorithm, new RdfCanonTimeTicker(300)), testCase);
 	}
 
+	@ParameterizedTest(name = "{0}")
+	@MethodSource("data")
+	void testCanonizeParallel(RdfCanonTestCase testCase) throws IOException {
+		execute(RdfCanon.create(testCase.hashAlgorithm, new RdfCanonTimeTicker(300))
+				.parallel(ForkJoinPool.commonPool()), testCase);
+	}
+
+	@ParameterizedTest(name = "{0}")
+	@MethodSource("evalData")
+	void testCanonizeToChannel(RdfCanonTestCase testCase) throws IOException {
+		final RdfCanon canon = read(RdfCanon.create(testCase.hashAlgorithm), testCase);
+
+		final ByteArrayOutputStream os = new ByteArrayOutputStream();
+		canon.provide(Channels.newChannel(os));
+
+		assertEval(testCase, expected(testCase), os.toString(StandardCharsets.UTF_8));
+	}
+
+	@Test
+	void testNonBlockingChannel() throws IOException {
+		final RdfCanon canon = RdfCanonCheckpointTest.canon(RdfCanonMetricsTest.HEXAGON, RdfCanonTicker.EMPTY);
+
+		final Pipe pipe = Pipe.open();
+		try {
+			pipe.sink().configureBlocking(false);
+			assertThrows(IllegalArgumentException.class, () -> canon.provide(pipe.sink()));
+
+		} finally {
+			pipe.sink().close();
+			pipe.source().close();
+		}
+
+		// a channel accepting no bytes fails instead of spinning
+		final WritableByteChannel full = new WritableByteChannel() {
+
+			@Override
+			public int write(ByteBuffer src) {
+				return 0;
+			}
+
+			@Override
+			public boolean isOpen() {
+				return true;
+			}
+
+			@Override
+			public void close() {
+			}
+		};
+		assertThrows(IOException.class, () -> canon.provide(full));
+
+		// nothing is left in the reused buffer
+		final ByteArrayOutputStream os = new ByteArrayOutputStream();
+		canon.provide(Channels.newChannel(os));
+		assertEquals(RdfCanonIncrementalTest.output(canon), os.toString(StandardCharsets.UTF_8));
+	}
+
+	@ParameterizedTest(name = "{0}")
+	@MethodSource("evalData")
+	void testCanonizeToStream(RdfCanonTestCase testCase) throws IOException {
+		final RdfCanon canon = read(RdfCanon.create(testCase.hashAlgorithm), testCase);
+
+		final ByteArrayOutputStream os = new ByteArrayOutputStream();
+		canon.provide(os);
+
+		assertEval(testCase, expected(testCase), os.toString(StandardCharsets.UTF_8));
+	}
+
+	static final RdfCanon read(RdfCanon canon, RdfCanonTestCase testCase) throws IOException {
+		try (final Reader reader = new InputStreamReader(RdfCanonTest.class.getResourceAsStream(testCase.input))) {
+			new NQuadsReader(reader).provide(canon);
+		} catch (NQuadsReaderException | RdfConsumerException e) {
+			fail(e);
+		}
+		return canon;
+	}
+
+	static final String expected(RdfCanonTestCase testCase) throws IOException {
+		try (final InputStream is = RdfCanonTest.class.getResourceAsStream(testCase.expected)) {
+			return isToString(is);
+		}
+	}
+
 	static final void execute(RdfCanon canon, RdfCanonTestCase testCase) throws IOException {
 		try (final Reader reader = new InputStreamReader(RdfCanonTest.class.getResourceAsStream(testCase.input))) {
 			new NQuadsReader(reader).provide(canon);
@@ -68,7 +159,7 @@ class RdfCanonTest {
 				break;
 
 			case RDFC10MapTest:
-				assertMap(testCase, canon, expected);
+				assertMap(testCase, canon.mapping(), expected);
 				break;
 
 			case RDFC10NegativeEvalTest:
@@ -83,9 +174,7 @@ class RdfCanonTest {
 		}
 	}
 
-	static final void assertMap(RdfCanonTestCase testCase, RdfCanon canon, String expected) {
-
-		final Map<String, String> resultMap = canon.mapping();
+	static final void assertMap(RdfCanonTestCase testCase, Map<String, String> resultMap, String expected) {
 
 		boolean match = false;
 
@@ -157,6 +246,10 @@ class RdfCanonTest {
 		return load("manifest.jsonld");
 	}
 
+	static final Stream<RdfCanonTestCase> evalData() throws IOException {
+		return data().filter(testCase -> RdfCanonTestCase.Type.RDFC10EvalTest == testCase.type);
+	}
+
 	static final Stream<RdfCanonTestCase> load(String name) throws IOException {
 		try (final InputStream is = RdfCanonTest.class.getResourceAsStream(name)) {
 			final JsonParser parser = Json.createParser(is);
@@ -0,0 +1,26 @@
+package com.apicatalog.rdf.canon;
+
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+@DisplayName("RDFC-1.0 Time Ticker")
+class RdfCanonTimeTickerTest {
+
+	@Test
+	void testCheckEvery() throws InterruptedException {
+		final RdfCanonTimeTicker ticker = new RdfCanonTimeTicker(1);
+
+		// starts the clock
+		ticker.tick();
+		Thread.sleep(20);
+
+		// the clock is not read until the next check
+		for (int i = 1; i < RdfCanonTimeTicker.CHECK_EVERY; i++) {
+			ticker.tick();
+		}
+
+		assertThrows(IllegalStateException.class, ticker::tick);
+	}
+}
@@ -0,0 +1,120 @@
+package com.apicatalog.rdf.canon;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+@DisplayName("RDFC-1.0 Verification")
+class RdfCanonVerifyTest {
+
+	@Test
+	void testVerify() throws IOException {
+
+		for (final RdfCanonTestCase testCase : testCases()) {
+
+			final List<String[]> quads = RdfCanonIsomorphismTest.read(testCase);
+			final String expected = RdfCanonIncrementalTest.scratch("SHA-256", quads);
+
+			assertTrue(canon(quads).verify(new StringReader(expected)), testCase.id);
+			assertTrue(canon(quads).verify(new ByteArrayInputStream(expected.getBytes(StandardCharsets.UTF_8))),
+					testCase.id);
+
+			final List<String> lines = lines(expected);
+
+			// a missing quad
+			assertFalse(canon(quads).verify(new StringReader(String.join("", lines.subList(1, lines.size())))),
+					testCase.id);
+
+			// a missing line terminator
+			assertFalse(canon(quads).verify(new StringReader(expected.substring(0, expected.length() - 1))),
+					testCase.id);
+
+			if (lines.size() > 1) {
+				final List<String> reversed = new ArrayList<>(lines);
+				Collections.reverse(reversed);
+				assertFalse(canon(quads).verify(new StringReader(String.join("", reversed))), testCase.id);
+			}
+		}
+	}
+
+	@Test
+	void testVerifyTampered() throws IOException {
+
+		final List<String[]> quads = RdfCanonCheckpointTest.DATASET;
+		final String expected = RdfCanonIncrementalTest.scratch("SHA-256", quads);
+
+		assertTrue(canon(quads).verify(new StringReader(expected)));
+
+		// a blank node label not issued by the canonicalization
+		assertFalse(canon(quads).verify(new StringReader(expected.replace("_:c14n0 ", "_:c14n99 "))));
+		assertFalse(canon(quads).verify(new StringReader(expected + expected)));
+		assertFalse(canon(quads).verify(new StringReader("")));
+	}
+
+	@Test
+	void testVerifyHashes() throws IOException, NoSuchAlgorithmException {
+
+		for (final RdfCanonTestCase testCase : testCases()) {
+
+			final List<String[]> quads = RdfCanonIsomorphismTest.read(testCase);
+			final List<String> hashes = hashes(RdfCanonIncrementalTest.scratch("SHA-256", quads));
+
+			assertTrue(canon(quads).verifyHashes(hashes), testCase.id);
+
+			if (hashes.size() > 1) {
+				final List<String> reversed = new ArrayList<>(hashes);
+				Collections.reverse(reversed);
+				assertFalse(canon(quads).verifyHashes(reversed), testCase.id);
+			}
+
+			final List<String> tampered = new ArrayList<>(hashes);
+			tampered.set(0, hashes("<urn:tampered> <urn:p> <urn:o> .\n").get(0));
+			assertFalse(canon(quads).verifyHashes(tampered), testCase.id);
+		}
+	}
+
+	static List<RdfCanonTestCase> testCases() throws IOException {
+		final List<RdfCanonTestCase> testCases = new ArrayList<>();
+		for (final RdfCanonTestCase testCase : RdfCanonTest.evalData()
+				.filter(testCase -> RdfCanonTestCase.Type.RDFC10NegativeEvalTest != testCase.type)
+				.collect(Collectors.toList())) {
+			if (!RdfCanonIsomorphismTest.read(testCase).isEmpty()) {
+				testCases.add(testCase);
+			}
+		}
+		return testCases;
+	}
+
+	static RdfCanon canon(final List<String[]> quads) {
+		final RdfCanon canon = RdfCanon.create("SHA-256");
+		quads.forEach(quad -> RdfCanonIncrementalTest.add(canon, quad));
+		return canon;
+	}
+
+	static List<String> lines(final String nquads) {
+		return Arrays.stream(nquads.split("(?<=\n)")).filter(line -> !line.isEmpty()).collect(Collectors.toList());
+	}
+
+	static List<String> hashes(final String nquads) throws NoSuchAlgorithmException {
+		final MessageDigest digest = MessageDigest.getInstance("SHA-256");
+		final List<String> hashes = new ArrayList<>();
+		for (final String line : lines(nquads)) {
+			hashes.add(RdfCanon.hex(digest.digest(line.getBytes(StandardCharsets.UTF_8))));
+		}
+		return hashes;
+	}
+}
@@ -0,0 +1,210 @@
+package com.apicatalog.rdf.canon;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+@DisplayName("RDFC-1.0 Workers")
+class RdfCanonWorkersTest {
+
+	static final String XSD_STRING = "http://www.w3.org/2001/XMLSchema#string";
+
+	@Test
+	void testProcesses() throws IOException {
+
+		final List<RdfCanonTestCase> testCases = RdfCanonTest.evalData()
+				.filter(testCase -> RdfCanonTestCase.Type.RDFC10NegativeEvalTest != testCase.type)
+				.collect(Collectors.toList());
+
+		try (final RdfCanonWorkers workers = RdfCanonWorkers.processes(2)) {
+			for (final RdfCanonTestCase testCase : testCases) {
+				RdfCanonTest.execute(RdfCanon.create(testCase.hashAlgorithm).workers(workers), testCase);
+			}
+		}
+	}
+
+	@Test
+	void testTransport() {
+
+		final String expected = RdfCanonIncrementalTest.scratch("SHA-256", RdfCanonCheckpointTest.DATASET);
+
+		final RdfCanonWorkers workers = RdfCanonWorkers.of(Collections.nCopies(3, RdfCanonWorker::execute));
+
+		final RdfCanon canon = RdfCanonCheckpointTest.canon(RdfCanonCheckpointTest.DATASET, RdfCanonTicker.EMPTY)
+				.workers(workers);
+
+		assertEquals(expected, RdfCanonIncrementalTest.output(canon));
+	}
+
+	@Test
+	void testLargeLiteral() throws IOException {
+
+		final List<String[]> dataset = new ArrayList<>(RdfCanonCheckpointTest.DATASET);
+		dataset.add(new String[] { "_:x", "http://ex/large", "\u00e9".repeat(64 * 1024), XSD_STRING, null, null,
+				null });
+
+		final String expected = RdfCanonIncrementalTest.scratch("SHA-256", dataset);
+
+		try (final RdfCanonWorkers workers = RdfCanonWorkers.processes(1)) {
+			final RdfCanon canon = RdfCanonCheckpointTest.canon(dataset, RdfCanonTicker.EMPTY).workers(workers);
+			assertEquals(expected, RdfCanonIncrementalTest.output(canon));
+		}
+	}
+
+	@Test
+	void testKilledWorker() throws IOException {
+
+		final String expected = RdfCanonIncrementalTest.scratch("SHA-256", RdfCanonCheckpointTest.DATASET);
+
+		final Set<ProcessHandle> others = ProcessHandle.current().children().collect(Collectors.toSet());
+
+		try (final RdfCanonWorkers workers = RdfCanonWorkers.processes(2)) {
+
+			assertEquals(expected, RdfCanonIncrementalTest.output(
+					RdfCanonCheckpointTest.canon(RdfCanonCheckpointTest.DATASET, RdfCanonTicker.EMPTY).workers(workers)));
+
+			final ProcessHandle worker = ProcessHandle.current().children()
+					.filter(process -> !others.contains(process))
+					.findFirst()
+					.orElseThrow();
+
+			worker.destroyForcibly();
+			worker.onExit().join();
+
+			int failures = 0;
+
+			for (int i = 0; i < 5; i++) {
+				final RdfCanon canon = RdfCanonCheckpointTest.canon(RdfCanonCheckpointTest.DATASET, RdfCanonTicker.EMPTY)
+						.workers(workers);
+				try {
+					assertEquals(expected, RdfCanonIncrementalTest.output(canon));
+				} catch (UncheckedIOException e) {
+					failures++;
+				}
+			}
+
+			// only the run which has found the worker dead fails
+			assertTrue(failures <= 1);
+		}
+	}
+
+	@Test
+	void testDiscardedTransport() {
+
+		final String expected = RdfCanonIncrementalTest.scratch("SHA-256", RdfCanonCheckpointTest.DATASET);
+
+		final AtomicInteger sent = new AtomicInteger();
+		final AtomicBoolean closed = new AtomicBoolean();
+
+		final RdfCanonWorkers.Transport broken = new RdfCanonWorkers.Transport() {
+
+			@Override
+			public byte[] send(byte[] unit) throws IOException {
+				if (sent.incrementAndGet() == 1) {
+					throw new IOException("connection reset");
+				}
+				// a desynchronized frame
+				return new byte[0];
+			}
+
+			@Override
+			public void close() {
+				closed.set(true);
+			}
+		};
+
+		final RdfCanonWorkers workers = RdfCanonWorkers.of(List.of(broken, RdfCanonWorker::execute));
+
+		final RdfCanon failed = RdfCanonCheckpointTest.canon(RdfCanonCheckpointTest.DATASET, RdfCanonTicker.EMPTY)
+				.workers(workers);
+
+		assertThrows(UncheckedIOException.class, () -> RdfCanonIncrementalTest.output(failed));
+
+		for (int i = 0; i < 3; i++) {
+			final RdfCanon canon = RdfCanonCheckpointTest.canon(RdfCanonCheckpointTest.DATASET, RdfCanonTicker.EMPTY)
+					.workers(workers);
+			assertEquals(expected, RdfCanonIncrementalTest.output(canon));
+		}
+
+		assertEquals(1, sent.get());
+		assertTrue(closed.get());
+	}
+
+	@Test
+	void testBudget() {
+
+		final RdfCanonWorkers workers = RdfCanonWorkers.of(List.of(RdfCanonWorker::execute));
+
+		// the work done by the workers is charged to the coordinator
+		final RdfCanonBudgetTicker local = RdfCanonBudgetTicker.create();
+		RdfCanonIncrementalTest.output(RdfCanonCheckpointTest.canon(RdfCanonMetricsTest.HEXAGON, local));
+
+		final RdfCanonBudgetTicker distributed = RdfCanonBudgetTicker.create();
+		RdfCanonIncrementalTest.output(RdfCanonCheckpointTest.canon(RdfCanonMetricsTest.HEXAGON, distributed)
+				.workers(workers));
+
+		assertEquals(local.permutations(), distributed.permutations());
+		assertTrue(distributed.digestBytes() > 0);
+
+		// the budget is enforced by the workers
+		final AtomicInteger aborted = new AtomicInteger();
+		final RdfCanonWorkers counting = RdfCanonWorkers.of(List.of(unit -> {
+			final byte[] result = RdfCanonWorker.execute(unit);
+			if (result[0] == 2) {
+				aborted.incrementAndGet();
+			}
+			return result;
+		}));
+
+		final RdfCanon canon = RdfCanonCheckpointTest.canon(RdfCanonMetricsTest.HEXAGON,
+				RdfCanonBudgetTicker.create().maxPermutations(1)).workers(counting);
+
+		final IllegalStateException e = assertThrows(IllegalStateException.class,
+				() -> RdfCanonIncrementalTest.output(canon));
+		assertEquals("Maximum permutations of 1 exceeded.", e.getMessage());
+		assertEquals(1, aborted.get());
+	}
+
+	@Test
+	void testFrameLength() throws IOException {
+
+		final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		new DataOutputStream(bytes).writeInt(Integer.MAX_VALUE);
+
+		assertThrows(IOException.class, () -> RdfCanonWorker.read(new DataInputStream(
+				new ByteArrayInputStream(bytes.toByteArray()))));
+
+		assertThrows(IOException.class, () -> RdfCanonWorker.serve(new ByteArrayInputStream(bytes.toByteArray()),
+				new ByteArrayOutputStream()));
+	}
+
+	@Test
+	void testFailure() {
+
+		final RdfCanonWorkers workers = RdfCanonWorkers.of(List.of(unit -> {
+			throw new IOException("unreachable");
+		}));
+
+		final RdfCanon canon = RdfCanonCheckpointTest.canon(RdfCanonMetricsTest.HEXAGON, RdfCanonTicker.EMPTY)
+				.workers(workers);
+
+		assertThrows(UncheckedIOException.class, () -> RdfCanonIncrementalTest.output(canon));
+	}
+}
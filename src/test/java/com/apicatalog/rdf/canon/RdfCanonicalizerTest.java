@@ -0,0 +1,218 @@
+package com.apicatalog.rdf.canon;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assertions.fail;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.MethodSource;
+
+import com.apicatalog.rdf.api.RdfConsumerException;
+import com.apicatalog.rdf.nquads.NQuadsReader;
+import com.apicatalog.rdf.nquads.NQuadsReaderException;
+
+@DisplayName("Reusable RDFC-1.0 Canonicalizer")
+class RdfCanonicalizerTest {
+
+	static final Map<String, RdfCanonicalizer> CANONICALIZERS = new ConcurrentHashMap<>();
+
+	@ParameterizedTest(name = "{0}")
+	@MethodSource("com.apicatalog.rdf.canon.RdfCanonTest#data")
+	void testCanonize(RdfCanonTestCase testCase) throws IOException, NQuadsReaderException, RdfConsumerException {
+
+		// a single pooled instance is reused by all the tests
+		final RdfCanonicalizer canonicalizer = CANONICALIZERS.computeIfAbsent(testCase.hashAlgorithm,
+				algorithm -> RdfCanonicalizer.create(algorithm, () -> new RdfCanonTimeTicker(300), 1));
+
+		final RdfCanonResult result;
+
+		try {
+			result = canonicalizer.canonize(source(testCase));
+
+		} catch (IllegalStateException e) {
+			if (RdfCanonTestCase.Type.RDFC10NegativeEvalTest != testCase.type) {
+				fail(e);
+			}
+			return;
+		}
+
+		assertResult(testCase, result);
+	}
+
+	@Test
+	void testConcurrent() throws IOException {
+
+		final RdfCanonicalizer canonicalizer = RdfCanonicalizer.create("SHA-256", () -> RdfCanonTicker.EMPTY, 2);
+
+		final List<RdfCanonTestCase> testCases = RdfCanonTest.evalData()
+				.filter(testCase -> "SHA-256".equals(testCase.hashAlgorithm))
+				.collect(Collectors.toList());
+
+		for (int i = 0; i < 5; i++) {
+			testCases.parallelStream().forEach(testCase -> {
+				try {
+					assertResult(testCase, canonicalizer.canonize(source(testCase)));
+
+				} catch (IOException e) {
+					throw new UncheckedIOException(e);
+
+				} catch (NQuadsReaderException | RdfConsumerException e) {
+					fail(e);
+				}
+			});
+		}
+	}
+
+	@Test
+	void testBatch() throws IOException {
+
+		final RdfCanonicalizer canonicalizer = RdfCanonicalizer.create("SHA-256", () -> new RdfCanonTimeTicker(300));
+
+		final List<RdfCanonTestCase> testCases = RdfCanonTest.data()
+				.filter(testCase -> "SHA-256".equals(testCase.hashAlgorithm))
+				.collect(Collectors.toList());
+
+		final List<RdfCanonBatchResult> results = canonicalizer.canonizeAll(testCases.stream()
+				.map(RdfCanonicalizerTest::source)
+				.collect(Collectors.toList()));
+
+		assertEquals(testCases.size(), results.size());
+
+		for (int index = 0; index < testCases.size(); index++) {
+			final RdfCanonTestCase testCase = testCases.get(index);
+			final RdfCanonBatchResult result = results.get(index);
+
+			assertEquals(index, result.index());
+
+			if (RdfCanonTestCase.Type.RDFC10NegativeEvalTest == testCase.type) {
+				assertFalse(result.isSuccess());
+				assertInstanceOf(IllegalStateException.class, result.error());
+
+			} else {
+				assertTrue(result.isSuccess(), () -> String.valueOf(result.error()));
+				assertResult(testCase, result.result());
+			}
+		}
+	}
+
+	@Test
+	void testNoCopies() throws RdfConsumerException {
+
+		final RdfCanonicalizer canonicalizer = RdfCanonicalizer.create("SHA-256", () -> RdfCanonTicker.EMPTY, 1);
+
+		final RdfCanonSource<RdfConsumerException> source = consumer -> {
+			for (final String[] quad : RdfCanonMetricsTest.HEXAGON) {
+				consumer.quad(quad[0], quad[1], quad[2], quad[3], quad[4], quad[5], quad[6]);
+			}
+		};
+
+		final RdfCanonResult result = canonicalizer.canonize(source);
+
+		// the input quads are relabeled in place, not copied
+		assertEquals(6, result.quads().size());
+		assertTrue(result.quads().stream().allMatch(quad -> quad.origin == null));
+
+		final StringBuilder expected = new StringBuilder();
+		RdfCanonCheckpointTest.canon(RdfCanonMetricsTest.HEXAGON, RdfCanonTicker.EMPTY).result()
+				.provide(expected::append);
+
+		final StringBuilder output = new StringBuilder();
+		result.provide(output::append);
+
+		assertEquals(expected.toString(), output.toString());
+
+		// the pooled instance is reused
+		final RdfCanonResult next = canonicalizer.canonize(source);
+
+		final StringBuilder again = new StringBuilder();
+		next.provide(again::append);
+
+		assertEquals(expected.toString(), again.toString());
+	}
+
+	@Test
+	void testAllocation() {
+
+		// blank nodes with unique first degree hashes
+		final List<String[]> dataset = new ArrayList<>();
+		for (int i = 0; i < 5_000; i++) {
+			dataset.add(RdfCanonIsomorphismTest.edge("_:n" + i, "http://ex/o" + i));
+		}
+
+		assumeTrue(ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean);
+		final var threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+		final long thread = Thread.currentThread().getId();
+
+		long copies = Long.MAX_VALUE;
+		long inPlace = Long.MAX_VALUE;
+
+		// the minimum of a few rounds, the first ones warm up
+		for (int i = 0; i < 5; i++) {
+			final RdfCanon copying = RdfCanonCheckpointTest.canon(dataset, RdfCanonTicker.EMPTY);
+			final long start = threads.getThreadAllocatedBytes(thread);
+			copying.result();
+			copies = Math.min(copies, threads.getThreadAllocatedBytes(thread) - start);
+
+			final RdfCanon relabeling = RdfCanonCheckpointTest.canon(dataset, RdfCanonTicker.EMPTY);
+			final long middle = threads.getThreadAllocatedBytes(thread);
+			relabeling.lastResult();
+			inPlace = Math.min(inPlace, threads.getThreadAllocatedBytes(thread) - middle);
+		}
+
+		// at least the quad copies are saved
+		assertTrue(copies - inPlace >= 5_000L * 32, copies + " vs " + inPlace);
+	}
+
+	@Test
+	void testUnknownAlgorithm() {
+		assertThrows(IllegalStateException.class, () -> RdfCanonicalizer.create("UNKNOWN-FAIL"));
+	}
+
+	static final RdfCanonSource<NQuadsReaderException> source(RdfCanonTestCase testCase) {
+		return consumer -> {
+			try (final Reader reader = new InputStreamReader(
+					RdfCanonTest.class.getResourceAsStream(testCase.input))) {
+				new NQuadsReader(reader).provide(consumer);
+
+			} catch (IOException e) {
+				throw new UncheckedIOException(e);
+			}
+		};
+	}
+
+	static final void assertResult(RdfCanonTestCase testCase, RdfCanonResult result) throws IOException {
+		switch (testCase.type) {
+		case RDFC10EvalTest:
+			final StringBuilder builder = new StringBuilder();
+			result.provide(builder::append);
+			RdfCanonTest.assertEval(testCase, RdfCanonTest.expected(testCase), builder.toString());
+			break;
+
+		case RDFC10MapTest:
+			RdfCanonTest.assertMap(testCase, result.mapping(), RdfCanonTest.expected(testCase));
+			break;
+
+		case RDFC10NegativeEvalTest:
+			fail();
+			break;
+		}
+		assertEquals(result.mapping().size(), result.mapping().values().stream().distinct().count());
+	}
+}
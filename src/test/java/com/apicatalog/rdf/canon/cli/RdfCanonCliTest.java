@@ -0,0 +1,108 @@
+package com.apicatalog.rdf.canon.cli;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+@DisplayName("RDFC-1.0 Command Line")
+class RdfCanonCliTest {
+
+	static final String INPUT = "_:x <http://ex/p> _:y .\n_:y <http://ex/p> _:x .\n";
+
+	static final String CANONICAL = "_:c14n0 <http://ex/p> _:c14n1 .\n_:c14n1 <http://ex/p> _:c14n0 .\n";
+
+	@TempDir
+	Path dir;
+
+	@Test
+	void testStdin() {
+		final ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+		assertEquals(RdfCanonCli.OK, run(out, new ByteArrayOutputStream()));
+		assertEquals(CANONICAL, out.toString(StandardCharsets.UTF_8));
+	}
+
+	@Test
+	void testDirectory() throws IOException {
+		for (int i = 0; i < 20; i++) {
+			Files.writeString(dir.resolve(String.format("%02d.nq", i)), INPUT);
+		}
+		Files.writeString(dir.resolve("ignored.txt"), "not n-quads");
+
+		final ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+		assertEquals(RdfCanonCli.OK, run(out, new ByteArrayOutputStream(), "-o", "digest", "-j", "3", dir.toString()));
+
+		final String[] lines = out.toString(StandardCharsets.UTF_8).split("\n");
+		assertEquals(20, lines.length);
+
+		final String digest = lines[0].substring(0, lines[0].indexOf(' '));
+		for (int i = 0; i < lines.length; i++) {
+			assertEquals(digest + "  " + dir.resolve(String.format("%02d.nq", i)), lines[i]);
+		}
+	}
+
+	@Test
+	void testMapping() throws IOException {
+		final ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+		assertEquals(RdfCanonCli.OK, run(out, new ByteArrayOutputStream(), "--output", "mapping", "-"));
+		assertEquals("_:x _:c14n0\n_:y _:c14n1\n", out.toString(StandardCharsets.UTF_8));
+	}
+
+	@Test
+	void testFailures() throws IOException {
+		final Path invalid = Files.writeString(dir.resolve("invalid.nq"), "_:x <http://ex/p>\n");
+
+		final ByteArrayOutputStream err = new ByteArrayOutputStream();
+
+		assertEquals(RdfCanonCli.FAILURE, run(new ByteArrayOutputStream(), err, invalid.toString(), "-"));
+		assertTrue(err.toString(StandardCharsets.UTF_8).startsWith("rdfc: " + invalid));
+
+		assertEquals(RdfCanonCli.USAGE, run(new ByteArrayOutputStream(), new ByteArrayOutputStream(), "-j", "0"));
+		assertEquals(RdfCanonCli.USAGE, run(new ByteArrayOutputStream(), new ByteArrayOutputStream(), "-a", "MD4"));
+		assertEquals(RdfCanonCli.USAGE, run(new ByteArrayOutputStream(), new ByteArrayOutputStream(), "--unknown"));
+	}
+
+	@Test
+	void testUtf8() throws IOException {
+		final String input = "_:x <http://ex/p> \"\u017elu\u0165ou\u010dk\u00fd\" .\n";
+		final Path file = Files.writeString(dir.resolve("utf8.nq"), input);
+
+		final ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+		assertEquals(RdfCanonCli.OK, run(input, out, new ByteArrayOutputStream(), "-"));
+		assertArrayEquals("_:c14n0 <http://ex/p> \"\u017elu\u0165ou\u010dk\u00fd\" .\n".getBytes(StandardCharsets.UTF_8),
+				out.toByteArray());
+
+		out.reset();
+
+		// a header of each file
+		assertEquals(RdfCanonCli.OK, run(input, out, new ByteArrayOutputStream(), file.toString(), file.toString()));
+		assertArrayEquals(("# " + file + "\n_:c14n0 <http://ex/p> \"\u017elu\u0165ou\u010dk\u00fd\" .\n").repeat(2)
+				.getBytes(StandardCharsets.UTF_8), out.toByteArray());
+	}
+
+	static int run(ByteArrayOutputStream out, ByteArrayOutputStream err, String... args) {
+		return run(INPUT, out, err, args);
+	}
+
+	static int run(String input, ByteArrayOutputStream out, ByteArrayOutputStream err, String... args) {
+		return RdfCanonCli.run(args,
+				new ByteArrayInputStream(input.getBytes(StandardCharsets.UTF_8)),
+				out,
+				new PrintStream(err, true, StandardCharsets.UTF_8));
+	}
+}
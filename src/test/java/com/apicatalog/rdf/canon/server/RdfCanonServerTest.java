@@ -0,0 +1,228 @@
+package com.apicatalog.rdf.canon.server;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import com.apicatalog.rdf.canon.RdfCanonBudgetTicker;
+import com.apicatalog.rdf.canon.RdfCanonTicker;
+
+@DisplayName("RDFC-1.0 Server")
+class RdfCanonServerTest {
+
+	static final String INPUT = "_:x <http://ex/p> _:y .\n_:y <http://ex/p> _:x .\n";
+
+	static final String CANONICAL = "_:c14n0 <http://ex/p> _:c14n1 .\n_:c14n1 <http://ex/p> _:c14n0 .\n";
+
+	static final String REORDERED = "_:y <http://ex/p> _:x .\n_:x <http://ex/p> _:y .\n";
+
+	final HttpClient client = HttpClient.newHttpClient();
+
+	RdfCanonServer server;
+
+	@AfterEach
+	void stop() {
+		if (server != null) {
+			server.stop(Duration.ZERO);
+		}
+	}
+
+	@Test
+	void testOutputs() throws Exception {
+		server = RdfCanonServer.create(new InetSocketAddress("127.0.0.1", 0)).start();
+
+		assertResponse(200, CANONICAL, post("/nquads", INPUT));
+		assertResponse(200, "_:x _:c14n0\n_:y _:c14n1\n", post("/mapping", INPUT));
+
+		final HttpResponse<String> digest = post("/digest", INPUT);
+		assertResponse(200, digest.body(), post("/digest", REORDERED));
+		assertEquals(65, digest.body().length());
+
+		assertEquals(200, post("/nquads", "").statusCode());
+		assertEquals(400, post("/nquads", "_:x <http://ex/p>\n").statusCode());
+		assertEquals(404, post("/unknown", INPUT).statusCode());
+		assertEquals(405, client.send(HttpRequest.newBuilder(uri("/nquads")).GET().build(),
+				HttpResponse.BodyHandlers.ofString()).statusCode());
+	}
+
+	@Test
+	void testLimits() throws Exception {
+		server = RdfCanonServer.create(new InetSocketAddress("127.0.0.1", 0))
+				.maxBodySize(64)
+				.tickers(() -> RdfCanonBudgetTicker.create().maxPermutations(1))
+				.start();
+
+		assertEquals(413, post("/nquads", INPUT + INPUT).statusCode());
+		assertEquals(422, post("/nquads", INPUT).statusCode());
+	}
+
+	@Test
+	void testCoalescing() throws Exception {
+
+		final CountDownLatch entered = new CountDownLatch(1);
+		final CountDownLatch release = new CountDownLatch(1);
+		final AtomicBoolean first = new AtomicBoolean(true);
+
+		// the first canonicalization waits until released
+		server = RdfCanonServer.create(new InetSocketAddress("127.0.0.1", 0))
+				.tickers(() -> first.getAndSet(false)
+						? () -> {
+							entered.countDown();
+							try {
+								release.await(10, TimeUnit.SECONDS);
+							} catch (InterruptedException e) {
+								Thread.currentThread().interrupt();
+							}
+						}
+						: RdfCanonTicker.EMPTY)
+				.start();
+
+		final CompletableFuture<HttpResponse<String>> leader = postAsync("/nquads", INPUT);
+		assertTrue(entered.await(10, TimeUnit.SECONDS));
+
+		final CompletableFuture<HttpResponse<String>> follower = postAsync("/mapping", REORDERED);
+		while (server.coalesced() == 0) {
+			Thread.sleep(10);
+		}
+		release.countDown();
+
+		assertResponse(200, CANONICAL, leader.get(10, TimeUnit.SECONDS));
+		assertResponse(200, "_:x _:c14n0\n_:y _:c14n1\n", follower.get(10, TimeUnit.SECONDS));
+		assertEquals("true", follower.get().headers().firstValue("X-Canon-Coalesced").orElse(null));
+		assertEquals(2, server.requests());
+	}
+
+	@Test
+	void testLeaderError() throws Exception {
+
+		final CountDownLatch entered = new CountDownLatch(1);
+		final CountDownLatch release = new CountDownLatch(1);
+		final AtomicBoolean first = new AtomicBoolean(true);
+
+		// the first canonicalization fails by an error once released
+		server = RdfCanonServer.create(new InetSocketAddress("127.0.0.1", 0))
+				.tickers(() -> first.getAndSet(false)
+						? () -> {
+							entered.countDown();
+							await(release);
+							throw new AssertionError("leader failed");
+						}
+						: RdfCanonTicker.EMPTY)
+				.start();
+
+		final CompletableFuture<HttpResponse<String>> leader = postAsync("/nquads", INPUT);
+		assertTrue(entered.await(10, TimeUnit.SECONDS));
+
+		final CompletableFuture<HttpResponse<String>> follower = postAsync("/mapping", REORDERED);
+		while (server.coalesced() == 0) {
+			Thread.sleep(10);
+		}
+		release.countDown();
+
+		assertEquals(500, leader.get(10, TimeUnit.SECONDS).statusCode());
+		assertEquals(500, follower.get(10, TimeUnit.SECONDS).statusCode());
+	}
+
+	@Test
+	void testFollowerTimeout() throws Exception {
+
+		final CountDownLatch entered = new CountDownLatch(1);
+		final CountDownLatch release = new CountDownLatch(1);
+		final AtomicBoolean first = new AtomicBoolean(true);
+
+		server = RdfCanonServer.create(new InetSocketAddress("127.0.0.1", 0))
+				.queueTimeout(Duration.ofMillis(100))
+				.runTimeout(Duration.ofMillis(100))
+				.tickers(() -> first.getAndSet(false)
+						? () -> {
+							entered.countDown();
+							await(release);
+						}
+						: RdfCanonTicker.EMPTY)
+				.start();
+
+		final CompletableFuture<HttpResponse<String>> leader = postAsync("/nquads", INPUT);
+		assertTrue(entered.await(10, TimeUnit.SECONDS));
+
+		// the follower gives up while the leader is still running
+		assertEquals(503, post("/mapping", REORDERED).statusCode());
+		assertEquals(1, server.coalesced());
+
+		release.countDown();
+		assertResponse(200, CANONICAL, leader.get(10, TimeUnit.SECONDS));
+	}
+
+	@Test
+	void testQueuedDeadline() throws Exception {
+
+		final CountDownLatch entered = new CountDownLatch(1);
+		final CountDownLatch release = new CountDownLatch(1);
+		final AtomicBoolean first = new AtomicBoolean(true);
+
+		// the first canonicalization holds the only slot until released
+		server = RdfCanonServer.create(new InetSocketAddress("127.0.0.1", 0))
+				.maxConcurrency(1)
+				.tickers(() -> first.getAndSet(false)
+						? () -> {
+							entered.countDown();
+							await(release);
+						}
+						: RdfCanonBudgetTicker.create().deadline(Duration.ofMillis(200)).checkEvery(1))
+				.start();
+
+		final CompletableFuture<HttpResponse<String>> leader = postAsync("/nquads", INPUT);
+		assertTrue(entered.await(10, TimeUnit.SECONDS));
+
+		// another dataset waits for the slot longer than its deadline
+		final CompletableFuture<HttpResponse<String>> queued = postAsync("/mapping", "_:x <http://ex/q> _:y .\n");
+		Thread.sleep(400);
+		release.countDown();
+
+		assertResponse(200, CANONICAL, leader.get(10, TimeUnit.SECONDS));
+		assertResponse(200, "_:x _:c14n0\n_:y _:c14n1\n", queued.get(10, TimeUnit.SECONDS));
+	}
+
+	static void await(CountDownLatch latch) {
+		try {
+			latch.await(10, TimeUnit.SECONDS);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	URI uri(String path) {
+		return URI.create("http://127.0.0.1:" + server.address().getPort() + path);
+	}
+
+	HttpResponse<String> post(String path, String body) throws IOException, InterruptedException {
+		return client.send(request(path, body), HttpResponse.BodyHandlers.ofString());
+	}
+
+	CompletableFuture<HttpResponse<String>> postAsync(String path, String body) {
+		return client.sendAsync(request(path, body), HttpResponse.BodyHandlers.ofString());
+	}
+
+	HttpRequest request(String path, String body) {
+		return HttpRequest.newBuilder(uri(path)).POST(HttpRequest.BodyPublishers.ofString(body)).build();
+	}
+
+	static void assertResponse(int status, String body, HttpResponse<String> response) {
+		assertEquals(status, response.statusCode(), response.body());
+		assertEquals(body, response.body());
+	}
+}